@@ -0,0 +1,95 @@
+package com.dhorbach.codingchallenge.benchmarks;
+
+import com.dhorbach.codingchallenge.codecs.StreamingJsonDecoder;
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.GitHubRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding a full page of 100 GitHub repositories or branches with the generic Jackson decoder and the
+ * field-skipping {@link StreamingJsonDecoder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GitHubDecoderBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int CHUNK_SIZE = 8192;
+
+    @Param({"repositories", "branches"})
+    private String page;
+
+    private final Decoder<Object> jacksonDecoder = new Jackson2JsonDecoder();
+    private Decoder<?> streamingDecoder;
+    private ResolvableType elementType;
+    private List<byte[]> chunks;
+
+    @Setup
+    public void setUp() {
+        final String payload;
+        if ("repositories".equals(page)) {
+            payload = GitHubPayloads.repositories(PAGE_SIZE);
+            elementType = ResolvableType.forClass(GitHubRepository.class);
+            streamingDecoder = StreamingJsonDecoder.gitHubRepositories();
+        } else {
+            payload = GitHubPayloads.branches("user", PAGE_SIZE);
+            elementType = ResolvableType.forClass(GitHubBranch.class);
+            streamingDecoder = StreamingJsonDecoder.gitHubBranches();
+        }
+        final byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        chunks = new ArrayList<>();
+        for (int offset = 0; offset < bytes.length; offset += CHUNK_SIZE) {
+            final byte[] chunk = new byte[Math.min(CHUNK_SIZE, bytes.length - offset)];
+            System.arraycopy(bytes, offset, chunk, 0, chunk.length);
+            chunks.add(chunk);
+        }
+    }
+
+    @Benchmark
+    public void jackson(final Blackhole blackhole) {
+        jacksonDecoder.decode(input(), elementType, MediaType.APPLICATION_JSON, Collections.emptyMap())
+            .doOnNext(blackhole::consume)
+            .blockLast();
+    }
+
+    @Benchmark
+    public void streaming(final Blackhole blackhole) {
+        streamingDecoder.decode(input(), elementType, MediaType.APPLICATION_JSON, Collections.emptyMap())
+            .doOnNext(blackhole::consume)
+            .blockLast();
+    }
+
+    private Flux<DataBuffer> input() {
+        return Flux.fromIterable(chunks)
+            .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(chunk)));
+    }
+}
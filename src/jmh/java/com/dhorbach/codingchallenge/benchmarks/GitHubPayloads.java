@@ -0,0 +1,106 @@
+package com.dhorbach.codingchallenge.benchmarks;
+
+/**
+ * Synthetic GitHub REST API payloads with the full set of fields of the real responses.
+ */
+public final class GitHubPayloads {
+
+    private static final String[] REPOSITORY_URLS = {
+        "forks", "keys", "collaborators", "teams", "hooks", "issue_events", "events", "assignees", "branches", "tags",
+        "blobs", "git_tags", "git_refs", "trees", "statuses", "languages", "stargazers", "contributors", "subscribers",
+        "subscription", "commits", "git_commits", "comments", "issue_comment", "contents", "compare", "merges",
+        "archive", "downloads", "issues", "pulls", "milestones", "notifications", "labels", "releases", "deployments"
+    };
+    private static final String[] OWNER_URLS = {
+        "followers", "following", "gists", "starred", "subscriptions", "organizations", "repos", "events",
+        "received_events"
+    };
+
+    private GitHubPayloads() {
+    }
+
+    /**
+     * @param count the number of repositories
+     * @return a JSON array of repositories as returned by {@code GET /users/{username}/repos}
+     */
+    public static String repositories(final int count) {
+        return repositories("user", 0, count);
+    }
+
+    /**
+     * @param owner the owner of the repositories
+     * @param first the number of the first repository
+     * @param count the number of repositories
+     * @return a JSON array of repositories as returned by {@code GET /users/{username}/repos}, every fifth repository
+     * is a fork
+     */
+    public static String repositories(final String owner, final int first, final int count) {
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = first; i < first + count; i++) {
+            if (i > first) {
+                json.append(',');
+            }
+            appendRepository(json, owner, "repository-" + i, i % 5 == 0);
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * @param owner the owner of the branches
+     * @param count the number of branches
+     * @return a JSON array of branches as returned by {@code GET /repos/{owner}/{repo}/branches}
+     */
+    public static String branches(final String owner, final int count) {
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            final String sha = String.format("%040x", i);
+            json.append("{\"name\":\"branch-").append(i)
+                .append("\",\"commit\":{\"sha\":\"").append(sha)
+                .append("\",\"url\":\"https://api.github.com/repos/").append(owner).append("/repository/commits/")
+                .append(sha).append("\"},\"protected\":false}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static void appendRepository(final StringBuilder json, final String owner, final String name, final boolean fork) {
+        final String fullName = owner + "/" + name;
+        final String apiUrl = "https://api.github.com/repos/" + fullName;
+        json.append("{\"id\":").append(name.hashCode())
+            .append(",\"node_id\":\"R_kgDOAbCdEf\",\"name\":\"").append(name)
+            .append("\",\"full_name\":\"").append(fullName)
+            .append("\",\"private\":false,\"owner\":{\"login\":\"").append(owner)
+            .append("\",\"id\":1,\"node_id\":\"U_kgDOAbCdEf\",\"avatar_url\":\"https://avatars.githubusercontent.com/u/1?v=4\"")
+            .append(",\"gravatar_id\":\"\",\"url\":\"https://api.github.com/users/").append(owner)
+            .append("\",\"html_url\":\"https://github.com/").append(owner).append('"');
+        for (final String url : OWNER_URLS) {
+            json.append(",\"").append(url).append("_url\":\"https://api.github.com/users/").append(owner).append('/')
+                .append(url).append('"');
+        }
+        json.append(",\"type\":\"User\",\"site_admin\":false}")
+            .append(",\"html_url\":\"https://github.com/").append(fullName)
+            .append("\",\"description\":\"Description of ").append(name)
+            .append("\",\"fork\":").append(fork)
+            .append(",\"url\":\"").append(apiUrl).append('"');
+        for (final String url : REPOSITORY_URLS) {
+            json.append(",\"").append(url).append("_url\":\"").append(apiUrl).append('/').append(url)
+                .append("{/id}\"");
+        }
+        json.append(",\"created_at\":\"2020-01-01T00:00:00Z\",\"updated_at\":\"2023-01-01T00:00:00Z\"")
+            .append(",\"pushed_at\":\"2023-01-01T00:00:00Z\",\"git_url\":\"git://github.com/").append(fullName)
+            .append(".git\",\"ssh_url\":\"git@github.com:").append(fullName)
+            .append(".git\",\"clone_url\":\"https://github.com/").append(fullName)
+            .append(".git\",\"svn_url\":\"https://github.com/").append(fullName)
+            .append("\",\"homepage\":null,\"size\":1024,\"stargazers_count\":10,\"watchers_count\":10")
+            .append(",\"language\":\"Java\",\"has_issues\":true,\"has_projects\":true,\"has_downloads\":true")
+            .append(",\"has_wiki\":true,\"has_pages\":false,\"has_discussions\":false,\"forks_count\":0")
+            .append(",\"mirror_url\":null,\"archived\":false,\"disabled\":false,\"open_issues_count\":0")
+            .append(",\"license\":{\"key\":\"mit\",\"name\":\"MIT License\",\"spdx_id\":\"MIT\"")
+            .append(",\"url\":\"https://api.github.com/licenses/mit\",\"node_id\":\"MDc6TGljZW5zZTEz\"}")
+            .append(",\"allow_forking\":true,\"is_template\":false,\"web_commit_signoff_required\":false")
+            .append(",\"topics\":[\"java\",\"spring\",\"webflux\"],\"visibility\":\"public\",\"forks\":0")
+            .append(",\"open_issues\":0,\"watchers\":10,\"default_branch\":\"main\"}");
+    }
+}
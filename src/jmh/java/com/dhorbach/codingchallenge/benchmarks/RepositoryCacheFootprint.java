@@ -0,0 +1,96 @@
+package com.dhorbach.codingchallenge.benchmarks;
+
+import com.dhorbach.codingchallenge.cache.RepositoryCache;
+import com.dhorbach.codingchallenge.config.RepositoryCacheProperties;
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.Repository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures the heap retained per cached repository, once for the repositories as they are decoded from GitHub and
+ * once for the entries of the {@link RepositoryCache}. Heap sizes are taken after a full GC, so the tool should run
+ * with a fixed heap and nothing else running, see {@code ./gradlew cacheFootprint}.
+ * <p>
+ * Every username has the given number of repositories with the given number of branches. Like in most accounts, the
+ * first branches are called {@code main}, {@code develop} and {@code master}, the rest have names of their own. Every
+ * string is a distinct instance, like the ones decoded from a GitHub response.
+ */
+public final class RepositoryCacheFootprint {
+
+    private static final String[] COMMON_BRANCHES = {"main", "develop", "master"};
+
+    private RepositoryCacheFootprint() {
+    }
+
+    /**
+     * @param args the number of usernames, repositories per username and branches per repository, by default
+     *             {@code 1000 50 5}
+     */
+    public static void main(final String[] args) {
+        final int usernames = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        final int repositories = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        final int branches = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        final RepositoryCacheProperties properties = new RepositoryCacheProperties();
+        properties.setMaxEntries(usernames);
+        final RepositoryCache repositoryCache = new RepositoryCache(properties, new SimpleMeterRegistry(), Clock.systemUTC());
+        final long baseline = usedHeap();
+
+        final Map<String, List<Repository>> decoded = new HashMap<>();
+        for (int i = 0; i < usernames; i++) {
+            decoded.put("user-" + i, repositories("user-" + i, repositories, branches));
+        }
+        final long decodedHeap = usedHeap() - baseline;
+
+        decoded.forEach((username, list) -> repositoryCache.get(username, key -> Flux.fromIterable(list).index()).blockLast());
+        decoded.clear();
+        final long cachedHeap = usedHeap() - baseline;
+
+        final long total = (long) usernames * repositories;
+        System.out.printf(
+            "%d usernames, %d repositories with %d branches each%n", usernames, repositories, branches
+        );
+        System.out.printf("decoded: %,d bytes, %,d bytes per repository%n", decodedHeap, decodedHeap / total);
+        System.out.printf("cached:  %,d bytes, %,d bytes per repository%n", cachedHeap, cachedHeap / total);
+        // keeps the cache reachable until it is measured
+        System.out.println(repositoryCache.getIfPresent("user-0").map(List::size).orElse(0) + " repositories of user-0 cached");
+    }
+
+    private static List<Repository> repositories(final String username, final int count, final int branches) {
+        final List<Repository> repositories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final List<GitHubBranch> gitHubBranches = new ArrayList<>(branches);
+            for (int j = 0; j < branches; j++) {
+                final String name = j < COMMON_BRANCHES.length ? COMMON_BRANCHES[j] : "feature-" + i + "-" + j;
+                gitHubBranches.add(new GitHubBranch(new String(name), sha()));
+            }
+            repositories.add(Repository.builder()
+                .name("repository-" + i)
+                .ownerLogin(new String(username))
+                .branches(gitHubBranches)
+                .build());
+        }
+        return repositories;
+    }
+
+    private static String sha() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        return String.format("%016x%016x%08x", random.nextLong(), random.nextLong(), random.nextInt());
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,65 @@
+package com.dhorbach.codingchallenge.benchmarks;
+
+import com.dhorbach.codingchallenge.mappers.RepositoryMapper;
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.Repository;
+import models.RepositoryDTO;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares mapping a {@link Repository} to the {@link RepositoryDTO} returned by the API with the reflective
+ * {@link ModelMapper} previously used and the explicit {@link RepositoryMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryMappingBenchmark {
+
+    @Param({"1", "100", "5000"})
+    private int branches;
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final RepositoryMapper repositoryMapper = new RepositoryMapper();
+    private Repository repository;
+
+    @Setup
+    public void setUp() {
+        final List<GitHubBranch> gitHubBranches = new ArrayList<>(branches);
+        for (int i = 0; i < branches; i++) {
+            gitHubBranches.add(new GitHubBranch("branch-" + i, String.format("%040x", i)));
+        }
+        repository = Repository.builder()
+            .name("repository")
+            .ownerLogin("user")
+            .branches(gitHubBranches)
+            .build();
+    }
+
+    @Benchmark
+    public RepositoryDTO modelMapper() {
+        return modelMapper.map(repository, RepositoryDTO.class);
+    }
+
+    @Benchmark
+    public RepositoryDTO repositoryMapper() {
+        return repositoryMapper.toRepositoryDto(repository);
+    }
+}
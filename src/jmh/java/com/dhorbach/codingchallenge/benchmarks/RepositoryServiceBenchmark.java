@@ -0,0 +1,169 @@
+package com.dhorbach.codingchallenge.benchmarks;
+
+import com.dhorbach.codingchallenge.cache.NegativeCache;
+import com.dhorbach.codingchallenge.cache.RepositoryCache;
+import com.dhorbach.codingchallenge.concurrency.AdaptiveConcurrencyLimiter;
+import com.dhorbach.codingchallenge.concurrency.RequestHedger;
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import com.dhorbach.codingchallenge.config.RepositoryCacheProperties;
+import com.dhorbach.codingchallenge.config.WebClientConfiguration;
+import com.dhorbach.codingchallenge.filters.ETagCacheExchangeFilterFunction;
+import com.dhorbach.codingchallenge.filters.FlightRecorderExchangeFilterFunction;
+import com.dhorbach.codingchallenge.filters.HedgingExchangeFilterFunction;
+import com.dhorbach.codingchallenge.filters.MetricsExchangeFilterFunction;
+import com.dhorbach.codingchallenge.filters.RateLimitExchangeFilterFunction;
+import com.dhorbach.codingchallenge.models.Repository;
+import com.dhorbach.codingchallenge.services.RepositoryService;
+import com.dhorbach.codingchallenge.services.RestGitHubService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link RepositoryService#getRepositories(String)} end to end, through the production WebClient, against an
+ * in-process GitHub stub with configurable latency and numbers of repositories and branches. The repositories cache is
+ * disabled, so every operation performs the complete upstream fan-out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RepositoryServiceBenchmark {
+
+    private static final String USERNAME = "user";
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"10", "250"})
+    private int repositories;
+
+    @Param({"10"})
+    private int branches;
+
+    @Param({"0", "20"})
+    private int latencyMillis;
+
+    private MockWebServer mockWebServer;
+    private ConnectionProvider connectionProvider;
+    private RepositoryService repositoryService;
+
+    @Setup
+    public void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.setDispatcher(new GitHubDispatcher(repositories, branches, latencyMillis));
+        mockWebServer.start();
+
+        final GitHubProperties gitHubProperties = new GitHubProperties();
+        gitHubProperties.setBaseUrl(mockWebServer.url("/").toString());
+        final WebClientConfiguration webClientConfiguration = new WebClientConfiguration();
+        final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton(
+            "hedgingExchangeFilterFunction",
+            webClientConfiguration.hedgingExchangeFilterFunction(
+                new AdaptiveConcurrencyLimiter(gitHubProperties.getConcurrency(), new SimpleMeterRegistry()),
+                new RequestHedger(gitHubProperties.getHedging(), new SimpleMeterRegistry())
+            )
+        );
+        connectionProvider = webClientConfiguration.gitHubConnectionProvider(gitHubProperties);
+        final WebClient webClient = webClientConfiguration.webClient(
+            gitHubProperties,
+            webClientConfiguration.gitHubClientHttpConnector(
+                gitHubProperties,
+                connectionProvider,
+                beanFactory.getBeanProvider(FlightRecorderExchangeFilterFunction.class)
+            ),
+            beanFactory.getBeanProvider(HedgingExchangeFilterFunction.class),
+            beanFactory.getBeanProvider(RateLimitExchangeFilterFunction.class),
+            beanFactory.getBeanProvider(ETagCacheExchangeFilterFunction.class),
+            beanFactory.getBeanProvider(MetricsExchangeFilterFunction.class),
+            beanFactory.getBeanProvider(FlightRecorderExchangeFilterFunction.class)
+        );
+
+        final RepositoryCacheProperties cacheProperties = new RepositoryCacheProperties();
+        cacheProperties.setEnabled(false);
+        repositoryService = new RepositoryService(
+            new RestGitHubService(webClient, gitHubProperties),
+            new RepositoryCache(cacheProperties, new SimpleMeterRegistry(), Clock.systemUTC()),
+            new NegativeCache(cacheProperties.getNegative(), new SimpleMeterRegistry(), Clock.systemUTC()),
+            new SimpleMeterRegistry()
+        );
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        connectionProvider.dispose();
+        mockWebServer.shutdown();
+    }
+
+    @Benchmark
+    public List<Repository> getRepositories() {
+        return repositoryService.getRepositories(USERNAME).collectList().block();
+    }
+
+    /**
+     * Serves paginated repositories and branches of a single user, every response is delayed by the latency.
+     */
+    private static final class GitHubDispatcher extends Dispatcher {
+
+        private final int repositories;
+        private final String branches;
+        private final int latencyMillis;
+
+        private GitHubDispatcher(final int repositories, final int branches, final int latencyMillis) {
+            this.repositories = repositories;
+            this.branches = GitHubPayloads.branches(USERNAME, branches);
+            this.latencyMillis = latencyMillis;
+        }
+
+        @NotNull
+        @Override
+        public MockResponse dispatch(@NotNull final RecordedRequest request) {
+            final HttpUrl url = request.getRequestUrl();
+            final MockResponse response = new MockResponse()
+                .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .setHeadersDelay(latencyMillis, TimeUnit.MILLISECONDS);
+            if (url == null || !url.encodedPath().equals("/users/" + USERNAME + "/repos")) {
+                return response.setBody(branches);
+            }
+            final String pageParameter = url.queryParameter("page");
+            final int page = pageParameter == null ? 1 : Integer.parseInt(pageParameter);
+            final int first = (page - 1) * PAGE_SIZE;
+            final int lastPage = Math.max((repositories + PAGE_SIZE - 1) / PAGE_SIZE, 1);
+            if (lastPage > 1) {
+                response.setHeader(HttpHeaders.LINK, String.format(
+                    "<%s>; rel=\"last\"", url.newBuilder().setQueryParameter("page", String.valueOf(lastPage)).build()
+                ));
+            }
+            return response.setBody(GitHubPayloads.repositories(
+                USERNAME, first, Math.max(Math.min(PAGE_SIZE, repositories - first), 0)
+            ));
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.dhorbach.codingchallenge.loadtest;
+
+import com.dhorbach.codingchallenge.CodingChallengeApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stress test of {@code GET /api/v1/repositories/{username}} for repositories with growing numbers of branches, once
+ * with branches collected into the response and once with {@code streamBranches=true}. Concurrent requests are sent for
+ * every number of branches and the live heap is sampled by a full GC at a fixed interval, so the peaks show how memory
+ * per request grows with the number of branches. Responses of both modes are compared by their sizes, as branches of
+ * different pages arrive in any order.
+ * <p>
+ * The application, the {@link GitHubStub} and the client run in the same JVM, the live heap before the requests is
+ * subtracted. The run fails if the streamed peak at the largest number of branches exceeds the one at the smallest by
+ * more than the allowed growth. Run with {@code ./gradlew branchStressTest}, options are {@code branches} (comma
+ * separated), {@code concurrency}, {@code sample-interval}, {@code max-growth-megabytes} and {@code report}.
+ */
+public final class BranchStreamingStressTest {
+
+    private static final Set<String> NAMES =
+        Set.of("branches", "concurrency", "sample-interval", "max-growth-megabytes", "report");
+    private static final String COLLECTED = "collected";
+    private static final String STREAMED = "streamed";
+
+    private BranchStreamingStressTest() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final Map<String, String> options = parse(args);
+        final int[] branchCounts = Arrays.stream(options.getOrDefault("branches", "1000,10000,50000").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+        final int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "8"));
+        final Duration sampleInterval = DurationStyle.detectAndParse(options.getOrDefault("sample-interval", "100ms"));
+        final long maxGrowthMegabytes = Long.parseLong(options.getOrDefault("max-growth-megabytes", "32"));
+        final Path reportPath = Path.of(options.getOrDefault("report", "build/reports/loadtest/branch-streaming.json"));
+
+        final List<Map<String, Object>> runs = new ArrayList<>();
+        for (final int branches : branchCounts) {
+            final LoadTestOptions stubOptions = LoadTestOptions.parse(new String[]{
+                "--repositories=3", "--branches=" + branches, "--repositories-latency=0ms", "--branches-latency=0ms"
+            });
+            try (GitHubStub stub = new GitHubStub(stubOptions)) {
+                final String stubUrl = stub.start();
+                try (ConfigurableApplicationContext context = startApplication(stubUrl)) {
+                    final WebClient webClient = WebClient.create(
+                        "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort()
+                    );
+                    final Map<String, Object> collected =
+                        run(webClient, COLLECTED, branches, concurrency, sampleInterval);
+                    final Map<String, Object> streamed =
+                        run(webClient, STREAMED, branches, concurrency, sampleInterval);
+                    if (!collected.get("responseBytes").equals(streamed.get("responseBytes"))) {
+                        throw new IllegalStateException("Responses with " + branches + " branches differ between modes");
+                    }
+                    runs.add(collected);
+                    runs.add(streamed);
+                }
+            }
+        }
+
+        final long smallest = peakMegabytes(runs, STREAMED, branchCounts[0]);
+        final long largest = peakMegabytes(runs, STREAMED, branchCounts[branchCounts.length - 1]);
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("concurrency", concurrency);
+        report.put("sampleIntervalMillis", sampleInterval.toMillis());
+        report.put("runs", runs);
+        report.put("streamedGrowthMegabytes", largest - smallest);
+        report.put("maxGrowthMegabytes", maxGrowthMegabytes);
+
+        final String json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(report);
+        System.out.println(json);
+        if (reportPath.getParent() != null) {
+            Files.createDirectories(reportPath.getParent());
+        }
+        Files.writeString(reportPath, json);
+        System.out.println("Report written to " + reportPath.toAbsolutePath());
+        System.exit(largest - smallest > maxGrowthMegabytes ? 1 : 0);
+    }
+
+    private static Map<String, String> parse(final String[] args) {
+        final Map<String, String> values = new LinkedHashMap<>();
+        for (final String arg : args) {
+            final int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0 || !NAMES.contains(arg.substring(2, separator))) {
+                throw new IllegalArgumentException("Expected --name=value with a name of " + NAMES + " but got " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return values;
+    }
+
+    private static ConfigurableApplicationContext startApplication(final String stubUrl) {
+        // neither caching nor hedging, so every request holds only the branches it fetches itself
+        return new SpringApplicationBuilder(CodingChallengeApplication.class)
+            .properties(
+                "server.port=0",
+                "github.base-url=" + stubUrl,
+                "github.token=",
+                "github.backend=rest",
+                "repositories.cache.enabled=false",
+                "github.hedging.enabled=false"
+            )
+            .run();
+    }
+
+    /**
+     * Sends one request to warm up and then the given number of concurrent requests, while the live heap is sampled.
+     */
+    private static Map<String, Object> run(
+        final WebClient webClient,
+        final String mode,
+        final int branches,
+        final int concurrency,
+        final Duration sampleInterval
+    ) {
+        // both modes in upstream order, so only the order of branches differs
+        final String uri =
+            "/api/v1/repositories/user-0" + (STREAMED.equals(mode) ? "?streamBranches=true" : "?ordered=true");
+        final Response warmup = request(webClient, uri).block();
+        final long baseline = liveHeap();
+        final AtomicLong peak = new AtomicLong(baseline);
+        final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(
+            () -> peak.accumulateAndGet(liveHeap(), Math::max),
+            0, sampleInterval.toNanos(), TimeUnit.NANOSECONDS
+        );
+        final long start = System.nanoTime();
+        final List<Response> responses;
+        try {
+            responses = Flux.range(0, concurrency)
+                .flatMap(i -> request(webClient, uri), concurrency)
+                .collectList()
+                .block();
+        } finally {
+            sampler.shutdownNow();
+        }
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (responses.stream().anyMatch(response -> response.status() != 200 || !response.equals(warmup))) {
+            throw new IllegalStateException(mode + " responses with " + branches + " branches differ: " + responses);
+        }
+
+        final Map<String, Object> run = new LinkedHashMap<>();
+        run.put("mode", mode);
+        run.put("branches", branches);
+        run.put("requests", concurrency);
+        run.put("elapsedMillis", elapsedMillis);
+        run.put("responseBytes", warmup.bytes());
+        run.put("liveHeapPeakMegabytes", (peak.get() - baseline) / 1024 / 1024);
+        System.out.printf("%-9s %,9d branches: %,6d ms, live heap peak %,5d MB above %,d MB%n",
+            mode, branches, elapsedMillis, (peak.get() - baseline) / 1024 / 1024, baseline / 1024 / 1024);
+        return run;
+    }
+
+    /**
+     * Reads the response body without holding it, only its size is kept.
+     */
+    private static Mono<Response> request(final WebClient webClient, final String uri) {
+        return webClient.get()
+            .uri(uri)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchangeToMono(response -> response.bodyToFlux(DataBuffer.class)
+                .reduce(0L, (bytes, buffer) -> {
+                    final int readable = buffer.readableByteCount();
+                    DataBufferUtils.release(buffer);
+                    return bytes + readable;
+                })
+                .map(bytes -> new Response(response.statusCode().value(), bytes)));
+    }
+
+    private static long liveHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long peakMegabytes(final List<Map<String, Object>> runs, final String mode, final int branches) {
+        return runs.stream()
+            .filter(run -> mode.equals(run.get("mode")) && run.get("branches").equals(branches))
+            .mapToLong(run -> (Long) run.get("liveHeapPeakMegabytes"))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private record Response(int status, long bytes) {
+    }
+}
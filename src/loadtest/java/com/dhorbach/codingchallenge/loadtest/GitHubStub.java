@@ -0,0 +1,221 @@
+package com.dhorbach.codingchallenge.loadtest;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the GitHub REST API with configurable latency, cardinality and failure injection. Every user has
+ * the same repositories and every repository has the same branches, which are paged by {@code per_page} like on GitHub.
+ */
+public class GitHubStub implements AutoCloseable {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int DEFAULT_BRANCHES_PAGE_SIZE = 30;
+    private static final Pattern REPOSITORIES_PATH = Pattern.compile("/users/([^/]+)/repos");
+    private static final Pattern BRANCHES_PATH = Pattern.compile("/repos/([^/]+)/([^/]+)/branches");
+
+    private final LoadTestOptions options;
+    private final MockWebServer server = new MockWebServer();
+    private final ConcurrentMap<BranchesPage, String> branchesPages = new ConcurrentHashMap<>();
+
+    private final AtomicLong repositoriesCalls = new AtomicLong();
+    private final AtomicLong branchesCalls = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong injectedThrottles = new AtomicLong();
+    private final AtomicLong injectedStalls = new AtomicLong();
+
+    public GitHubStub(final LoadTestOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Starts the stub on a random local port.
+     *
+     * @return the base URL of the stub
+     */
+    public String start() throws IOException {
+        server.setDispatcher(new GitHubDispatcher());
+        server.start();
+        return server.url("/").toString();
+    }
+
+    public long getRepositoriesCalls() {
+        return repositoriesCalls.get();
+    }
+
+    public long getBranchesCalls() {
+        return branchesCalls.get();
+    }
+
+    public long getInjectedErrors() {
+        return injectedErrors.get();
+    }
+
+    public long getInjectedThrottles() {
+        return injectedThrottles.get();
+    }
+
+    public long getInjectedStalls() {
+        return injectedStalls.get();
+    }
+
+    /**
+     * Resets the call counters, for example after the warmup.
+     */
+    public void resetCounters() {
+        repositoriesCalls.set(0);
+        branchesCalls.set(0);
+        injectedErrors.set(0);
+        injectedThrottles.set(0);
+        injectedStalls.set(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    private static String repositories(final String owner, final int first, final int count) {
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = first; i < first + count; i++) {
+            if (i > first) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i)
+                .append(",\"name\":\"repository-").append(i)
+                .append("\",\"full_name\":\"").append(owner).append("/repository-").append(i)
+                .append("\",\"private\":false,\"owner\":{\"login\":\"").append(owner)
+                .append("\",\"id\":1,\"type\":\"User\",\"site_admin\":false}")
+                .append(",\"description\":\"Load test repository\",\"fork\":").append(i % 5 == 0)
+                .append(",\"url\":\"https://api.github.com/repos/").append(owner).append("/repository-").append(i)
+                .append("\",\"language\":\"Java\",\"stargazers_count\":1,\"default_branch\":\"main\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static String branches(final int first, final int count) {
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = first; i < first + count; i++) {
+            if (i > first) {
+                json.append(',');
+            }
+            json.append("{\"name\":\"branch-").append(i)
+                .append("\",\"commit\":{\"sha\":\"").append(String.format("%040x", i))
+                .append("\"},\"protected\":false}");
+        }
+        return json.append(']').toString();
+    }
+
+    private final class GitHubDispatcher extends Dispatcher {
+
+        @NotNull
+        @Override
+        public MockResponse dispatch(@NotNull final RecordedRequest request) {
+            final HttpUrl url = request.getRequestUrl();
+            if (url == null) {
+                return new MockResponse().setResponseCode(HttpStatus.NOT_FOUND.value());
+            }
+            final Matcher repositoriesMatcher = REPOSITORIES_PATH.matcher(url.encodedPath());
+            if (repositoriesMatcher.matches()) {
+                repositoriesCalls.incrementAndGet();
+                return respond(options.repositoriesLatency().toMillis(), () -> repositoriesPage(url, repositoriesMatcher.group(1)));
+            }
+            if (BRANCHES_PATH.matcher(url.encodedPath()).matches()) {
+                branchesCalls.incrementAndGet();
+                return respond(branchesLatencyMillis(), () -> branchesPage(url));
+            }
+            return new MockResponse().setResponseCode(HttpStatus.NOT_FOUND.value());
+        }
+
+        private long branchesLatencyMillis() {
+            if (ThreadLocalRandom.current().nextDouble() < options.stallRate()) {
+                injectedStalls.incrementAndGet();
+                return options.stallLatency().toMillis();
+            }
+            return options.branchesLatency().toMillis();
+        }
+
+        private MockResponse respond(final long latencyMillis, final Supplier<MockResponse> response) {
+            final double random = ThreadLocalRandom.current().nextDouble();
+            final MockResponse mockResponse;
+            if (random < options.throttleRate()) {
+                injectedThrottles.incrementAndGet();
+                mockResponse = json()
+                    .setResponseCode(HttpStatus.TOO_MANY_REQUESTS.value())
+                    .setHeader(HttpHeaders.RETRY_AFTER, "1")
+                    .setBody("{\"message\":\"API rate limit exceeded\"}");
+            } else if (random < options.throttleRate() + options.errorRate()) {
+                injectedErrors.incrementAndGet();
+                mockResponse = json()
+                    .setResponseCode(HttpStatus.INTERNAL_SERVER_ERROR.value())
+                    .setBody("{\"message\":\"Server Error\"}");
+            } else {
+                mockResponse = response.get();
+            }
+            return mockResponse.setHeadersDelay(latencyMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private MockResponse repositoriesPage(final HttpUrl url, final String owner) {
+            final String pageParameter = url.queryParameter("page");
+            final int page = pageParameter == null ? 1 : Integer.parseInt(pageParameter);
+            final int first = (page - 1) * PAGE_SIZE;
+            final int lastPage = Math.max((options.repositories() + PAGE_SIZE - 1) / PAGE_SIZE, 1);
+            final MockResponse response = json();
+            if (lastPage > 1) {
+                response.setHeader(HttpHeaders.LINK, String.format(
+                    "<%s>; rel=\"last\"", url.newBuilder().setQueryParameter("page", String.valueOf(lastPage)).build()
+                ));
+            }
+            return response.setBody(repositories(owner, first, Math.max(Math.min(PAGE_SIZE, options.repositories() - first), 0)));
+        }
+
+        private MockResponse branchesPage(final HttpUrl url) {
+            final String pageParameter = url.queryParameter("page");
+            final String perPageParameter = url.queryParameter("per_page");
+            final int page = pageParameter == null ? 1 : Integer.parseInt(pageParameter);
+            final int perPage = perPageParameter == null
+                ? DEFAULT_BRANCHES_PAGE_SIZE : Math.min(Integer.parseInt(perPageParameter), PAGE_SIZE);
+            final int lastPage = Math.max((options.branches() + perPage - 1) / perPage, 1);
+            final MockResponse response = json();
+            if (lastPage > 1) {
+                response.setHeader(HttpHeaders.LINK, String.format(
+                    "<%s>; rel=\"last\"", url.newBuilder().setQueryParameter("page", String.valueOf(lastPage)).build()
+                ));
+            }
+            // every repository has the same branches, so pages are built once
+            return response.setBody(branchesPages.computeIfAbsent(new BranchesPage(page, perPage), key -> {
+                final int first = (page - 1) * perPage;
+                return branches(first, Math.max(Math.min(perPage, options.branches() - first), 0));
+            }));
+        }
+
+        private MockResponse json() {
+            // a generous quota, so only injected throttling affects the rate limiter of the application
+            return new MockResponse()
+                .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .setHeader("X-RateLimit-Remaining", Integer.MAX_VALUE)
+                .setHeader("X-RateLimit-Reset", Instant.now().plusSeconds(3600).getEpochSecond());
+        }
+    }
+
+    private record BranchesPage(int page, int perPage) {
+    }
+}
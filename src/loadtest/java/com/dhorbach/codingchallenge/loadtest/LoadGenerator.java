@@ -0,0 +1,104 @@
+package com.dhorbach.codingchallenge.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: requests are sent at a fixed arrival rate regardless of how fast the application responds.
+ * Latencies are measured from the time a request was scheduled to be sent, so a stalled application is not hidden by a
+ * stalled generator (coordinated omission).
+ */
+public class LoadGenerator implements AutoCloseable {
+
+    private final LoadTestOptions options;
+    private final ConnectionProvider connectionProvider = ConnectionProvider.builder("loadtest")
+        .maxConnections(10_000)
+        .pendingAcquireMaxCount(-1)
+        .build();
+    private final WebClient webClient;
+
+    public LoadGenerator(final String applicationUrl, final LoadTestOptions options) {
+        this.options = options;
+        this.webClient = WebClient.builder()
+            .baseUrl(applicationUrl)
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+            .build();
+    }
+
+    /**
+     * Sends requests at the configured rate for the given duration and waits for all of them to complete.
+     *
+     * @param duration the duration to send requests for
+     * @return the result of the run
+     */
+    public Result run(final Duration duration) throws InterruptedException {
+        final long periodNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        final int requests = (int) (duration.toNanos() / periodNanos);
+        final Recorder recorder = new Recorder(3);
+        final ConcurrentMap<Integer, AtomicLong> statuses = new ConcurrentHashMap<>();
+        final AtomicLong failures = new AtomicLong();
+        final CountDownLatch completed = new CountDownLatch(requests);
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            final long scheduledAt = start + i * periodNanos;
+            long delay;
+            while ((delay = scheduledAt - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            webClient.get()
+                .uri("/api/v1/repositories/{username}", "user-" + (i % options.users()))
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()))
+                .timeout(options.timeout())
+                .subscribe(
+                    status -> {
+                        recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledAt));
+                        statuses.computeIfAbsent(status, key -> new AtomicLong()).incrementAndGet();
+                        completed.countDown();
+                    },
+                    throwable -> {
+                        recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledAt));
+                        failures.incrementAndGet();
+                        completed.countDown();
+                    }
+                );
+        }
+        completed.await(options.timeout().toMillis() * 2, TimeUnit.MILLISECONDS);
+        final long elapsedNanos = System.nanoTime() - start;
+
+        final Map<Integer, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(status, count.get()));
+        return new Result(requests, statusCounts, failures.get(), elapsedNanos, recorder.getIntervalHistogram());
+    }
+
+    @Override
+    public void close() {
+        connectionProvider.dispose();
+    }
+
+    /**
+     * Result of a run.
+     *
+     * @param requests     number of sent requests
+     * @param statuses     number of responses per HTTP status
+     * @param failures     number of requests without response, because of timeouts or connection errors
+     * @param elapsedNanos time from the first request until all requests were completed
+     * @param latencies    latencies in microseconds
+     */
+    public record Result(int requests, Map<Integer, Long> statuses, long failures, long elapsedNanos, Histogram latencies) {
+    }
+}
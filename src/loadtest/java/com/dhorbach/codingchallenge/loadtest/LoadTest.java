@@ -0,0 +1,168 @@
+package com.dhorbach.codingchallenge.loadtest;
+
+import com.dhorbach.codingchallenge.CodingChallengeApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test of {@code GET /api/v1/repositories/{username}} against a local {@link GitHubStub}.
+ * <p>
+ * The application, the stub and the load generator run in the same JVM, so heap and GC statistics include the stub and
+ * the generator. Both are small compared to the application, but the numbers are upper bounds. Run with
+ * {@code ./gradlew loadTest -PloadTestArgs="--rate=100 --duration=60s"}, see {@link LoadTestOptions} for all options.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final LoadTestOptions options = LoadTestOptions.parse(args);
+        final Map<String, Object> report;
+        try (GitHubStub stub = new GitHubStub(options)) {
+            final String stubUrl = stub.start();
+            try (ConfigurableApplicationContext context = startApplication(stubUrl, options);
+                 LoadGenerator loadGenerator = new LoadGenerator(applicationUrl(context), options)) {
+                if (!options.warmup().isZero()) {
+                    System.out.printf("Warming up for %s at %d requests/s%n", options.warmup(), options.rate());
+                    loadGenerator.run(options.warmup());
+                }
+                stub.resetCounters();
+                final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+                final long gcCountBefore = collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+                final long gcTimeBefore = collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+                heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+
+                System.out.printf("Running for %s at %d requests/s%n", options.duration(), options.rate());
+                final LoadGenerator.Result result = loadGenerator.run(options.duration());
+
+                final long gcCount = collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+                final long gcTime = collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+                report = report(options, result, stub, gcCount - gcCountBefore, gcTime - gcTimeBefore);
+            }
+        }
+        final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        final String json = objectMapper.writeValueAsString(report);
+        System.out.println(json);
+        writeReport(options, json);
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext startApplication(final String stubUrl, final LoadTestOptions options) {
+        return new SpringApplicationBuilder(CodingChallengeApplication.class)
+            .properties(
+                "server.port=0",
+                "github.base-url=" + stubUrl,
+                "github.token=",
+                "github.backend=rest",
+                "repositories.cache.enabled=" + options.cache(),
+                "github.hedging.enabled=" + options.hedging()
+            )
+            .run();
+    }
+
+    private static String applicationUrl(final ConfigurableApplicationContext context) {
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private static Map<String, Object> report(
+        final LoadTestOptions options,
+        final LoadGenerator.Result result,
+        final GitHubStub stub,
+        final long gcCount,
+        final long gcTimeMillis
+    ) {
+        final Map<String, Object> report = new LinkedHashMap<>();
+        final Map<String, Object> optionValues = new LinkedHashMap<>();
+        optionValues.put("rate", options.rate());
+        optionValues.put("durationSeconds", options.duration().toSeconds());
+        optionValues.put("users", options.users());
+        optionValues.put("repositories", options.repositories());
+        optionValues.put("branches", options.branches());
+        optionValues.put("repositoriesLatencyMillis", options.repositoriesLatency().toMillis());
+        optionValues.put("branchesLatencyMillis", options.branchesLatency().toMillis());
+        optionValues.put("errorRate", options.errorRate());
+        optionValues.put("throttleRate", options.throttleRate());
+        optionValues.put("stallRate", options.stallRate());
+        optionValues.put("stallLatencyMillis", options.stallLatency().toMillis());
+        optionValues.put("cache", options.cache());
+        optionValues.put("hedging", options.hedging());
+        report.put("options", optionValues);
+
+        final long completed = result.statuses().values().stream().mapToLong(Long::longValue).sum();
+        final double elapsedSeconds = result.elapsedNanos() / 1e9;
+        final Map<String, Object> requests = new LinkedHashMap<>();
+        requests.put("sent", result.requests());
+        requests.put("completed", completed);
+        requests.put("failed", result.failures());
+        requests.put("statuses", result.statuses());
+        requests.put("throughputPerSecond", completed / elapsedSeconds);
+        // responses with repositories, unlike requests rejected by the admission control or failed upstream
+        requests.put("goodputPerSecond", result.statuses().getOrDefault(200, 0L) / elapsedSeconds);
+        report.put("requests", requests);
+
+        final Histogram latencies = result.latencies();
+        final Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", millis(latencies.getValueAtPercentile(50)));
+        latency.put("p90", millis(latencies.getValueAtPercentile(90)));
+        latency.put("p99", millis(latencies.getValueAtPercentile(99)));
+        latency.put("p999", millis(latencies.getValueAtPercentile(99.9)));
+        latency.put("max", millis(latencies.getMaxValue()));
+        latency.put("mean", latencies.getMean() / 1000);
+        report.put("latencyMillis", latency);
+
+        final Map<String, Object> upstream = new LinkedHashMap<>();
+        upstream.put("repositoriesCalls", stub.getRepositoriesCalls());
+        upstream.put("branchesCalls", stub.getBranchesCalls());
+        upstream.put("callsPerRequest", result.requests() == 0
+            ? 0 : (double) (stub.getRepositoriesCalls() + stub.getBranchesCalls()) / result.requests());
+        upstream.put("injectedErrors", stub.getInjectedErrors());
+        upstream.put("injectedThrottles", stub.getInjectedThrottles());
+        upstream.put("injectedStalls", stub.getInjectedStalls());
+        report.put("upstream", upstream);
+
+        final Runtime runtime = Runtime.getRuntime();
+        final Map<String, Object> memory = new LinkedHashMap<>();
+        memory.put("heapUsedMegabytes", (runtime.totalMemory() - runtime.freeMemory()) / 1024 / 1024);
+        memory.put("heapPeakMegabytes", heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum() / 1024 / 1024);
+        memory.put("heapMaxMegabytes", runtime.maxMemory() / 1024 / 1024);
+        memory.put("gcCount", gcCount);
+        memory.put("gcTimeMillis", gcTimeMillis);
+        memory.put("gcTimeRatio", gcTimeMillis / (elapsedSeconds * 1000));
+        memory.put("availableProcessors", runtime.availableProcessors());
+        report.put("jvm", memory);
+        return report;
+    }
+
+    private static double millis(final long micros) {
+        return micros / 1000.0;
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+    }
+
+    private static void writeReport(final LoadTestOptions options, final String json) throws IOException {
+        if (options.report().getParent() != null) {
+            Files.createDirectories(options.report().getParent());
+        }
+        Files.writeString(options.report(), json);
+        System.out.println("Report written to " + options.report().toAbsolutePath());
+    }
+}
@@ -0,0 +1,95 @@
+package com.dhorbach.codingchallenge.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Options of a load test run, parsed from {@code --name=value} arguments.
+ *
+ * @param rate                 requests per second sent to the application, independent of its response times
+ * @param duration             duration of the measured run
+ * @param warmup               duration of the unmeasured warmup run before
+ * @param users                number of distinct usernames requests are spread over
+ * @param repositories         repositories per user, every fifth of them is a fork
+ * @param branches             branches per repository
+ * @param repositoriesLatency  latency of the stubbed repositories endpoint
+ * @param branchesLatency      latency of the stubbed branches endpoint
+ * @param errorRate            fraction of upstream calls answered with {@code 500}
+ * @param throttleRate         fraction of upstream calls answered with {@code 429}
+ * @param stallRate            fraction of branch calls answered after the stall latency instead
+ * @param stallLatency         latency of stalled branch calls
+ * @param timeout              timeout of a single request to the application
+ * @param cache                whether the repositories cache of the application is enabled
+ * @param hedging              whether the application hedges slow branch calls
+ * @param report               file the JSON report is written to
+ */
+public record LoadTestOptions(
+    int rate,
+    Duration duration,
+    Duration warmup,
+    int users,
+    int repositories,
+    int branches,
+    Duration repositoriesLatency,
+    Duration branchesLatency,
+    double errorRate,
+    double throttleRate,
+    double stallRate,
+    Duration stallLatency,
+    Duration timeout,
+    boolean cache,
+    boolean hedging,
+    Path report
+) {
+
+    private static final Set<String> NAMES = Set.of(
+        "rate", "duration", "warmup", "users", "repositories", "branches", "repositories-latency", "branches-latency",
+        "error-rate", "throttle-rate", "stall-rate", "stall-latency", "timeout", "cache", "hedging", "report"
+    );
+
+    /**
+     * @param args arguments in the form {@code --name=value}, names are the kebab-case record components
+     * @return the options, defaults are used for missing arguments
+     */
+    public static LoadTestOptions parse(final String[] args) {
+        final Map<String, String> values = new HashMap<>();
+        for (final String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            final int separator = arg.indexOf('=');
+            final String name = arg.substring(2, separator);
+            if (!NAMES.contains(name)) {
+                throw new IllegalArgumentException("Unknown option " + name + ", expected one of " + NAMES);
+            }
+            values.put(name, arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(
+            Integer.parseInt(values.getOrDefault("rate", "50")),
+            duration(values.getOrDefault("duration", "60s")),
+            duration(values.getOrDefault("warmup", "15s")),
+            Integer.parseInt(values.getOrDefault("users", "100")),
+            Integer.parseInt(values.getOrDefault("repositories", "30")),
+            Integer.parseInt(values.getOrDefault("branches", "10")),
+            duration(values.getOrDefault("repositories-latency", "100ms")),
+            duration(values.getOrDefault("branches-latency", "50ms")),
+            Double.parseDouble(values.getOrDefault("error-rate", "0")),
+            Double.parseDouble(values.getOrDefault("throttle-rate", "0")),
+            Double.parseDouble(values.getOrDefault("stall-rate", "0")),
+            duration(values.getOrDefault("stall-latency", "2s")),
+            duration(values.getOrDefault("timeout", "30s")),
+            Boolean.parseBoolean(values.getOrDefault("cache", "true")),
+            Boolean.parseBoolean(values.getOrDefault("hedging", "false")),
+            Path.of(values.getOrDefault("report", "build/reports/loadtest/report.json"))
+        );
+    }
+
+    private static Duration duration(final String value) {
+        return DurationStyle.detectAndParse(value);
+    }
+}
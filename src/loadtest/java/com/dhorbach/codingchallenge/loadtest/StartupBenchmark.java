@@ -0,0 +1,318 @@
+package com.dhorbach.codingchallenge.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup benchmark of the application variants the build produces. Every variant is started as a separate process
+ * against the local {@link GitHubStub} and the time from launching the process until the first
+ * {@code GET /api/v1/repositories/{username}} is answered with {@code 200} is measured, which includes JVM startup,
+ * the Spring context, the first GitHub calls and everything initialized lazily on the way.
+ * <p>
+ * Variants are the executable {@code bootJar} ({@code jar}), the startup distribution with Spring AOT ({@code aot}),
+ * the same with its class data sharing archive ({@code aot-cds}) and the GraalVM native image ({@code native}).
+ * Variants whose files were not built are skipped. Run with {@code ./gradlew startupBenchmark}, options are
+ * {@code variants}, {@code runs}, {@code jvm-args} (comma separated), {@code timeout} and {@code report}.
+ * <p>
+ * With {@code --mode=train}, the startup distribution is started once with {@code -XX:ArchiveClassesAtExit}, serves
+ * requests covering every endpoint and is shut down with {@code SIGTERM}, on which the JVM writes the archive. This is
+ * how {@code ./gradlew cdsArchive} and {@code Dockerfile.startup} create the archive.
+ */
+public final class StartupBenchmark {
+
+    private static final Set<String> NAMES = Set.of(
+        "mode", "variants", "runs", "boot-jar", "application", "archive", "native", "java", "jvm-args", "timeout",
+        "report"
+    );
+    private static final String FIRST_REQUEST = "/api/v1/repositories/user-0";
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final Map<String, String> options = parse(args);
+        final String java = options.getOrDefault(
+            "java", ProcessHandle.current().info().command().orElse("java")
+        );
+        final List<String> jvmArgs = list(options.getOrDefault("jvm-args", ""));
+        final Duration timeout = DurationStyle.detectAndParse(options.getOrDefault("timeout", "60s"));
+        final Path application = Path.of(options.getOrDefault("application", "build/startup/coding-challenge.jar"));
+        final Path archive = Path.of(options.getOrDefault("archive", "build/startup/application.jsa"));
+
+        final LoadTestOptions stubOptions = LoadTestOptions.parse(new String[]{
+            "--repositories=10", "--branches=10", "--repositories-latency=0ms", "--branches-latency=0ms"
+        });
+        try (GitHubStub stub = new GitHubStub(stubOptions)) {
+            final String stubUrl = stub.start();
+            if ("train".equals(options.getOrDefault("mode", "benchmark"))) {
+                final List<String> command = new ArrayList<>(List.of(java));
+                command.addAll(jvmArgs);
+                command.addAll(List.of(
+                    "-XX:ArchiveClassesAtExit=" + archive, "-Dspring.aot.enabled=true", "-jar", application.toString()
+                ));
+                train(command, stubUrl, archive, timeout);
+                return;
+            }
+
+            final Path reportPath = Path.of(options.getOrDefault("report", "build/reports/loadtest/startup.json"));
+            final int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+            final List<String> names = list(options.getOrDefault("variants", "jar,aot,aot-cds,native"));
+            final Map<String, Object> variants = new LinkedHashMap<>();
+            for (final String name : names) {
+                final List<String> command = command(name, options, java, jvmArgs, application, archive);
+                if (command == null) {
+                    System.out.printf("%-8s skipped, not built%n", name);
+                    continue;
+                }
+                final Path log = logFile(reportPath, name);
+                final long[] millis = new long[runs];
+                for (int run = 0; run < runs; run++) {
+                    millis[run] = firstResponse(command, stubUrl, timeout, log);
+                }
+                Arrays.sort(millis);
+                final Map<String, Object> variant = new LinkedHashMap<>();
+                variant.put("command", command);
+                variant.put("firstResponseMillis", millis);
+                variant.put("minMillis", millis[0]);
+                variant.put("medianMillis", millis[runs / 2]);
+                variants.put(name, variant);
+                System.out.printf("%-8s first response after %,6d ms (median of %d), %,6d ms at best%n",
+                    name, millis[runs / 2], runs, millis[0]);
+            }
+
+            final Map<String, Object> report = new LinkedHashMap<>();
+            report.put("runs", runs);
+            report.put("java", java);
+            report.put("jvmArgs", jvmArgs);
+            report.put("variants", variants);
+            final String json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(report);
+            System.out.println(json);
+            Files.createDirectories(reportPath.toAbsolutePath().getParent());
+            Files.writeString(reportPath, json);
+            System.out.println("Report written to " + reportPath.toAbsolutePath());
+        }
+    }
+
+    private static Map<String, String> parse(final String[] args) {
+        final Map<String, String> values = new LinkedHashMap<>();
+        for (final String arg : args) {
+            final int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0 || !NAMES.contains(arg.substring(2, separator))) {
+                throw new IllegalArgumentException("Expected --name=value with a name of " + NAMES + " but got " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return values;
+    }
+
+    private static List<String> list(final String value) {
+        return Arrays.stream(value.split(",")).map(String::trim).filter(item -> !item.isEmpty()).toList();
+    }
+
+    /**
+     * @return the command line of the given variant, or {@code null} if the variant was not built
+     */
+    private static List<String> command(
+        final String name,
+        final Map<String, String> options,
+        final String java,
+        final List<String> jvmArgs,
+        final Path application,
+        final Path archive
+    ) {
+        final List<String> command = new ArrayList<>(List.of(java));
+        command.addAll(jvmArgs);
+        switch (name) {
+            case "jar" -> {
+                final Path bootJar = Path.of(options.getOrDefault("boot-jar", "build/libs/coding-challenge-1.0.0.jar"));
+                if (!Files.exists(bootJar)) {
+                    return null;
+                }
+                command.addAll(List.of("-jar", bootJar.toString()));
+            }
+            case "aot" -> {
+                if (!Files.exists(application)) {
+                    return null;
+                }
+                command.addAll(List.of("-Dspring.aot.enabled=true", "-jar", application.toString()));
+            }
+            case "aot-cds" -> {
+                if (!Files.exists(application) || !Files.exists(archive)) {
+                    return null;
+                }
+                // fail instead of silently starting without the archive if it does not match the JVM or class path
+                command.addAll(List.of(
+                    "-XX:SharedArchiveFile=" + archive, "-Xshare:on",
+                    "-Dspring.aot.enabled=true", "-jar", application.toString()
+                ));
+            }
+            case "native" -> {
+                final Path executable =
+                    Path.of(options.getOrDefault("native", "build/native/nativeCompile/coding-challenge"));
+                if (!Files.isExecutable(executable)) {
+                    return null;
+                }
+                return new ArrayList<>(List.of(executable.toString()));
+            }
+            default -> throw new IllegalArgumentException("Unknown variant " + name);
+        }
+        return command;
+    }
+
+    /**
+     * Starts the application and polls it until the first request is answered.
+     *
+     * @return the milliseconds from launching the process until the first response
+     */
+    private static long firstResponse(
+        final List<String> command,
+        final String stubUrl,
+        final Duration timeout,
+        final Path log
+    ) throws IOException, InterruptedException {
+        final int port = freePort();
+        final ProcessBuilder builder = new ProcessBuilder(withApplicationArgs(command, port, stubUrl))
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile());
+        final HttpClient client = client();
+        final long start = System.nanoTime();
+        final Process process = builder.start();
+        try {
+            awaitFirstResponse(client, process, port, start + timeout.toNanos(), log);
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } finally {
+            stop(process, timeout);
+        }
+    }
+
+    /**
+     * Starts the application with the given archiving command, serves requests of every endpoint and stops it, which
+     * writes the class data sharing archive.
+     */
+    private static void train(
+        final List<String> command,
+        final String stubUrl,
+        final Path archive,
+        final Duration timeout
+    ) throws IOException, InterruptedException {
+        Files.deleteIfExists(archive);
+        final int port = freePort();
+        final Process process = new ProcessBuilder(withApplicationArgs(command, port, stubUrl)).inheritIO().start();
+        final HttpClient client = client();
+        try {
+            awaitFirstResponse(client, process, port, System.nanoTime() + timeout.toNanos(), null);
+            final String base = "http://localhost:" + port;
+            final List<HttpRequest> requests = List.of(
+                get(base + "/api/v1/repositories/user-1?ordered=true&maxBranches=5").build(),
+                get(base + "/api/v1/repositories/user-2?streamBranches=true").build(),
+                get(base + "/api/v1/repositories/user-3").header("Accept", "application/x-ndjson").build(),
+                get(base + "/api/v1/repositories/user-1?namePrefix=repo&size=5").build(),
+                HttpRequest.newBuilder(URI.create(base + "/api/v1/repositories:batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"usernames\":[\"user-4\",\"user-5\"]}"))
+                    .build(),
+                get(base + "/actuator/health").build(),
+                get(base + "/actuator/prometheus").build()
+            );
+            for (final HttpRequest request : requests) {
+                final HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException(request.uri() + " answered " + response.statusCode());
+                }
+            }
+        } finally {
+            stop(process, timeout);
+        }
+        if (!Files.exists(archive)) {
+            throw new IllegalStateException("No class data sharing archive was written to " + archive);
+        }
+        System.out.println("Class data sharing archive written to " + archive.toAbsolutePath());
+    }
+
+    private static List<String> withApplicationArgs(final List<String> command, final int port, final String stubUrl) {
+        final List<String> withArgs = new ArrayList<>(command);
+        withArgs.addAll(List.of("--server.port=" + port, "--github.base-url=" + stubUrl, "--github.token="));
+        return withArgs;
+    }
+
+    private static void awaitFirstResponse(
+        final HttpClient client,
+        final Process process,
+        final int port,
+        final long deadlineNanos,
+        final Path log
+    ) throws IOException, InterruptedException {
+        final HttpRequest request = get("http://localhost:" + port + FIRST_REQUEST).build();
+        while (true) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue()
+                    + (log == null ? "" : ", see " + log.toAbsolutePath()));
+            }
+            if (System.nanoTime() > deadlineNanos) {
+                throw new IllegalStateException("Application did not answer in time"
+                    + (log == null ? "" : ", see " + log.toAbsolutePath()));
+            }
+            try {
+                final HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return;
+                }
+                throw new IllegalStateException(FIRST_REQUEST + " answered " + response.statusCode());
+            } catch (final ConnectException e) {
+                Thread.sleep(5);
+            }
+        }
+    }
+
+    /**
+     * Stops the application with {@code SIGTERM}, so it shuts down gracefully, and waits for it to exit.
+     */
+    private static void stop(final Process process, final Duration timeout) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static HttpClient client() {
+        return HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(100))
+            .build();
+    }
+
+    private static HttpRequest.Builder get(final String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(Duration.ofSeconds(30)).GET();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Path logFile(final Path reportPath, final String variant) throws IOException {
+        final Path directory = reportPath.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        return directory.resolve("startup-" + variant + ".log");
+    }
+}
@@ -0,0 +1,182 @@
+package com.dhorbach.codingchallenge.cache;
+
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.Repository;
+
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable list of repositories in a compact encoding, for repositories kept resident in the {@link RepositoryCache}.
+ * <p>
+ * Instead of a {@link GitHubBranch} with two strings per branch, branches of all repositories are kept in flat arrays:
+ * their names, deduplicated by the given interner, and their commit SHAs as 20 bytes each. Repositories and branches
+ * are expanded only when they are read, so they live only as long as it takes to map them to their DTOs.
+ */
+final class CompactRepositories extends AbstractList<Repository> implements RandomAccess {
+
+    static final int SHA_LENGTH = 20;
+
+    private final String[] names;
+    private final String[] ownerLogins;
+    /**
+     * Index of the first branch of each repository in the branch arrays, followed by the number of branches.
+     */
+    private final int[] branchStarts;
+    /**
+     * Repositories with {@code null} branches, which are not the same as an empty list of branches.
+     */
+    private final BitSet withoutBranches;
+    private final String[] branchNames;
+    private final byte[] shas;
+    /**
+     * SHAs that are not 40 character lowercase hex strings by branch index, {@code null} if there are none.
+     */
+    private final Map<Integer, String> textShas;
+
+    private CompactRepositories(
+        final String[] names,
+        final String[] ownerLogins,
+        final int[] branchStarts,
+        final BitSet withoutBranches,
+        final String[] branchNames,
+        final byte[] shas,
+        final Map<Integer, String> textShas
+    ) {
+        this.names = names;
+        this.ownerLogins = ownerLogins;
+        this.branchStarts = branchStarts;
+        this.withoutBranches = withoutBranches;
+        this.branchNames = branchNames;
+        this.shas = shas;
+        this.textShas = textShas;
+    }
+
+    /**
+     * Encodes the given repositories. Owner logins are deduplicated within the repositories, branch names by the
+     * interner, which can share them across encodings.
+     *
+     * @param repositories the repositories
+     * @param interner     the function returning a canonical instance of a branch name
+     * @return the encoded repositories
+     */
+    static CompactRepositories of(final List<Repository> repositories, final UnaryOperator<String> interner) {
+        if (repositories instanceof CompactRepositories compact) {
+            return compact;
+        }
+        final int size = repositories.size();
+        int branchCount = 0;
+        for (final Repository repository : repositories) {
+            branchCount += repository.getBranches() == null ? 0 : repository.getBranches().size();
+        }
+        final String[] names = new String[size];
+        final String[] ownerLogins = new String[size];
+        final int[] branchStarts = new int[size + 1];
+        final BitSet withoutBranches = new BitSet();
+        final String[] branchNames = new String[branchCount];
+        final byte[] shas = new byte[branchCount * SHA_LENGTH];
+        Map<Integer, String> textShas = null;
+        int branch = 0;
+        for (int i = 0; i < size; i++) {
+            final Repository repository = repositories.get(i);
+            names[i] = repository.getName();
+            // repositories of a username almost always share their owner
+            ownerLogins[i] = i > 0 && Objects.equals(ownerLogins[i - 1], repository.getOwnerLogin())
+                ? ownerLogins[i - 1]
+                : repository.getOwnerLogin();
+            branchStarts[i] = branch;
+            if (repository.getBranches() == null) {
+                withoutBranches.set(i);
+                continue;
+            }
+            for (final GitHubBranch gitHubBranch : repository.getBranches()) {
+                branchNames[branch] = gitHubBranch.getName() == null ? null : interner.apply(gitHubBranch.getName());
+                final String sha = gitHubBranch.getLastCommitSha();
+                if (isBinarySha(sha)) {
+                    for (int j = 0; j < SHA_LENGTH; j++) {
+                        shas[branch * SHA_LENGTH + j] = (byte) HexFormat.fromHexDigits(sha, j * 2, j * 2 + 2);
+                    }
+                } else {
+                    if (textShas == null) {
+                        textShas = new HashMap<>();
+                    }
+                    textShas.put(branch, sha);
+                }
+                branch++;
+            }
+        }
+        branchStarts[size] = branch;
+        return new CompactRepositories(names, ownerLogins, branchStarts, withoutBranches, branchNames, shas, textShas);
+    }
+
+    /**
+     * @param sha the commit SHA
+     * @return whether the SHA is a 40 character lowercase hex string, which is stored as 20 bytes without loss
+     */
+    static boolean isBinarySha(final String sha) {
+        if (sha == null || sha.length() != SHA_LENGTH * 2) {
+            return false;
+        }
+        for (int i = 0; i < sha.length(); i++) {
+            final char c = sha.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Repository get(final int index) {
+        Objects.checkIndex(index, names.length);
+        return Repository.builder()
+            .name(names[index])
+            .ownerLogin(ownerLogins[index])
+            .branches(withoutBranches.get(index) ? null : new Branches(branchStarts[index], branchStarts[index + 1]))
+            .build();
+    }
+
+    @Override
+    public int size() {
+        return names.length;
+    }
+
+    private GitHubBranch branch(final int index) {
+        final String sha = textShas != null && textShas.containsKey(index)
+            ? textShas.get(index)
+            : HexFormat.of().formatHex(shas, index * SHA_LENGTH, (index + 1) * SHA_LENGTH);
+        return new GitHubBranch(branchNames[index], sha);
+    }
+
+    /**
+     * Branches of a single repository, expanded when they are read.
+     */
+    private final class Branches extends AbstractList<GitHubBranch> implements RandomAccess {
+
+        private final int start;
+        private final int end;
+
+        private Branches(final int start, final int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public GitHubBranch get(final int index) {
+            Objects.checkIndex(index, end - start);
+            return branch(start + index);
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+}
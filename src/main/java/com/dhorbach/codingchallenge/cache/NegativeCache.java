@@ -0,0 +1,236 @@
+package com.dhorbach.codingchallenge.cache;
+
+import com.dhorbach.codingchallenge.config.RepositoryCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cache of usernames GitHub answered with {@code 404 Not Found}, so repeated requests for them do not cost an upstream
+ * call. Entries expire after the ttl, usernames are compared case-insensitively like on GitHub.
+ * <p>
+ * Usernames are kept in two generations, each with a Bloom filter in front of a concurrent map of expiry times. A
+ * lookup first checks the filters, which rule out almost every username that is not cached without touching the maps
+ * or taking a lock. A false positive of a filter only costs a map lookup, never a wrong answer. New usernames go to the
+ * current generation. Once it is older than the ttl or holds half of the maximum number of entries, the previous
+ * generation is dropped as a whole and the current one takes its place, so expired usernames are removed without
+ * scanning on lookups and at most the maximum number of entries is kept, the oldest ones evicted first.
+ */
+public class NegativeCache {
+
+    private final RepositoryCacheProperties.Negative properties;
+    private final Clock clock;
+    private final int generationEntries;
+    private final int bits;
+    private final int hashes;
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public NegativeCache(
+        final RepositoryCacheProperties.Negative properties,
+        final MeterRegistry meterRegistry,
+        final Clock clock
+    ) {
+        this.properties = properties;
+        this.clock = clock;
+        this.generationEntries = Math.max(properties.getMaxEntries() / 2, 1);
+        // optimal size and number of hash functions for the entries and false positive probability of a generation
+        this.bits = (int) Math.min(
+            Integer.MAX_VALUE - 64L,
+            Math.ceil(-generationEntries * Math.log(properties.getFalsePositiveProbability())
+                / (Math.log(2) * Math.log(2)))
+        );
+        this.hashes = Math.max(1, (int) Math.round((double) bits / generationEntries * Math.log(2)));
+        this.current = new Generation(bits, clock.millis());
+        this.previous = new Generation(bits, clock.millis());
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.misses = requestCounter(meterRegistry, "miss");
+        meterRegistry.gauge("repositories.negative-cache.size", List.of(), this, NegativeCache::size);
+    }
+
+    /**
+     * @param username the username
+     * @return whether GitHub answered requests for the username with {@code 404 Not Found} within the ttl
+     */
+    public boolean contains(final String username) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        final long now = clock.millis();
+        rotateIfNeeded(now);
+        final String key = normalize(username);
+        final long hash = hash(key);
+        final boolean cached = current.contains(key, hash, hashes, now) || previous.contains(key, hash, hashes, now);
+        (cached ? hits : misses).increment();
+        return cached;
+    }
+
+    /**
+     * @param username the username GitHub answered with {@code 404 Not Found}
+     */
+    public void add(final String username) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        final long now = clock.millis();
+        rotateIfNeeded(now);
+        final String key = normalize(username);
+        final Generation generation = current;
+        generation.filter.put(hash(key), hashes);
+        generation.entries.put(key, now + properties.getTtl().toMillis());
+        if (generation.entries.size() >= generationEntries) {
+            rotateIfNeeded(now);
+        }
+    }
+
+    /**
+     * @param username the username to remove
+     * @return whether the username was cached
+     */
+    public boolean remove(final String username) {
+        final String key = normalize(username);
+        // the bits of the username stay set in the filters, which only costs a map lookup for it
+        final boolean removedCurrent = current.entries.remove(key) != null;
+        final boolean removedPrevious = previous.entries.remove(key) != null;
+        return removedCurrent || removedPrevious;
+    }
+
+    /**
+     * Removes all usernames.
+     */
+    public synchronized void clear() {
+        final long now = clock.millis();
+        previous = new Generation(bits, now);
+        current = new Generation(bits, now);
+    }
+
+    /**
+     * @return the number of cached usernames, including expired ones not yet removed and usernames added again while in
+     * the previous generation
+     */
+    public int size() {
+        return current.entries.size() + previous.entries.size();
+    }
+
+    /**
+     * Starts a new generation once the current one is older than the ttl or full. The previous generation is dropped:
+     * after the ttl all of its usernames are expired, otherwise they are the oldest ones.
+     */
+    private void rotateIfNeeded(final long now) {
+        if (!isDue(current, now)) {
+            return;
+        }
+        synchronized (this) {
+            if (isDue(current, now)) {
+                previous = current;
+                current = new Generation(bits, now);
+            }
+        }
+    }
+
+    private boolean isDue(final Generation generation, final long now) {
+        return now - generation.startMillis >= properties.getTtl().toMillis()
+            || generation.entries.size() >= generationEntries;
+    }
+
+    private static String normalize(final String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the UTF-8 bytes, finished with the MurmurHash3 mix for better distributed high bits.
+     */
+    private static long hash(final String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (final byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static Counter requestCounter(final MeterRegistry meterRegistry, final String result) {
+        return Counter.builder("repositories.negative-cache.requests")
+            .description("Lookups of the cache of unknown usernames")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Usernames added within one generation, with their expiry times in epoch milliseconds.
+     */
+    private static final class Generation {
+
+        private final BloomFilter filter;
+        private final ConcurrentMap<String, Long> entries = new ConcurrentHashMap<>();
+        private final long startMillis;
+
+        private Generation(final int bits, final long startMillis) {
+            this.filter = new BloomFilter(bits);
+            this.startMillis = startMillis;
+        }
+
+        private boolean contains(final String key, final long hash, final int hashes, final long now) {
+            if (!filter.mightContain(hash, hashes)) {
+                return false;
+            }
+            final Long expiry = entries.get(key);
+            return expiry != null && now < expiry;
+        }
+    }
+
+    /**
+     * Bloom filter over a lock-free bit array, probing positions derived from two halves of a 64-bit hash.
+     */
+    private static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final int bits;
+
+        private BloomFilter(final int bits) {
+            this.words = new AtomicLongArray((bits + 63) / 64);
+            this.bits = words.length() * 64;
+        }
+
+        private void put(final long hash, final int hashes) {
+            final int first = (int) hash;
+            final int second = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                final int bit = Math.floorMod(first + i * second, bits);
+                final long mask = 1L << bit;
+                final int index = bit >>> 6;
+                long word;
+                while (((word = words.get(index)) & mask) == 0 && !words.compareAndSet(index, word, word | mask)) {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+
+        private boolean mightContain(final long hash, final int hashes) {
+            final int first = (int) hash;
+            final int second = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                final int bit = Math.floorMod(first + i * second, bits);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
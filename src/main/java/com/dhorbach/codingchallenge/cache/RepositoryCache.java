@@ -0,0 +1,371 @@
+package com.dhorbach.codingchallenge.cache;
+
+import com.dhorbach.codingchallenge.config.RepositoryCacheProperties;
+import com.dhorbach.codingchallenge.models.Repository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+import reactor.util.function.Tuple2;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache of assembled repositories keyed by username. Usernames are compared case-insensitively like GitHub logins, so
+ * differently cased requests for the same user share an entry, an upstream load and a stored record.
+ * <p>
+ * Concurrent misses for the same username share a single upstream load (single-flight), which is cancelled once all
+ * of its subscribers have cancelled. Entries older than the ttl are still served during the stale-while-revalidate
+ * window while a refresh runs in the background.
+ * <p>
+ * Repositories are tagged with their position in the upstream listing. Loads emit them in the order they complete,
+ * entries keep them in upstream order.
+ * <p>
+ * With a {@link RepositoryStore}, loaded entries are persisted and entries restored from the store are served like
+ * loaded ones, including their original load time.
+ * <p>
+ * Entries are kept as {@link CompactRepositories}, with branch names shared across entries, and expanded to
+ * repositories only when they are served.
+ */
+@Slf4j
+public class RepositoryCache {
+
+    /**
+     * Maximum number of distinct branch names shared across entries. Most branches are called {@code main},
+     * {@code master} or {@code develop}, names beyond the limit are only deduplicated within their entry.
+     */
+    private static final int MAX_SHARED_BRANCH_NAMES = 10_000;
+
+    private final RepositoryCacheProperties properties;
+    private final Clock clock;
+    private final RepositoryStore store;
+    private final Map<String, Entry> entries;
+    private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> branchNames = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    public RepositoryCache(final RepositoryCacheProperties properties, final MeterRegistry meterRegistry, final Clock clock) {
+        this(properties, meterRegistry, clock, null);
+    }
+
+    /**
+     * @param store the store entries are persisted in, or {@code null} to keep entries in memory only
+     */
+    public RepositoryCache(
+        final RepositoryCacheProperties properties,
+        final MeterRegistry meterRegistry,
+        final Clock clock,
+        final RepositoryStore store
+    ) {
+        this.properties = properties;
+        this.clock = clock;
+        this.store = store;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+                if (size() <= properties.getMaxEntries()) {
+                    return false;
+                }
+                if (store != null) {
+                    store.deleteRepositories(eldest.getKey());
+                }
+                return true;
+            }
+        });
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.staleHits = requestCounter(meterRegistry, "stale");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.coalesced = requestCounter(meterRegistry, "coalesced");
+        meterRegistry.gaugeMapSize("repositories.cache.size", List.of(), entries);
+    }
+
+    /**
+     * Retrieves repositories of the given username from the cache or loads them with the given loader.
+     *
+     * @param username the username
+     * @param loader   the function loading repositories of a username from upstream, tagged with their upstream position
+     * @return a flux of repositories tagged with their upstream position
+     */
+    public Flux<Tuple2<Long, Repository>> get(
+        final String username,
+        final Function<String, Flux<Tuple2<Long, Repository>>> loader
+    ) {
+        if (!properties.isEnabled()) {
+            return loader.apply(username);
+        }
+        final String key = normalize(username);
+        final Entry entry = entries.get(key);
+        final Instant now = clock.instant();
+        if (entry != null && now.isBefore(entry.loadedAt().plus(properties.getTtl()))) {
+            hits.increment();
+            return Flux.fromIterable(entry.repositories()).index();
+        }
+        if (entry != null && now.isBefore(entry.loadedAt().plus(properties.getTtl()).plus(properties.getStaleWhileRevalidate()))) {
+            staleHits.increment();
+            load(key, username, loader, true).subscribe(
+                repository -> { },
+                throwable -> log.warn("Background refresh of repositories for {} failed", username, throwable)
+            );
+            return Flux.fromIterable(entry.repositories()).index();
+        }
+        return load(key, username, loader, false);
+    }
+
+    /**
+     * Retrieves repositories of the given username if they are cached and fresh, without loading or refreshing them.
+     * Only found entries are counted as cache lookups.
+     *
+     * @param username the username
+     * @return the repositories in upstream order, or empty if none are cached within the ttl
+     */
+    public Optional<List<Repository>> getIfPresent(final String username) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        final Entry entry = entries.get(normalize(username));
+        if (entry == null || !clock.instant().isBefore(entry.loadedAt().plus(properties.getTtl()))) {
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.repositories());
+    }
+
+    /**
+     * @param username the username
+     * @return whether repositories of the given username are cached within the ttl, not counted as a cache lookup
+     */
+    public boolean contains(final String username) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        final Entry entry = entries.get(normalize(username));
+        return entry != null && clock.instant().isBefore(entry.loadedAt().plus(properties.getTtl()));
+    }
+
+    /**
+     * Updates the cached repositories of the given owner in place, for example from a webhook event, instead of
+     * loading all of them again. The entry keeps its load time, so it still expires with the ttl. An upstream load in
+     * flight is not updated.
+     *
+     * @param ownerLogin the login of the owner of the repositories
+     * @param update     the function returning the updated repositories in upstream order, or the given list to leave
+     *                   the entry unchanged
+     * @return the number of updated entries
+     */
+    public int update(final String ownerLogin, final UnaryOperator<List<Repository>> update) {
+        final String key = normalize(ownerLogin);
+        final Entry entry;
+        synchronized (entries) {
+            final Entry cached = entries.get(key);
+            if (cached == null) {
+                return 0;
+            }
+            final List<Repository> repositories = update.apply(cached.repositories());
+            if (repositories == cached.repositories()) {
+                return 0;
+            }
+            entry = new Entry(compact(repositories), cached.loadedAt());
+            entries.put(key, entry);
+        }
+        if (store != null) {
+            store.saveRepositories(key, entry.repositories(), entry.loadedAt());
+        }
+        return 1;
+    }
+
+    /**
+     * Removes the cached repositories of the given username.
+     *
+     * @param username the username
+     */
+    public void evict(final String username) {
+        final String key = normalize(username);
+        entries.remove(key);
+        if (store != null) {
+            store.deleteRepositories(key);
+        }
+    }
+
+    /**
+     * Adds repositories restored from the {@link RepositoryStore}, unless the username is already cached, the
+     * repositories are too old to be served or the cache is full. Restoring never evicts cached entries, so it does not
+     * delete them from the store either.
+     *
+     * @param username     the username as stored
+     * @param repositories the repositories in upstream order
+     * @param loadedAt     the time the repositories were loaded from upstream
+     */
+    public void restore(final String username, final List<Repository> repositories, final Instant loadedAt) {
+        if (clock.instant().isBefore(loadedAt.plus(properties.getTtl()).plus(properties.getStaleWhileRevalidate()))) {
+            synchronized (entries) {
+                if (entries.size() < properties.getMaxEntries()) {
+                    entries.putIfAbsent(normalize(username), new Entry(compact(repositories), loadedAt));
+                }
+            }
+        } else if (store != null) {
+            store.deleteRepositories(username);
+        }
+    }
+
+    /**
+     * Joins the in-flight load of the given username or starts a new one. The load is shared by all subscribers and
+     * replays already emitted repositories to late subscribers. Once all subscribers have cancelled, for example because
+     * their clients disconnected, the load is cancelled instead of fanning out for nobody.
+     *
+     * @param key        the normalized username the load is shared by
+     * @param username   the username as requested
+     * @param loader     the function loading repositories of a username from upstream, tagged with their upstream position
+     * @param background whether the load is a background refresh, which is not counted as a cache lookup
+     * @return a flux of repositories tagged with their upstream position
+     */
+    private Flux<Tuple2<Long, Repository>> load(
+        final String key,
+        final String username,
+        final Function<String, Flux<Tuple2<Long, Repository>>> loader,
+        final boolean background
+    ) {
+        final boolean[] started = new boolean[1];
+        final Flight flight = inFlight.computeIfAbsent(key, ignored -> {
+            started[0] = true;
+            return new Flight(key, username, loader);
+        });
+        if (!background) {
+            (started[0] ? misses : coalesced).increment();
+        }
+        // a load abandoned between looking it up and subscribing to it is started again, without counting it twice
+        return Flux.defer(() -> flight.join().orElseGet(() -> load(key, username, loader, true)));
+    }
+
+    private void put(final String key, final Entry entry) {
+        entries.put(key, entry);
+        if (store != null) {
+            store.saveRepositories(key, entry.repositories(), entry.loadedAt());
+        }
+    }
+
+    private CompactRepositories compact(final List<Repository> repositories) {
+        final Map<String, String> local = new HashMap<>();
+        return CompactRepositories.of(repositories, name -> {
+            final String shared = branchNames.get(name);
+            if (shared != null) {
+                return shared;
+            }
+            if (branchNames.size() < MAX_SHARED_BRANCH_NAMES) {
+                return branchNames.computeIfAbsent(name, key -> key);
+            }
+            return local.computeIfAbsent(name, key -> key);
+        });
+    }
+
+    private static String normalize(final String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<Repository> inUpstreamOrder(final List<Tuple2<Long, Repository>> loaded) {
+        return loaded.stream()
+            .sorted(Comparator.comparing(Tuple2::getT1))
+            .map(Tuple2::getT2)
+            .toList();
+    }
+
+    private static Counter requestCounter(final MeterRegistry meterRegistry, final String result) {
+        return Counter.builder("repositories.cache.requests")
+            .description("Lookups of the repositories cache")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    private record Entry(List<Repository> repositories, Instant loadedAt) {
+    }
+
+    /**
+     * Upstream load of a username shared by its subscribers. Emitted repositories are replayed to late subscribers,
+     * also once the load has terminated. The load is cancelled once all subscribers have cancelled before it terminated.
+     */
+    private final class Flight {
+
+        private final String key;
+        private final Flux<Tuple2<Long, Repository>> shared;
+        private Disposable connection;
+        private int subscribers;
+        private boolean terminated;
+        private boolean abandoned;
+
+        private Flight(
+            final String key,
+            final String username,
+            final Function<String, Flux<Tuple2<Long, Repository>>> loader
+        ) {
+            this.key = key;
+            this.shared = Flux.defer(() -> {
+                    final List<Tuple2<Long, Repository>> loaded = new ArrayList<>();
+                    return loader.apply(username)
+                        .doOnNext(loaded::add)
+                        .doOnComplete(() -> put(key, new Entry(compact(inUpstreamOrder(loaded)), clock.instant())));
+                })
+                .doFinally(signalType -> terminated())
+                .replay()
+                .autoConnect(1, this::connected);
+        }
+
+        /**
+         * @return the shared load, or empty if it was abandoned and a new load has to be started
+         */
+        private Optional<Flux<Tuple2<Long, Repository>>> join() {
+            synchronized (this) {
+                if (abandoned) {
+                    return Optional.empty();
+                }
+                subscribers++;
+            }
+            return Optional.of(shared.doFinally(signalType -> leave(signalType == SignalType.CANCEL)));
+        }
+
+        private void leave(final boolean cancelled) {
+            final Disposable abandonedConnection;
+            synchronized (this) {
+                subscribers--;
+                if (!cancelled || subscribers > 0 || terminated) {
+                    return;
+                }
+                abandoned = true;
+                abandonedConnection = connection;
+            }
+            inFlight.remove(key, this);
+            if (abandonedConnection != null) {
+                abandonedConnection.dispose();
+            }
+        }
+
+        private synchronized void connected(final Disposable connection) {
+            this.connection = connection;
+        }
+
+        private void terminated() {
+            synchronized (this) {
+                terminated = true;
+            }
+            inFlight.remove(key, this);
+        }
+    }
+}
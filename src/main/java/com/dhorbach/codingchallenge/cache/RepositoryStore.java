@@ -0,0 +1,446 @@
+package com.dhorbach.codingchallenge.cache;
+
+import com.dhorbach.codingchallenge.config.RepositoryCacheProperties;
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.Repository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent store of the {@link RepositoryCache} and of GitHub responses cached by their ETag, so that a new instance
+ * started from a volume or snapshot of the store answers from cache instead of sending a request to GitHub for every
+ * username at once.
+ * <p>
+ * Entries are kept in a {@link SegmentLog} in a compact binary encoding, commit SHAs are stored as 20 bytes. All disk
+ * operations run on a single background thread: writes are queued, so callers never wait for the disk, and the store
+ * is read after startup, so startup time does not depend on its size. The log is compacted on the same thread once
+ * most of its records are superseded.
+ * <p>
+ * Queued writes are kept per key, a write replaces a queued write of the same key, so only the latest repositories or
+ * response of a key wait for the disk. Writes of further keys beyond the maximum number of pending writes are dropped
+ * and counted, so a slow disk bounds the memory held by the queue instead of growing it. Restoring reads only the
+ * most recently written entries up to the bounds of the caches, older entries would only be evicted again.
+ */
+@Slf4j
+public class RepositoryStore implements Closeable {
+
+    private static final byte VERSION = 1;
+    private static final String REPOSITORIES_PREFIX = "repositories/";
+    private static final String RESPONSE_PREFIX = "response/";
+    private static final byte SHA_NULL = 0;
+    private static final byte SHA_BINARY = 1;
+    private static final byte SHA_TEXT = 2;
+
+    private final SegmentLog segmentLog;
+    private final ScheduledExecutorService executor;
+    private final int maxPendingWrites;
+    /**
+     * Writes waiting for the store thread by key, in the order their keys were first queued, guarded by its own lock.
+     */
+    private final Map<String, IoOperation> pendingWrites = new LinkedHashMap<>();
+    private final Counter restored;
+    private final Counter dropped;
+    private boolean drainScheduled;
+    private volatile boolean open;
+    private volatile long size;
+
+    public RepositoryStore(final RepositoryCacheProperties.Persistence properties, final MeterRegistry meterRegistry) {
+        this.segmentLog = new SegmentLog(properties.getDirectory(), properties.getSegmentSize().toBytes());
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "repository-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxPendingWrites = properties.getMaxPendingWrites();
+        this.restored = Counter.builder("repositories.store.restored")
+            .description("Entries restored from the persistent store")
+            .register(meterRegistry);
+        this.dropped = Counter.builder("repositories.store.dropped")
+            .description("Writes to the persistent store dropped because too many writes were pending")
+            .register(meterRegistry);
+        Gauge.builder("repositories.store.size", this, store -> store.size)
+            .description("Size of the persistent store on disk")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        executor.execute(() -> {
+            try {
+                segmentLog.open();
+                size = segmentLog.size();
+                open = true;
+            } catch (final IOException e) {
+                log.warn("Repository store in {} could not be opened, entries are not persisted", properties.getDirectory(), e);
+            }
+        });
+        final long interval = properties.getCompactionInterval().toMillis();
+        executor.scheduleWithFixedDelay(
+            () -> compactIfNeeded(properties.getCompactionThreshold()), interval, interval, TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * Reads the most recently stored entries in the background, in the order they were stored. Older entries beyond
+     * the given maximums are neither read nor deleted.
+     *
+     * @param repositories    consumer of stored repositories
+     * @param maxRepositories the maximum number of usernames to restore
+     * @param responses       consumer of stored responses
+     * @param maxResponses    the maximum number of responses to restore
+     */
+    public void restore(
+        final RepositoriesConsumer repositories,
+        final int maxRepositories,
+        final ResponseConsumer responses,
+        final int maxResponses
+    ) {
+        execute(() -> {
+            segmentLog.forEachSealed(REPOSITORIES_PREFIX, maxRepositories, (key, value) -> read(key, value, input -> {
+                final Instant loadedAt = Instant.ofEpochMilli(input.readLong());
+                repositories.accept(key.substring(REPOSITORIES_PREFIX.length()), readRepositories(input), loadedAt);
+            }));
+            segmentLog.forEachSealed(RESPONSE_PREFIX, maxResponses, (key, value) -> read(key, value, input -> {
+                final String eTag = input.readUTF();
+                final HttpHeaders headers = readHeaders(input);
+                final byte[] body = new byte[input.readInt()];
+                input.readFully(body);
+                responses.accept(URI.create(key.substring(RESPONSE_PREFIX.length())), eTag, headers, body);
+            }));
+        });
+    }
+
+    /**
+     * Stores the repositories of a username, replacing previously stored ones.
+     *
+     * @param username     the username
+     * @param repositories the repositories in upstream order
+     * @param loadedAt     the time the repositories were loaded from upstream
+     */
+    public void saveRepositories(final String username, final List<Repository> repositories, final Instant loadedAt) {
+        final String key = REPOSITORIES_PREFIX + username;
+        write(key, () -> segmentLog.put(key, encode(output -> {
+            output.writeLong(loadedAt.toEpochMilli());
+            writeRepositories(output, repositories);
+        })));
+    }
+
+    /**
+     * @param username the username whose stored repositories are deleted
+     */
+    public void deleteRepositories(final String username) {
+        final String key = REPOSITORIES_PREFIX + username;
+        write(key, () -> segmentLog.delete(key));
+    }
+
+    /**
+     * Stores a GitHub response, replacing a previously stored response of the same URI.
+     *
+     * @param uri     the request URI
+     * @param eTag    the ETag of the response
+     * @param headers the response headers to store
+     * @param body    the response body
+     */
+    public void saveResponse(final URI uri, final String eTag, final HttpHeaders headers, final byte[] body) {
+        final String key = RESPONSE_PREFIX + uri;
+        write(key, () -> segmentLog.put(key, encode(output -> {
+            output.writeUTF(eTag);
+            writeHeaders(output, headers);
+            output.writeInt(body.length);
+            output.write(body);
+        })));
+    }
+
+    /**
+     * @param uri the request URI whose stored response is deleted
+     */
+    public void deleteResponse(final URI uri) {
+        final String key = RESPONSE_PREFIX + uri;
+        write(key, () -> segmentLog.delete(key));
+    }
+
+    /**
+     * Writes all queued entries and closes the store.
+     */
+    @Override
+    public void close() {
+        execute(() -> {
+            drain();
+            segmentLog.close();
+            open = false;
+        });
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Repository store did not finish writing within 10 seconds");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void compactIfNeeded(final double threshold) {
+        if (!open || segmentLog.size() == 0 || 1 - (double) segmentLog.liveSize() / segmentLog.size() <= threshold) {
+            return;
+        }
+        try {
+            final long before = segmentLog.size();
+            segmentLog.compact();
+            size = segmentLog.size();
+            log.info("Compacted repository store from {} to {} bytes", before, size);
+        } catch (final IOException e) {
+            log.warn("Compaction of the repository store failed", e);
+        }
+    }
+
+    /**
+     * Queues a write of the given key, replacing a queued write of the same key, and schedules writing the queue on
+     * the store thread. A write of a further key is dropped once the maximum number of pending writes is reached.
+     */
+    private void write(final String key, final IoOperation operation) {
+        synchronized (pendingWrites) {
+            if (pendingWrites.size() >= maxPendingWrites && !pendingWrites.containsKey(key)) {
+                dropped.increment();
+                return;
+            }
+            pendingWrites.put(key, operation);
+            if (drainScheduled) {
+                return;
+            }
+            drainScheduled = true;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (final RejectedExecutionException e) {
+            log.debug("Repository store is closed, write was dropped");
+        }
+    }
+
+    /**
+     * Runs all queued writes on the store thread, or drops them if the store is not open.
+     */
+    private void drain() {
+        final List<IoOperation> operations;
+        synchronized (pendingWrites) {
+            operations = new ArrayList<>(pendingWrites.values());
+            pendingWrites.clear();
+            drainScheduled = false;
+        }
+        if (!open) {
+            return;
+        }
+        for (final IoOperation operation : operations) {
+            try {
+                operation.run();
+            } catch (final IOException | UncheckedIOException e) {
+                log.warn("Write to the repository store failed", e);
+            }
+        }
+        size = segmentLog.size();
+    }
+
+    /**
+     * Reads a stored entry of the current version, skipping entries of other versions.
+     */
+    private void read(final String key, final ByteBuffer value, final Decoder decoder) {
+        try {
+            final DataInputStream input = new DataInputStream(new ByteBufferInputStream(value));
+            if (input.readByte() != VERSION) {
+                return;
+            }
+            decoder.decode(input);
+            restored.increment();
+        } catch (final IOException e) {
+            log.warn("Stored entry {} could not be read", key, e);
+        }
+    }
+
+    /**
+     * Runs a disk operation on the store thread, unless the store is not open. Operations after {@link #close()} are
+     * dropped.
+     */
+    private void execute(final IoOperation operation) {
+        try {
+            executor.execute(() -> {
+                if (!open) {
+                    return;
+                }
+                try {
+                    operation.run();
+                    size = segmentLog.size();
+                } catch (final IOException | UncheckedIOException e) {
+                    log.warn("Operation on the repository store failed", e);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            log.debug("Repository store is closed, operation was dropped");
+        }
+    }
+
+    private static byte[] encode(final Encoder encoder) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeByte(VERSION);
+        encoder.encode(output);
+        return bytes.toByteArray();
+    }
+
+    private static void writeRepositories(final DataOutput output, final List<Repository> repositories) throws IOException {
+        output.writeInt(repositories.size());
+        for (final Repository repository : repositories) {
+            output.writeUTF(repository.getName());
+            output.writeUTF(repository.getOwnerLogin());
+            final List<GitHubBranch> branches = repository.getBranches() == null ? List.of() : repository.getBranches();
+            output.writeInt(branches.size());
+            for (final GitHubBranch branch : branches) {
+                output.writeUTF(branch.getName());
+                writeSha(output, branch.getLastCommitSha());
+            }
+        }
+    }
+
+    private static List<Repository> readRepositories(final DataInput input) throws IOException {
+        final int count = input.readInt();
+        final List<Repository> repositories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final String name = input.readUTF();
+            final String ownerLogin = input.readUTF();
+            final int branchCount = input.readInt();
+            final List<GitHubBranch> branches = new ArrayList<>(branchCount);
+            for (int j = 0; j < branchCount; j++) {
+                branches.add(new GitHubBranch(input.readUTF(), readSha(input)));
+            }
+            repositories.add(Repository.builder().name(name).ownerLogin(ownerLogin).branches(branches).build());
+        }
+        return repositories;
+    }
+
+    /**
+     * Writes a commit SHA as 20 bytes, unless it is not a 40 character lowercase hex string.
+     */
+    private static void writeSha(final DataOutput output, final String sha) throws IOException {
+        if (sha == null) {
+            output.writeByte(SHA_NULL);
+        } else if (CompactRepositories.isBinarySha(sha)) {
+            output.writeByte(SHA_BINARY);
+            output.write(HexFormat.of().parseHex(sha));
+        } else {
+            output.writeByte(SHA_TEXT);
+            output.writeUTF(sha);
+        }
+    }
+
+    private static String readSha(final DataInput input) throws IOException {
+        final byte format = input.readByte();
+        if (format == SHA_BINARY) {
+            final byte[] sha = new byte[CompactRepositories.SHA_LENGTH];
+            input.readFully(sha);
+            return HexFormat.of().formatHex(sha);
+        }
+        return format == SHA_TEXT ? input.readUTF() : null;
+    }
+
+    private static void writeHeaders(final DataOutput output, final HttpHeaders headers) throws IOException {
+        output.writeInt(headers.size());
+        for (final Map.Entry<String, List<String>> header : headers.entrySet()) {
+            output.writeUTF(header.getKey());
+            output.writeInt(header.getValue().size());
+            for (final String value : header.getValue()) {
+                output.writeUTF(value);
+            }
+        }
+    }
+
+    private static HttpHeaders readHeaders(final DataInput input) throws IOException {
+        final HttpHeaders headers = new HttpHeaders();
+        final int count = input.readInt();
+        for (int i = 0; i < count; i++) {
+            final String name = input.readUTF();
+            final int valueCount = input.readInt();
+            for (int j = 0; j < valueCount; j++) {
+                headers.add(name, input.readUTF());
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * Consumer of stored repositories of a username.
+     */
+    @FunctionalInterface
+    public interface RepositoriesConsumer {
+        void accept(String username, List<Repository> repositories, Instant loadedAt);
+    }
+
+    /**
+     * Consumer of a stored GitHub response.
+     */
+    @FunctionalInterface
+    public interface ResponseConsumer {
+        void accept(URI uri, String eTag, HttpHeaders headers, byte[] body);
+    }
+
+    @FunctionalInterface
+    private interface IoOperation {
+        void run() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Encoder {
+        void encode(DataOutput output) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Decoder {
+        void decode(DataInputStream input) throws IOException;
+    }
+
+    /**
+     * Reads a byte buffer without copying it.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.dhorbach.codingchallenge.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of keyed binary records, stored in numbered segment files of a directory. The latest record of a key
+ * wins and deleted keys are recorded as tombstones. Sealed segments are read memory-mapped, {@link #compact()}
+ * rewrites their live records into new segments and deletes them.
+ * <p>
+ * A record consists of its length, a CRC32 checksum, the key and the value. A segment is only read up to its first
+ * incomplete or corrupt record, as left by a crash in the middle of a write, and truncated there.
+ * <p>
+ * Not thread-safe, all methods have to be called from the same thread.
+ */
+class SegmentLog implements Closeable {
+
+    private static final String SUFFIX = ".segment";
+    /**
+     * Length and checksum preceding every record.
+     */
+    private static final int HEADER_SIZE = 8;
+    /**
+     * Length of a record with an empty key and a tombstone, not counting the length itself.
+     */
+    private static final int MIN_LENGTH = 4 + 2 + 4;
+    private static final int TOMBSTONE = -1;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final TreeMap<Long, MappedByteBuffer> sealed = new TreeMap<>();
+    /**
+     * Location of the latest record of every live key, in the order the records were written.
+     */
+    private final Map<String, Location> index = new LinkedHashMap<>();
+    private long sealedBytes;
+    private long liveBytes;
+    private long activeId;
+    private long activeSize;
+    private FileChannel active;
+
+    /**
+     * @param directory   the directory of the segment files, created if it does not exist
+     * @param segmentSize the size in bytes after which a new segment is started
+     */
+    SegmentLog(final Path directory, final long segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Reads the existing segments and starts a new segment for appended records. Has to be called before any other
+     * method.
+     */
+    void open() throws IOException {
+        Files.createDirectories(directory);
+        final List<Long> ids;
+        try (Stream<Path> files = Files.list(directory)) {
+            ids = files.map(path -> path.getFileName().toString())
+                .filter(name -> name.endsWith(SUFFIX))
+                .map(name -> Long.parseLong(name.substring(0, name.length() - SUFFIX.length())))
+                .sorted()
+                .toList();
+        }
+        for (final long id : ids) {
+            scan(id);
+        }
+        startSegment(ids.isEmpty() ? 0 : ids.get(ids.size() - 1) + 1);
+    }
+
+    /**
+     * Calls the consumer with the value of every live key in the sealed segments, in the order the records were
+     * written. Records appended since {@link #open()} are skipped, unless their segment was sealed in the meantime.
+     *
+     * @param consumer the consumer of keys and values
+     */
+    void forEachSealed(final BiConsumer<String, ByteBuffer> consumer) {
+        forEachSealed("", Integer.MAX_VALUE, consumer);
+    }
+
+    /**
+     * Calls the consumer with the value of the most recently written live keys with the given prefix in the sealed
+     * segments, in the order the records were written. Only the matching records are read.
+     *
+     * @param prefix   the prefix of the keys
+     * @param limit    the maximum number of keys, older keys beyond it are skipped
+     * @param consumer the consumer of keys and values
+     */
+    void forEachSealed(final String prefix, final int limit, final BiConsumer<String, ByteBuffer> consumer) {
+        final List<Map.Entry<String, Location>> matching = new ArrayList<>();
+        for (final Map.Entry<String, Location> entry : index.entrySet()) {
+            if (entry.getValue().segment() != activeId && entry.getKey().startsWith(prefix)) {
+                matching.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+        final int skipped = Math.max(matching.size() - limit, 0);
+        for (final Map.Entry<String, Location> entry : matching.subList(skipped, matching.size())) {
+            consumer.accept(entry.getKey(), read(entry.getValue()));
+        }
+    }
+
+    /**
+     * Appends a record of the given key, which replaces all previous records of the key.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    void put(final String key, final byte[] value) throws IOException {
+        final Location previous = index.remove(key);
+        if (previous != null) {
+            liveBytes -= previous.recordSize();
+        }
+        final Location location = append(key, value);
+        index.put(key, location);
+        liveBytes += location.recordSize();
+    }
+
+    /**
+     * Appends a tombstone of the given key, if it has a live record.
+     *
+     * @param key the key
+     */
+    void delete(final String key) throws IOException {
+        final Location previous = index.remove(key);
+        if (previous != null) {
+            liveBytes -= previous.recordSize();
+            append(key, null);
+        }
+    }
+
+    /**
+     * Rewrites the live records of all sealed segments into new segments and deletes the sealed segments, which drops
+     * superseded records and tombstones.
+     */
+    void compact() throws IOException {
+        startSegment(activeId + 1);
+        final Set<Long> compacted = new HashSet<>(sealed.keySet());
+        for (final Map.Entry<String, Location> entry : new ArrayList<>(index.entrySet())) {
+            if (compacted.contains(entry.getValue().segment())) {
+                final ByteBuffer value = read(entry.getValue());
+                final byte[] bytes = new byte[value.remaining()];
+                value.get(bytes);
+                index.put(entry.getKey(), append(entry.getKey(), bytes));
+            }
+        }
+        active.force(false);
+        for (final long id : compacted) {
+            sealed.remove(id);
+            sealedBytes -= Files.size(segmentPath(id));
+            Files.delete(segmentPath(id));
+        }
+    }
+
+    /**
+     * @return the bytes of all segments on disk
+     */
+    long size() {
+        return sealedBytes + activeSize;
+    }
+
+    /**
+     * @return the bytes of records that were neither superseded nor deleted
+     */
+    long liveSize() {
+        return liveBytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (active != null) {
+            active.force(false);
+            active.close();
+            active = null;
+        }
+        sealed.clear();
+    }
+
+    /**
+     * Reads the records of a segment into the index and truncates the segment after its last valid record.
+     */
+    private void scan(final long id) throws IOException {
+        final Path path = segmentPath(id);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final long size = channel.size();
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int position = 0;
+            while (position + HEADER_SIZE <= size) {
+                final int length = buffer.getInt(position);
+                final int end = position + 4 + length;
+                if (length < MIN_LENGTH || end > size || end < 0) {
+                    break;
+                }
+                final CRC32 crc = new CRC32();
+                crc.update(buffer.slice(position + HEADER_SIZE, length - 4));
+                if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                    break;
+                }
+                final int keyLength = Short.toUnsignedInt(buffer.getShort(position + HEADER_SIZE));
+                final int valuePosition = position + HEADER_SIZE + 2 + keyLength + 4;
+                if (valuePosition > end) {
+                    break;
+                }
+                final byte[] key = new byte[keyLength];
+                buffer.get(position + HEADER_SIZE + 2, key);
+                final int valueLength = buffer.getInt(valuePosition - 4);
+                if (valueLength != TOMBSTONE && valuePosition + valueLength != end) {
+                    break;
+                }
+                final String name = new String(key, StandardCharsets.UTF_8);
+                final Location previous = index.remove(name);
+                if (previous != null) {
+                    liveBytes -= previous.recordSize();
+                }
+                if (valueLength != TOMBSTONE) {
+                    final Location location = new Location(id, valuePosition, valueLength, end - position);
+                    index.put(name, location);
+                    liveBytes += location.recordSize();
+                }
+                position = end;
+            }
+            if (position < size) {
+                channel.truncate(position);
+            }
+            sealed.put(id, position < size ? channel.map(FileChannel.MapMode.READ_ONLY, 0, position) : buffer);
+            sealedBytes += position;
+        }
+    }
+
+    private ByteBuffer read(final Location location) {
+        return sealed.get(location.segment()).slice(location.valuePosition(), location.valueLength());
+    }
+
+    private Location append(final String key, final byte[] value) throws IOException {
+        if (activeSize >= segmentSize) {
+            startSegment(activeId + 1);
+        }
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final int valueLength = value == null ? 0 : value.length;
+        final int recordSize = HEADER_SIZE + 2 + keyBytes.length + 4 + valueLength;
+        final ByteBuffer record = ByteBuffer.allocate(recordSize)
+            .putInt(recordSize - 4)
+            .putInt(0)
+            .putShort((short) keyBytes.length)
+            .put(keyBytes)
+            .putInt(value == null ? TOMBSTONE : valueLength);
+        if (value != null) {
+            record.put(value);
+        }
+        final CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_SIZE, recordSize - HEADER_SIZE);
+        record.putInt(4, (int) crc.getValue()).flip();
+        while (record.hasRemaining()) {
+            active.write(record);
+        }
+        final Location location = new Location(activeId, (int) activeSize + recordSize - valueLength, valueLength, recordSize);
+        activeSize += recordSize;
+        return location;
+    }
+
+    /**
+     * Seals the active segment, if any, and starts a new one with the given id.
+     */
+    private void startSegment(final long id) throws IOException {
+        if (active != null) {
+            active.force(false);
+            sealed.put(activeId, active.map(FileChannel.MapMode.READ_ONLY, 0, activeSize));
+            sealedBytes += activeSize;
+            active.close();
+        }
+        active = FileChannel.open(segmentPath(id), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeId = id;
+        activeSize = 0;
+    }
+
+    private Path segmentPath(final long id) {
+        return directory.resolve(String.format("%019d%s", id, SUFFIX));
+    }
+
+    /**
+     * @param segment       the id of the segment
+     * @param valuePosition the position of the value in the segment
+     * @param valueLength   the length of the value
+     * @param recordSize    the size of the whole record
+     */
+    private record Location(long segment, int valuePosition, int valueLength, int recordSize) {
+    }
+}
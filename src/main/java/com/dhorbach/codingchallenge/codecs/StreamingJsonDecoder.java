@@ -0,0 +1,276 @@
+package com.dhorbach.codingchallenge.codecs;
+
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.GitHubRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Token-streaming JSON decoder binding only a fixed set of fields of a type.
+ * <p>
+ * Unlike the generic Jackson decoder, it does not build a tree or bind nested objects of an element: fields that are
+ * not bound are skipped token by token and bound nested fields, such as {@code owner.login}, are read in place. Elements
+ * of a top level array are emitted as soon as they are complete, while the rest of the array is still arriving.
+ *
+ * @param <T> the decoded type
+ */
+public class StreamingJsonDecoder<T> implements Decoder<T> {
+
+    private static final List<MimeType> MIME_TYPES =
+        List.of(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Class<T> type;
+    private final Field root;
+    private final int fieldCount;
+    private final Function<Object[], T> factory;
+
+    /**
+     * @param type    the decoded type
+     * @param paths   the bound fields, nested fields are separated by dots
+     * @param factory creates an element from the values of the bound fields, in the order of {@code paths}; fields
+     *                missing in the input are {@code null}
+     */
+    public StreamingJsonDecoder(final Class<T> type, final List<String> paths, final Function<Object[], T> factory) {
+        this.type = type;
+        this.root = new Field();
+        for (int i = 0; i < paths.size(); i++) {
+            Field field = root;
+            for (final String name : paths.get(i).split("\\.")) {
+                field = field.children.computeIfAbsent(name, key -> new Field());
+            }
+            field.index = i;
+        }
+        this.fieldCount = paths.size();
+        this.factory = factory;
+    }
+
+    /**
+     * @return a decoder of repositories from the GitHub REST API
+     */
+    public static StreamingJsonDecoder<GitHubRepository> gitHubRepositories() {
+        return new StreamingJsonDecoder<>(
+            GitHubRepository.class,
+            List.of("name", "fork", "owner.login"),
+            values -> new GitHubRepository((String) values[0], Boolean.TRUE.equals(values[1]), (String) values[2])
+        );
+    }
+
+    /**
+     * @return a decoder of branches from the GitHub REST API
+     */
+    public static StreamingJsonDecoder<GitHubBranch> gitHubBranches() {
+        return new StreamingJsonDecoder<>(
+            GitHubBranch.class,
+            List.of("name", "commit.sha"),
+            values -> new GitHubBranch((String) values[0], (String) values[1])
+        );
+    }
+
+    @Override
+    public boolean canDecode(final ResolvableType elementType, final MimeType mimeType) {
+        return type.equals(elementType.resolve()) && (mimeType == null || supportsMimeType(mimeType));
+    }
+
+    @Override
+    public Flux<T> decode(
+        final Publisher<DataBuffer> inputStream,
+        final ResolvableType elementType,
+        final MimeType mimeType,
+        final Map<String, Object> hints
+    ) {
+        return Flux.using(
+            Tokenizer::new,
+            tokenizer -> Flux.from(inputStream)
+                .concatMapIterable(tokenizer::feed)
+                .concatWith(Flux.defer(() -> Flux.fromIterable(tokenizer.endOfInput())))
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release),
+            Tokenizer::close
+        );
+    }
+
+    @Override
+    public Mono<T> decodeToMono(
+        final Publisher<DataBuffer> inputStream,
+        final ResolvableType elementType,
+        final MimeType mimeType,
+        final Map<String, Object> hints
+    ) {
+        return decode(inputStream, elementType, mimeType, hints).singleOrEmpty();
+    }
+
+    @Override
+    public List<MimeType> getDecodableMimeTypes() {
+        return MIME_TYPES;
+    }
+
+    private static boolean supportsMimeType(final MimeType mimeType) {
+        for (final MimeType supported : MIME_TYPES) {
+            if (supported.isCompatibleWith(mimeType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A bound field, either a value with an index or an object with bound children.
+     */
+    private static final class Field {
+        private final Map<String, Field> children = new HashMap<>();
+        private int index = -1;
+    }
+
+    /**
+     * Parser state of a single decoded stream.
+     */
+    private final class Tokenizer {
+
+        private final JsonParser parser;
+        private final Field[] path = new Field[8];
+        private int level = -1;
+        private int skipDepth;
+        private boolean rootStarted;
+        private boolean inRootArray;
+        private Field currentField;
+        private Object[] values;
+
+        private Tokenizer() throws IOException {
+            this.parser = jsonFactory.createNonBlockingByteArrayParser();
+        }
+
+        private List<T> feed(final DataBuffer dataBuffer) {
+            final byte[] bytes = new byte[dataBuffer.readableByteCount()];
+            dataBuffer.read(bytes);
+            DataBufferUtils.release(dataBuffer);
+            try {
+                ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(bytes, 0, bytes.length);
+                return parseAvailableTokens();
+            } catch (IOException e) {
+                throw new DecodingException("JSON decoding error: " + e.getMessage(), e);
+            }
+        }
+
+        private List<T> endOfInput() {
+            parser.getNonBlockingInputFeeder().endOfInput();
+            try {
+                final List<T> elements = parseAvailableTokens();
+                if (level >= 0 || inRootArray) {
+                    throw new DecodingException("JSON decoding error: unexpected end of input");
+                }
+                return elements;
+            } catch (IOException e) {
+                throw new DecodingException("JSON decoding error: " + e.getMessage(), e);
+            }
+        }
+
+        private List<T> parseAvailableTokens() throws IOException {
+            List<T> elements = Collections.emptyList();
+            JsonToken token = parser.nextToken();
+            while (token != null && token != JsonToken.NOT_AVAILABLE) {
+                final T element = handle(token);
+                if (element != null) {
+                    if (elements.isEmpty()) {
+                        elements = new ArrayList<>();
+                    }
+                    elements.add(element);
+                }
+                token = parser.nextToken();
+            }
+            return elements;
+        }
+
+        /**
+         * Handles a single token.
+         *
+         * @return the element completed by the token, if any
+         */
+        private T handle(final JsonToken token) throws IOException {
+            if (skipDepth > 0) {
+                if (token.isStructStart()) {
+                    skipDepth++;
+                } else if (token.isStructEnd()) {
+                    skipDepth--;
+                }
+                return null;
+            }
+            switch (token) {
+                case START_ARRAY -> {
+                    if (!rootStarted) {
+                        rootStarted = true;
+                        inRootArray = true;
+                    } else {
+                        skipDepth = 1;
+                    }
+                }
+                case START_OBJECT -> {
+                    if (level < 0 && (!rootStarted || inRootArray)) {
+                        rootStarted = true;
+                        values = new Object[fieldCount];
+                        path[++level] = root;
+                    } else if (level >= 0 && currentField != null && !currentField.children.isEmpty()
+                        && level + 1 < path.length) {
+                        path[++level] = currentField;
+                    } else {
+                        skipDepth = 1;
+                    }
+                    currentField = null;
+                }
+                case END_OBJECT -> {
+                    if (--level < 0) {
+                        final T element = factory.apply(values);
+                        values = null;
+                        return element;
+                    }
+                }
+                case END_ARRAY -> inRootArray = false;
+                case FIELD_NAME -> currentField = level >= 0 ? path[level].children.get(parser.currentName()) : null;
+                default -> {
+                    if (level >= 0 && currentField != null && currentField.index >= 0) {
+                        values[currentField.index] = scalarValue(token);
+                    }
+                    currentField = null;
+                }
+            }
+            return null;
+        }
+
+        private Object scalarValue(final JsonToken token) throws IOException {
+            return switch (token) {
+                case VALUE_STRING -> parser.getText();
+                case VALUE_TRUE -> Boolean.TRUE;
+                case VALUE_FALSE -> Boolean.FALSE;
+                case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+                default -> null;
+            };
+        }
+
+        private void close() {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                // nothing to release, the parser does not own an input source
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.dhorbach.codingchallenge.concurrency;
+
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import com.dhorbach.codingchallenge.exceptions.RateLimitExceededException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.handler.timeout.TimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Process-wide concurrency limiter for upstream calls whose limit adapts to GitHub's behaviour using AIMD (additive
+ * increase, multiplicative decrease).
+ * <p>
+ * Each successful call that ran while the limiter was saturated increases the limit by {@code 1 / limit}, which grows
+ * the limit by roughly one per round trip. A throttled ({@code 429}, {@code 403}), too slow, timed out or
+ * {@link GitHubRateLimiter rate limited} call multiplies the limit by the backoff ratio. Calls above the limit wait in
+ * a FIFO queue until a permit is released.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final GitHubProperties.Concurrency properties;
+    private final Deque<Waiter> queue = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(final GitHubProperties.Concurrency properties, final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+        this.lastDecreaseNanos = System.nanoTime();
+        Gauge.builder("github.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+            .description("Current adaptive concurrency limit of upstream calls")
+            .register(meterRegistry);
+        Gauge.builder("github.concurrency.in-flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+            .description("Upstream calls currently holding a permit")
+            .register(meterRegistry);
+        Gauge.builder("github.concurrency.queue", this, AdaptiveConcurrencyLimiter::getQueueDepth)
+            .description("Upstream calls waiting for a permit")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Subscribes to the given source once a permit is available and releases the permit when the source terminates
+     * or is cancelled.
+     *
+     * @param source the upstream call
+     * @return a mono emitting the result of the source
+     */
+    public <T> Mono<T> limit(final Mono<T> source) {
+        return Mono.usingWhen(
+            acquire(),
+            permit -> source,
+            permit -> Mono.fromRunnable(() -> release(permit, Outcome.SUCCESS)),
+            (permit, throwable) -> Mono.fromRunnable(() -> release(permit, classify(throwable))),
+            permit -> Mono.fromRunnable(() -> release(permit, Outcome.IGNORED))
+        );
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.create(sink -> {
+            final Waiter waiter = new Waiter(sink);
+            synchronized (this) {
+                if (inFlight < (int) limit) {
+                    inFlight++;
+                } else {
+                    queue.addLast(waiter);
+                    sink.onCancel(() -> cancel(waiter));
+                    return;
+                }
+            }
+            sink.success(new Permit(System.nanoTime()));
+        });
+    }
+
+    private void cancel(final Waiter waiter) {
+        final Permit unused;
+        synchronized (this) {
+            if (queue.remove(waiter)) {
+                return;
+            }
+            unused = waiter.permit;
+        }
+        if (unused != null) {
+            // the permit was granted concurrently with the cancellation and will never be used
+            release(unused, Outcome.IGNORED);
+        }
+    }
+
+    private void release(final Permit permit, final Outcome outcome) {
+        if (!permit.released.compareAndSet(false, true)) {
+            return;
+        }
+        final long now = System.nanoTime();
+        final Outcome effectiveOutcome = outcome == Outcome.SUCCESS
+            && now - permit.startNanos > properties.getLatencyThreshold().toNanos() ? Outcome.OVERLOADED : outcome;
+        final List<Waiter> granted;
+        synchronized (this) {
+            adjustLimit(permit, effectiveOutcome, now);
+            inFlight--;
+            granted = grantQueued(now);
+        }
+        granted.forEach(waiter -> waiter.sink.success(waiter.permit));
+    }
+
+    /**
+     * Must be called while holding the lock.
+     */
+    private void adjustLimit(final Permit permit, final Outcome outcome, final long now) {
+        if (outcome == Outcome.OVERLOADED) {
+            // calls started before the last decrease already saw the previous limit, only react once per window
+            if (permit.startNanos > lastDecreaseNanos) {
+                limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+                lastDecreaseNanos = now;
+            }
+        } else if (outcome == Outcome.SUCCESS && inFlight >= (int) limit) {
+            limit = Math.min(properties.getMaxLimit(), limit + 1 / limit);
+        }
+    }
+
+    /**
+     * Must be called while holding the lock. Waiters are completed by the caller outside the lock.
+     */
+    private List<Waiter> grantQueued(final long now) {
+        final List<Waiter> granted = new ArrayList<>();
+        while (inFlight < (int) limit && !queue.isEmpty()) {
+            final Waiter waiter = queue.pollFirst();
+            waiter.permit = new Permit(now);
+            inFlight++;
+            granted.add(waiter);
+        }
+        return granted;
+    }
+
+    private static Outcome classify(final Throwable throwable) {
+        if (throwable instanceof RateLimitExceededException) {
+            return Outcome.OVERLOADED;
+        }
+        if (throwable instanceof WebClientRequestException && throwable.getCause() instanceof TimeoutException) {
+            return Outcome.OVERLOADED;
+        }
+        if (throwable instanceof WebClientResponseException responseException) {
+            final int status = responseException.getStatusCode().value();
+            if (status == HttpStatus.TOO_MANY_REQUESTS.value() || status == HttpStatus.FORBIDDEN.value()) {
+                return Outcome.OVERLOADED;
+            }
+        }
+        return Outcome.IGNORED;
+    }
+
+    private enum Outcome {
+        SUCCESS,
+        OVERLOADED,
+        IGNORED
+    }
+
+    private static final class Permit {
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(final long startNanos) {
+            this.startNanos = startNanos;
+        }
+    }
+
+    private static final class Waiter {
+        private final MonoSink<Permit> sink;
+        private Permit permit;
+
+        private Waiter(final MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+}
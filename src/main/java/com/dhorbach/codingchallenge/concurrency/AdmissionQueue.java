@@ -0,0 +1,379 @@
+package com.dhorbach.codingchallenge.concurrency;
+
+import com.dhorbach.codingchallenge.config.AdmissionProperties;
+import com.dhorbach.codingchallenge.exceptions.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for incoming requests: at most {@code maxInFlight} requests run at the same time, further requests
+ * wait in a bounded queue, served by priority and in arrival order within a priority.
+ * <p>
+ * Every request has a deadline. A request is rejected with a {@link ServiceOverloadedException} as soon as it cannot
+ * finish within its deadline anymore: on arrival if the queue is full or the expected wait plus the expected response
+ * time exceed its deadline, while waiting once its deadline minus the expected response time has passed, and while
+ * running once its deadline has passed, which cancels its upstream calls. A full queue makes room for a request of
+ * higher priority by rejecting the latest request of the lowest priority.
+ * <p>
+ * A streamed request commits its response with its first element, after which it can no longer be rejected, so its
+ * deadline only applies until its first element and it then runs as long as its consumer reads. Two moving averages
+ * are kept per priority of requests that completed or were aborted at their deadline: the service time a slot is held,
+ * from which the expected wait is estimated, and the response time until the deadline no longer applied, which has to
+ * fit into the deadline. Keeping them per priority stops long batch requests from inflating the estimates of requests
+ * for a single username, and cached ones from deflating them. Nothing of a priority is rejected early before requests
+ * of that priority have finished.
+ * <p>
+ * Rejecting requests that would miss their deadline anyway keeps the requests that are admitted within their
+ * deadlines, so the number of useful responses stays high past saturation instead of collapsing with the latency.
+ */
+public class AdmissionQueue {
+
+    /**
+     * Weight of the latest duration in the moving average of the service time.
+     */
+    private static final double SERVICE_TIME_WEIGHT = 0.1;
+
+    /**
+     * Priority of an incoming request.
+     */
+    public enum Priority {
+        /**
+         * Requests answered without upstream calls, such as cached usernames.
+         */
+        HIGH,
+        /**
+         * Requests for a single username.
+         */
+        NORMAL,
+        /**
+         * Requests for many usernames.
+         */
+        LOW
+    }
+
+    private final AdmissionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final List<Deque<Waiter>> queues = new ArrayList<>();
+    private final int[] running = new int[Priority.values().length];
+    private final double[] serviceNanos = new double[Priority.values().length];
+    private final double[] responseNanos = new double[Priority.values().length];
+    private int inFlight;
+    private int queued;
+
+    public AdmissionQueue(final AdmissionProperties properties, final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        for (int i = 0; i < Priority.values().length; i++) {
+            queues.add(new ArrayDeque<>());
+        }
+        Gauge.builder("repositories.admission.in-flight", this, AdmissionQueue::getInFlight)
+            .description("Admitted requests currently running")
+            .register(meterRegistry);
+        Gauge.builder("repositories.admission.queue", this, AdmissionQueue::getQueueDepth)
+            .description("Requests waiting for admission")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Subscribes to the given request once it is admitted and releases its slot when it terminates or is cancelled.
+     *
+     * @param priority the priority of the request
+     * @param timeout  the time from now the request has to finish in
+     * @param request  the supplier of the request
+     * @return a flux of the elements of the request, failing with a {@link ServiceOverloadedException} if the request
+     * is rejected or exceeds its deadline
+     */
+    public <T> Flux<T> admit(final Priority priority, final Duration timeout, final Supplier<Flux<T>> request) {
+        return admit(priority, timeout, false, request);
+    }
+
+    /**
+     * Subscribes to the given request once it is admitted and releases its slot when it terminates or is cancelled.
+     *
+     * @param priority the priority of the request
+     * @param timeout  the time from now the request has to finish in, for streamed requests to emit its first element
+     *                 in
+     * @param streamed whether the response is committed with the first element of the request
+     * @param request  the supplier of the request
+     * @return a flux of the elements of the request, failing with a {@link ServiceOverloadedException} if the request
+     * is rejected or exceeds its deadline
+     */
+    public <T> Flux<T> admit(
+        final Priority priority,
+        final Duration timeout,
+        final boolean streamed,
+        final Supplier<Flux<T>> request
+    ) {
+        if (!properties.isEnabled()) {
+            return Flux.defer(request);
+        }
+        return Flux.defer(() -> {
+            final long deadline = System.nanoTime() + timeout.toNanos();
+            return Flux.usingWhen(
+                acquire(priority, deadline),
+                slot -> withDeadline(Flux.defer(request), slot, priority, deadline, streamed),
+                slot -> Mono.fromRunnable(() -> release(slot, true)),
+                // a request aborted at its deadline took at least that long, which is worth knowing under overload
+                (slot, throwable) -> Mono.fromRunnable(
+                    () -> release(slot, throwable instanceof ServiceOverloadedException)
+                ),
+                slot -> Mono.fromRunnable(() -> release(slot, false))
+            );
+        });
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueueDepth() {
+        return queued;
+    }
+
+    private Mono<Slot> acquire(final Priority priority, final long deadline) {
+        final Mono<Slot> slot = Mono.create(sink -> {
+            final Waiter waiter = new Waiter(sink, priority, deadline);
+            final long now = System.nanoTime();
+            Waiter evicted = null;
+            String rejectedBecause = null;
+            long expectedWait = 0;
+            synchronized (this) {
+                if (queued == 0 && inFlight < properties.getMaxInFlight()) {
+                    if (now + (long) responseNanos[priority.ordinal()] > deadline) {
+                        rejectedBecause = "deadline";
+                    } else {
+                        waiter.slot = start(now, priority);
+                    }
+                } else {
+                    expectedWait = expectedWait(priority);
+                    if (queued >= properties.getMaxQueued()) {
+                        evicted = evictable(priority);
+                    }
+                    if (queued >= properties.getMaxQueued() && evicted == null) {
+                        rejectedBecause = "queue-full";
+                    } else if (now + expectedWait + (long) responseNanos[priority.ordinal()] > deadline) {
+                        rejectedBecause = "deadline";
+                        evicted = null;
+                    } else {
+                        if (evicted != null) {
+                            queues.get(evicted.priority.ordinal()).remove(evicted);
+                            queued--;
+                        }
+                        queues.get(priority.ordinal()).addLast(waiter);
+                        queued++;
+                        sink.onCancel(() -> cancel(waiter));
+                    }
+                }
+            }
+            if (evicted != null) {
+                evicted.sink.error(rejection("evicted", evicted.priority, expectedWait));
+            }
+            if (rejectedBecause != null) {
+                sink.error(rejection(rejectedBecause, priority, expectedWait));
+            } else if (waiter.slot != null) {
+                sink.success(waiter.slot);
+            }
+        });
+        // a waiting request is rejected once the expected response time no longer fits into its deadline
+        return Mono.defer(() -> slot.timeout(
+            Duration.ofNanos(Math.max(deadline - System.nanoTime() - (long) getResponseNanos(priority), 0)),
+            Mono.error(() -> rejection("deadline", priority, 0))
+        ));
+    }
+
+    /**
+     * Fails the given request once its deadline has passed, cancelling it and with it its upstream calls. A streamed
+     * request only fails if its deadline passes before its first element, as its response is committed then.
+     */
+    private <T> Flux<T> withDeadline(
+        final Flux<T> request,
+        final Slot slot,
+        final Priority priority,
+        final long deadline,
+        final boolean streamed
+    ) {
+        final Mono<Long> expiry = Mono.delay(Duration.ofNanos(Math.max(deadline - System.nanoTime(), 0)));
+        if (streamed) {
+            return request
+                .doOnNext(element -> slot.responded())
+                .timeout(expiry, element -> Mono.never(), Flux.error(() -> rejection("expired", priority, 0)));
+        }
+        final AtomicBoolean expired = new AtomicBoolean();
+        return request
+            .takeUntilOther(expiry.doOnNext(tick -> expired.set(true)))
+            .concatWith(Mono.defer(() -> expired.get()
+                ? Mono.error(rejection("expired", priority, 0))
+                : Mono.empty()));
+    }
+
+    private void cancel(final Waiter waiter) {
+        final Slot unused;
+        synchronized (this) {
+            if (queues.get(waiter.priority.ordinal()).remove(waiter)) {
+                queued--;
+                return;
+            }
+            unused = waiter.slot;
+        }
+        if (unused != null) {
+            // the slot was granted concurrently with the cancellation and will never be used
+            release(unused, false);
+        }
+    }
+
+    private void release(final Slot slot, final boolean measured) {
+        if (!slot.released.compareAndSet(false, true)) {
+            return;
+        }
+        final long now = System.nanoTime();
+        final List<Waiter> granted = new ArrayList<>();
+        final List<Waiter> expired = new ArrayList<>();
+        synchronized (this) {
+            final int priority = slot.priority.ordinal();
+            if (measured) {
+                serviceNanos[priority] = average(serviceNanos[priority], now - slot.startNanos);
+                responseNanos[priority] = average(responseNanos[priority], slot.respondedNanos(now) - slot.startNanos);
+            }
+            running[priority]--;
+            inFlight--;
+            grantQueued(now, granted, expired);
+        }
+        expired.forEach(waiter -> waiter.sink.error(rejection("deadline", waiter.priority, 0)));
+        granted.forEach(waiter -> waiter.sink.success(waiter.slot));
+    }
+
+    /**
+     * Must be called while holding the lock. Waiters are completed by the caller outside the lock.
+     */
+    private void grantQueued(final long now, final List<Waiter> granted, final List<Waiter> expired) {
+        for (final Deque<Waiter> queue : queues) {
+            while (inFlight < properties.getMaxInFlight() && !queue.isEmpty()) {
+                final Waiter waiter = queue.pollFirst();
+                queued--;
+                if (now + (long) responseNanos[waiter.priority.ordinal()] > waiter.deadline) {
+                    expired.add(waiter);
+                } else {
+                    waiter.slot = start(now, waiter.priority);
+                    granted.add(waiter);
+                }
+            }
+        }
+    }
+
+    /**
+     * Must be called while holding the lock.
+     */
+    private Slot start(final long now, final Priority priority) {
+        inFlight++;
+        running[priority.ordinal()]++;
+        return new Slot(now, priority);
+    }
+
+    /**
+     * Must be called while holding the lock.
+     *
+     * @return the latest waiter of the lowest priority below the given one, or {@code null} if there is none
+     */
+    private Waiter evictable(final Priority priority) {
+        for (int i = queues.size() - 1; i > priority.ordinal(); i--) {
+            final Waiter waiter = queues.get(i).peekLast();
+            if (waiter != null) {
+                return waiter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the expected wait of a request of the given priority arriving now, from the requests ahead of it and the
+     * expected service times of their priorities, with running requests weighted by the mean of theirs
+     */
+    private synchronized long expectedWait(final Priority priority) {
+        double runningNanos = 0;
+        for (int i = 0; i < running.length; i++) {
+            runningNanos += running[i] * serviceNanos[i];
+        }
+        final int slotsToFree = inFlight - properties.getMaxInFlight() + 1;
+        double ahead = inFlight == 0 ? 0 : slotsToFree * runningNanos / inFlight;
+        for (int i = 0; i <= priority.ordinal(); i++) {
+            ahead += queues.get(i).size() * serviceNanos[i];
+        }
+        return (long) (Math.max(ahead, 0) / properties.getMaxInFlight());
+    }
+
+    private synchronized double getResponseNanos(final Priority priority) {
+        return responseNanos[priority.ordinal()];
+    }
+
+    private static double average(final double average, final long duration) {
+        return average == 0 ? duration : average + SERVICE_TIME_WEIGHT * (duration - average);
+    }
+
+    private ServiceOverloadedException rejection(final String reason, final Priority priority, final long expectedWait) {
+        Counter.builder("repositories.admission.rejected")
+            .description("Requests rejected because they could not finish within their deadline")
+            .tag("reason", reason)
+            .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+            .register(meterRegistry)
+            .increment();
+        final long retryAfterSeconds = Math.max(TimeUnit.NANOSECONDS.toSeconds(expectedWait), 1);
+        return new ServiceOverloadedException(
+            "expired".equals(reason)
+                ? "Request could not be completed within its deadline"
+                : "Service is overloaded, request could not be completed within its deadline",
+            Duration.ofSeconds(retryAfterSeconds)
+        );
+    }
+
+    private static final class Slot {
+        private final long startNanos;
+        private final Priority priority;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile long firstElementNanos;
+
+        private Slot(final long startNanos, final Priority priority) {
+            this.startNanos = startNanos;
+            this.priority = priority;
+        }
+
+        private void responded() {
+            if (firstElementNanos == 0) {
+                firstElementNanos = System.nanoTime();
+            }
+        }
+
+        /**
+         * @return the time the first element of a streamed request was emitted, otherwise the given end of the request
+         */
+        private long respondedNanos(final long endNanos) {
+            return firstElementNanos == 0 ? endNanos : firstElementNanos;
+        }
+    }
+
+    private static final class Waiter {
+        private final MonoSink<Slot> sink;
+        private final Priority priority;
+        private final long deadline;
+        private Slot slot;
+
+        private Waiter(final MonoSink<Slot> sink, final Priority priority, final long deadline) {
+            this.sink = sink;
+            this.priority = priority;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.dhorbach.codingchallenge.concurrency;
+
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import reactor.core.publisher.Flux;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Central scheduler of upstream calls that keeps them within the GitHub rate limit.
+ * <p>
+ * The remaining quota is tracked from the {@code X-RateLimit-*} headers of every response. Each upstream call reserves
+ * one unit of the quota until its response arrives. When the quota runs low, low priority calls are rejected first so
+ * that high priority calls can still be served. After a throttled response, calls are rejected until the time given by
+ * {@code Retry-After} or {@code X-RateLimit-Reset} has passed.
+ * <p>
+ * Calls of a request run with a {@link Budget} ({@link #budgeted(Flux)}) are admitted or rejected as a unit: its first
+ * call reserves the estimated cost of the whole request, a moving average of the calls of previous budgeted requests,
+ * and is rejected unless all of it fits into the quota, the fan-out above the low priority reserve. Further calls draw
+ * from the budget without being checked again, so a request is not failed halfway through its fan-out because other
+ * requests used up the quota in the meantime. Calls beyond the estimate are reserved one by one again, units left
+ * unused are returned once the request terminates.
+ */
+public class GitHubRateLimiter {
+
+    public static final String PRIORITY_ATTRIBUTE = GitHubRateLimiter.class.getName() + ".priority";
+
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String RESET_HEADER = "X-RateLimit-Reset";
+
+    /**
+     * Weight of the latest request in the moving average of the calls per budgeted request.
+     */
+    private static final double ESTIMATE_WEIGHT = 0.1;
+
+    /**
+     * Priority of an upstream call.
+     */
+    public enum Priority {
+        /**
+         * Cheap calls every request depends on, such as repository lists.
+         */
+        HIGH,
+        /**
+         * Fan-out calls, such as branch fetches.
+         */
+        LOW
+    }
+
+    private final GitHubProperties.RateLimit properties;
+    private final Clock clock;
+
+    private long remaining = -1;
+    private Instant resetAt = Instant.MIN;
+    private Instant blockedUntil = Instant.MIN;
+    private int reserved;
+    private double estimatedCalls;
+
+    public GitHubRateLimiter(final GitHubProperties.RateLimit properties, final MeterRegistry meterRegistry, final Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        Gauge.builder("github.rate-limit.remaining", this, GitHubRateLimiter::getRemaining)
+            .description("Remaining GitHub quota as reported by the last response")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Reserves one unit of the quota for an upstream call.
+     *
+     * @param priority the priority of the call
+     * @return {@code null} if the call may proceed, otherwise the duration after which the quota is expected to be
+     * available again
+     */
+    public synchronized Duration tryReserve(final Priority priority) {
+        final Instant now = clock.instant();
+        if (now.isBefore(blockedUntil)) {
+            return Duration.between(now, blockedUntil);
+        }
+        if (!now.isBefore(resetAt)) {
+            // the rate limit window is over, the quota is unknown until the next response
+            remaining = -1;
+        }
+        if (remaining >= 0) {
+            final long available = remaining - reserved;
+            final long required = priority == Priority.LOW ? properties.getLowPriorityReserve() : 0;
+            if (available <= required) {
+                return Duration.between(now, resetAt);
+            }
+        }
+        reserved++;
+        return null;
+    }
+
+    /**
+     * Reserves one unit of the quota for an upstream call of the request the given budget belongs to. The first call of
+     * the request reserves the estimated cost of the whole request, further calls draw from it.
+     *
+     * @param priority the priority of the call
+     * @param budget   the budget of the request the call belongs to, or {@code null} to reserve for the call alone
+     * @return {@code null} if the call may proceed, otherwise the duration after which the quota is expected to be
+     * available again
+     */
+    public synchronized Duration tryReserve(final Priority priority, final Budget budget) {
+        if (budget == null) {
+            return tryReserve(priority);
+        }
+        budget.calls++;
+        if (budget.limiter == null) {
+            return reserve(budget, Math.max((int) Math.ceil(estimatedCalls), 1));
+        }
+        final Instant now = clock.instant();
+        if (now.isBefore(blockedUntil)) {
+            return Duration.between(now, blockedUntil);
+        }
+        if (budget.units > 0) {
+            budget.units--;
+            return null;
+        }
+        return tryReserve(priority);
+    }
+
+    /**
+     * Releases a reservation made by {@link #tryReserve(Priority)} once the call is complete.
+     */
+    public synchronized void release() {
+        reserved = Math.max(reserved - 1, 0);
+    }
+
+    /**
+     * Wraps the given request with a {@link Budget}, so that its upstream calls are admitted or rejected as a unit.
+     *
+     * @param request the request
+     * @return the request, with its budget in its context
+     */
+    public static <T> Flux<T> budgeted(final Flux<T> request) {
+        return Flux.defer(() -> {
+            final Budget budget = new Budget();
+            return request
+                .doFinally(signalType -> budget.close())
+                .contextWrite(context -> context.put(Budget.class, budget));
+        });
+    }
+
+    /**
+     * Reserves the given number of calls for a request, all of them or none, and takes the first of them for its first
+     * call.
+     *
+     * @return {@code null} if the request may proceed, otherwise the duration after which the quota is expected to be
+     * available again
+     */
+    private Duration reserve(final Budget budget, final int calls) {
+        final Instant now = clock.instant();
+        if (now.isBefore(blockedUntil)) {
+            return Duration.between(now, blockedUntil);
+        }
+        if (!now.isBefore(resetAt)) {
+            remaining = -1;
+        }
+        if (remaining >= 0) {
+            final long available = remaining - reserved;
+            final long fanOut = calls - 1;
+            final long required = fanOut == 0 ? 0 : fanOut + properties.getLowPriorityReserve();
+            if (available <= required) {
+                return Duration.between(now, resetAt);
+            }
+        }
+        reserved += calls;
+        budget.units = calls - 1;
+        budget.limiter = this;
+        return null;
+    }
+
+    /**
+     * Returns the units of the given budget its request did not use and learns the cost of the request.
+     */
+    private synchronized void close(final Budget budget) {
+        reserved = Math.max(reserved - budget.units, 0);
+        budget.units = 0;
+        estimatedCalls = estimatedCalls == 0
+            ? budget.calls : estimatedCalls + ESTIMATE_WEIGHT * (budget.calls - estimatedCalls);
+    }
+
+    /**
+     * Updates the tracked quota from the headers of an upstream response.
+     *
+     * @param status  the response status
+     * @param headers the response headers
+     * @return whether the response was rejected by the GitHub rate limit
+     */
+    public synchronized boolean update(final HttpStatusCode status, final HttpHeaders headers) {
+        final Instant now = clock.instant();
+        final Long remainingHeader = parseLong(headers.getFirst(REMAINING_HEADER));
+        final Long resetHeader = parseLong(headers.getFirst(RESET_HEADER));
+        if (remainingHeader != null && resetHeader != null) {
+            final Instant reset = Instant.ofEpochSecond(resetHeader);
+            // responses arrive out of order, within a window the lowest reported value is the most recent one
+            if (reset.isAfter(resetAt) || remaining < 0) {
+                remaining = remainingHeader;
+            } else {
+                remaining = Math.min(remaining, remainingHeader);
+            }
+            resetAt = reset.isAfter(resetAt) ? reset : resetAt;
+        }
+        final boolean throttled = status.value() == HttpStatus.TOO_MANY_REQUESTS.value()
+            || (status.value() == HttpStatus.FORBIDDEN.value()
+            && (Long.valueOf(0).equals(remainingHeader) || headers.containsKey(HttpHeaders.RETRY_AFTER)));
+        if (throttled) {
+            final Long retryAfter = parseLong(headers.getFirst(HttpHeaders.RETRY_AFTER));
+            final Instant until = retryAfter != null
+                ? now.plusSeconds(retryAfter)
+                : resetHeader != null ? Instant.ofEpochSecond(resetHeader) : now.plusSeconds(60);
+            blockedUntil = until.isAfter(blockedUntil) ? until : blockedUntil;
+        }
+        return throttled;
+    }
+
+    /**
+     * @return the duration after which rejected calls should be retried
+     */
+    public synchronized Duration getRetryAfter() {
+        final Instant now = clock.instant();
+        final Instant retryAt = blockedUntil.isAfter(now) ? blockedUntil : resetAt;
+        return retryAt.isAfter(now) ? Duration.between(now, retryAt) : Duration.ZERO;
+    }
+
+    public synchronized long getRemaining() {
+        return remaining;
+    }
+
+    /**
+     * Quota reserved for the upstream calls of a single request, see {@link #budgeted(Flux)}. Its units and calls are
+     * guarded by the lock of the limiter.
+     */
+    public static final class Budget {
+        /**
+         * The limiter the budget was reserved with, {@code null} until the first call of the request was admitted.
+         */
+        private volatile GitHubRateLimiter limiter;
+        private int units;
+        private int calls;
+
+        private Budget() {
+        }
+
+        private void close() {
+            final GitHubRateLimiter reservedBy = limiter;
+            if (reservedBy != null) {
+                reservedBy.close(this);
+            }
+        }
+    }
+
+    private static Long parseLong(final String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.dhorbach.codingchallenge.concurrency;
+
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Hedging of upstream calls against tail latency. A call still running after a percentile of recent latencies is
+ * duplicated, and whichever of the two signals first wins while the other one is cancelled.
+ * <p>
+ * Every call deposits the budget ratio into a token bucket and every duplicate takes one token, so duplicates never
+ * exceed the budget ratio of calls, apart from a small burst. The delay is recomputed from a window of recent latencies
+ * every tenth of the window. Only attempts that answered with a value are recorded: a cancelled attempt did not finish,
+ * so the time it ran is not a latency and would only pull the percentile towards the delay.
+ * <p>
+ * Attempts can be admitted by an operator such as the {@link AdaptiveConcurrencyLimiter}. Latencies and the delay are
+ * then measured from the admission of an attempt, so local queueing is neither recorded nor hedged.
+ */
+public class RequestHedger {
+
+    /**
+     * Maximum number of duplicates that can be sent in a burst after a quiet period.
+     */
+    private static final double MAX_TOKENS = 10;
+
+    private final GitHubProperties.Hedging properties;
+    private final long[] latencies;
+    private final int recomputeInterval;
+    private int recorded;
+    private int sinceRecompute;
+    private double tokens;
+    private volatile long delayNanos = -1;
+
+    private final Counter issued;
+    private final Counter won;
+    private final Counter rejected;
+
+    public RequestHedger(final GitHubProperties.Hedging properties, final MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.latencies = new long[Math.max(properties.getWindow(), 1)];
+        this.recomputeInterval = Math.max(latencies.length / 10, 1);
+        this.issued = Counter.builder("github.hedges.issued")
+            .description("Duplicates sent for upstream calls slower than the hedging delay")
+            .register(meterRegistry);
+        this.won = Counter.builder("github.hedges.won")
+            .description("Duplicates that answered before the call they duplicated")
+            .register(meterRegistry);
+        this.rejected = Counter.builder("github.hedges.rejected")
+            .description("Duplicates not sent because the hedging budget was exhausted")
+            .register(meterRegistry);
+        Gauge.builder("github.hedges.delay", this, hedger -> Math.max(hedger.delayNanos, 0) / 1_000_000.0)
+            .description("Time after which a running upstream call is duplicated")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Subscribes to a call and, if it is still running after the hedging delay and the budget allows it, to a
+     * duplicate of it. Without enough recorded latencies, the call is never duplicated.
+     *
+     * @param call supplier of the upstream call, invoked once per attempt
+     * @return a mono emitting the first signal of the call or its duplicate
+     */
+    public <T> Mono<T> hedge(final Supplier<Mono<T>> call) {
+        return hedge(call, UnaryOperator.identity());
+    }
+
+    /**
+     * Like {@link #hedge(Supplier)}, but every attempt is admitted by the given operator first. The hedging delay
+     * starts once the call is admitted, and the latency of an attempt is taken from its admission.
+     *
+     * @param call      supplier of the upstream call, invoked once per admitted attempt
+     * @param admission operator admitting an attempt, for example {@link AdaptiveConcurrencyLimiter#limit}
+     * @return a mono emitting the first signal of the call or its duplicate
+     */
+    public <T> Mono<T> hedge(final Supplier<Mono<T>> call, final UnaryOperator<Mono<T>> admission) {
+        if (!properties.isEnabled()) {
+            return admission.apply(Mono.defer(call));
+        }
+        return Mono.defer(() -> {
+            deposit();
+            final Sinks.Empty<Void> admitted = Sinks.empty();
+            final Mono<T> primary = admission.apply(recorded(call, admitted));
+            final long delay = delayNanos;
+            if (delay < 0) {
+                return primary;
+            }
+            final Mono<T> duplicate = admitted.asMono()
+                .then(Mono.delay(Duration.ofNanos(delay)))
+                .flatMap(tick -> {
+                    if (!withdraw()) {
+                        rejected.increment();
+                        return Mono.never();
+                    }
+                    issued.increment();
+                    return admission.apply(recorded(call, null)).doOnSuccess(value -> won.increment());
+                });
+            return Mono.firstWithSignal(primary, duplicate);
+        });
+    }
+
+    /**
+     * @return the current hedging delay, or {@code null} if not enough latencies are recorded yet
+     */
+    public Duration getDelay() {
+        final long delay = delayNanos;
+        return delay < 0 ? null : Duration.ofNanos(delay);
+    }
+
+    /**
+     * Records the latency of an attempt once it answers with a value. Failed attempts are not recorded, as errors often
+     * return faster than responses, and neither are cancelled ones.
+     *
+     * @param admitted completed once the attempt is admitted, {@code null} for duplicates
+     */
+    private <T> Mono<T> recorded(final Supplier<Mono<T>> call, final Sinks.Empty<Void> admitted) {
+        return Mono.defer(() -> {
+            if (admitted != null) {
+                admitted.tryEmitEmpty();
+            }
+            final long start = System.nanoTime();
+            return call.get().doOnNext(value -> record(System.nanoTime() - start));
+        });
+    }
+
+    private synchronized void deposit() {
+        tokens = Math.min(tokens + properties.getBudget(), MAX_TOKENS);
+    }
+
+    private synchronized boolean withdraw() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    private void record(final long latencyNanos) {
+        final long[] snapshot;
+        synchronized (this) {
+            latencies[recorded % latencies.length] = latencyNanos;
+            recorded = recorded == Integer.MAX_VALUE ? latencies.length : recorded + 1;
+            if (++sinceRecompute < recomputeInterval || recorded < properties.getMinSamples()) {
+                return;
+            }
+            sinceRecompute = 0;
+            snapshot = Arrays.copyOf(latencies, Math.min(recorded, latencies.length));
+        }
+        // sorting outside the lock, concurrent recomputations only race on the volatile write of the result
+        Arrays.sort(snapshot);
+        final int index = (int) Math.min(Math.ceil(properties.getPercentile() * snapshot.length) - 1, snapshot.length - 1);
+        delayNanos = Math.max(snapshot[Math.max(index, 0)], TimeUnit.NANOSECONDS.convert(properties.getMinDelay()));
+    }
+}
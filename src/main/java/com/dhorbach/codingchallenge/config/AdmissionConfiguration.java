@@ -0,0 +1,17 @@
+package com.dhorbach.codingchallenge.config;
+
+import com.dhorbach.codingchallenge.concurrency.AdmissionQueue;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfiguration {
+
+    @Bean
+    public AdmissionQueue admissionQueue(final AdmissionProperties admissionProperties, final MeterRegistry meterRegistry) {
+        return new AdmissionQueue(admissionProperties, meterRegistry);
+    }
+}
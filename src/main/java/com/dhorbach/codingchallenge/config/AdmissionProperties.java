@@ -0,0 +1,33 @@
+package com.dhorbach.codingchallenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties of the admission control of requests for repositories.
+ */
+@Data
+@ConfigurationProperties(prefix = "repositories.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+    /**
+     * Maximum number of requests running at the same time.
+     */
+    private int maxInFlight = 64;
+    /**
+     * Maximum number of requests waiting for admission, further requests are rejected.
+     */
+    private int maxQueued = 256;
+    /**
+     * Deadline of requests without an {@code X-Request-Timeout} header, below the 29 seconds after which API Gateway
+     * gives up on a request.
+     */
+    private Duration defaultTimeout = Duration.ofSeconds(25);
+    /**
+     * Maximum deadline a request can ask for with the {@code X-Request-Timeout} header.
+     */
+    private Duration maxTimeout = Duration.ofSeconds(25);
+}
@@ -0,0 +1,9 @@
+package com.dhorbach.codingchallenge.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(BatchProperties.class)
+public class BatchConfiguration {
+}
@@ -0,0 +1,22 @@
+package com.dhorbach.codingchallenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties of batch requests for repositories of many usernames.
+ */
+@Data
+@ConfigurationProperties(prefix = "repositories.batch")
+public class BatchProperties {
+
+    /**
+     * Maximum number of usernames in a single batch request.
+     */
+    private int maxUsernames = 1_000;
+    /**
+     * Number of usernames of a batch whose repositories are retrieved concurrently. Branch fetches of all usernames
+     * additionally share the adaptive concurrency limit of upstream calls.
+     */
+    private int concurrency = 8;
+}
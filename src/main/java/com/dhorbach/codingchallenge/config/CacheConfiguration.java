@@ -0,0 +1,70 @@
+package com.dhorbach.codingchallenge.config;
+
+import com.dhorbach.codingchallenge.cache.NegativeCache;
+import com.dhorbach.codingchallenge.cache.RepositoryCache;
+import com.dhorbach.codingchallenge.cache.RepositoryStore;
+import com.dhorbach.codingchallenge.filters.ETagCacheExchangeFilterFunction;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(RepositoryCacheProperties.class)
+public class CacheConfiguration {
+
+    @Bean
+    public RepositoryCache repositoryCache(
+        final RepositoryCacheProperties repositoryCacheProperties,
+        final MeterRegistry meterRegistry,
+        final ObjectProvider<RepositoryStore> repositoryStore
+    ) {
+        return new RepositoryCache(
+            repositoryCacheProperties, meterRegistry, Clock.systemUTC(), repositoryStore.getIfAvailable()
+        );
+    }
+
+    @Bean
+    public NegativeCache negativeCache(
+        final RepositoryCacheProperties repositoryCacheProperties,
+        final MeterRegistry meterRegistry
+    ) {
+        return new NegativeCache(repositoryCacheProperties.getNegative(), meterRegistry, Clock.systemUTC());
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "repositories.cache.persistence.enabled", havingValue = "true")
+    public RepositoryStore repositoryStore(
+        final RepositoryCacheProperties repositoryCacheProperties,
+        final MeterRegistry meterRegistry
+    ) {
+        return new RepositoryStore(repositoryCacheProperties.getPersistence(), meterRegistry);
+    }
+
+    /**
+     * Restores the caches from the {@link RepositoryStore} in the background once the application has started, reading
+     * no more entries than the caches hold.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "repositories.cache.persistence.enabled", havingValue = "true")
+    public ApplicationRunner repositoryStoreRestorer(
+        final RepositoryStore repositoryStore,
+        final RepositoryCache repositoryCache,
+        final RepositoryCacheProperties repositoryCacheProperties,
+        final ObjectProvider<ETagCacheExchangeFilterFunction> eTagCacheExchangeFilterFunction,
+        final GitHubProperties gitHubProperties
+    ) {
+        final ETagCacheExchangeFilterFunction responses = eTagCacheExchangeFilterFunction.getIfAvailable();
+        return args -> repositoryStore.restore(
+            repositoryCache::restore,
+            repositoryCacheProperties.getMaxEntries(),
+            responses != null ? responses::restore : (uri, eTag, headers, body) -> { },
+            responses != null ? gitHubProperties.getEtagCache().getMaxEntries() : 0
+        );
+    }
+}
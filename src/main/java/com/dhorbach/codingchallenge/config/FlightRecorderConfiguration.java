@@ -0,0 +1,24 @@
+package com.dhorbach.codingchallenge.config;
+
+import com.dhorbach.codingchallenge.filters.FlightRecorderExchangeFilterFunction;
+import com.dhorbach.codingchallenge.recording.FlightRecorder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(FlightRecorderProperties.class)
+public class FlightRecorderConfiguration {
+
+    @Bean
+    public FlightRecorder flightRecorder(final FlightRecorderProperties flightRecorderProperties) {
+        return new FlightRecorder(flightRecorderProperties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "repositories.flight-recorder.enabled", havingValue = "true", matchIfMissing = true)
+    public FlightRecorderExchangeFilterFunction flightRecorderExchangeFilterFunction() {
+        return new FlightRecorderExchangeFilterFunction();
+    }
+}
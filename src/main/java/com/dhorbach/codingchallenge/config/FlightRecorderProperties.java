@@ -0,0 +1,28 @@
+package com.dhorbach.codingchallenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties of the recording of requests and their GitHub calls.
+ */
+@Data
+@ConfigurationProperties(prefix = "repositories.flight-recorder")
+public class FlightRecorderProperties {
+
+    private boolean enabled = true;
+    /**
+     * Number of the slowest recent requests kept with their timelines.
+     */
+    private int slowRequests = 50;
+    /**
+     * Time after which a request no longer counts as recent.
+     */
+    private Duration window = Duration.ofMinutes(15);
+    /**
+     * Maximum number of GitHub calls kept with their timelines per request, further calls are only counted.
+     */
+    private int maxCallsPerRequest = 1000;
+}
@@ -0,0 +1,216 @@
+package com.dhorbach.codingchallenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties of the upstream GitHub API.
+ */
+@Data
+@ConfigurationProperties(prefix = "github")
+public class GitHubProperties {
+
+    private String baseUrl = "https://api.github.com";
+    /**
+     * Token used to authenticate against GitHub, required by the GraphQL backend.
+     */
+    private String token;
+    private Backend backend = Backend.REST;
+    private Pagination pagination = new Pagination();
+    private GraphQl graphql = new GraphQl();
+    private ETagCache etagCache = new ETagCache();
+    private Concurrency concurrency = new Concurrency();
+    private Hedging hedging = new Hedging();
+    private RateLimit rateLimit = new RateLimit();
+    private Client client = new Client();
+    private Webhook webhook = new Webhook();
+
+    /**
+     * Upstream implementation of {@link com.dhorbach.codingchallenge.services.GitHubService}.
+     */
+    public enum Backend {
+        /**
+         * One call for the repository list and one call per repository for its branches.
+         */
+        REST,
+        /**
+         * Repositories with their branches in batched, cursor-paginated GraphQL queries.
+         */
+        GRAPHQL
+    }
+
+    /**
+     * Pagination settings used for GitHub list endpoints.
+     */
+    @Data
+    public static class Pagination {
+        /**
+         * Number of items requested per page, GitHub allows at most 100.
+         */
+        private int pageSize = 100;
+        /**
+         * Maximum number of pages fetched concurrently after the first page.
+         */
+        private int concurrency = 4;
+    }
+
+    /**
+     * Settings of the GraphQL backend.
+     */
+    @Data
+    public static class GraphQl {
+        private String path = "/graphql";
+        /**
+         * Number of repositories requested per query.
+         */
+        private int repositoryPageSize = 50;
+        /**
+         * Number of branches requested per repository and query.
+         */
+        private int branchPageSize = 100;
+    }
+
+    /**
+     * Settings of the conditional-request cache for GitHub responses.
+     */
+    @Data
+    public static class ETagCache {
+        private boolean enabled = true;
+        /**
+         * Maximum number of cached responses, least recently used entries are evicted first.
+         */
+        private int maxEntries = 10_000;
+        /**
+         * Responses with bigger bodies are not cached.
+         */
+        private int maxBodySize = 1024 * 1024;
+        /**
+         * Maximum size of all cached bodies in bytes, least recently used entries are evicted first.
+         */
+        private long maxTotalSize = 64L * 1024 * 1024;
+    }
+
+    /**
+     * Settings of the adaptive (AIMD) concurrency limit shared by all branch fetches of the process.
+     */
+    @Data
+    public static class Concurrency {
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        /**
+         * Factor the limit is multiplied with when GitHub throttles or responds too slowly.
+         */
+        private double backoffRatio = 0.7;
+        /**
+         * Calls slower than this are treated as a sign of overload.
+         */
+        private Duration latencyThreshold = Duration.ofSeconds(2);
+    }
+
+    /**
+     * Settings of hedged branch fetches: a fetch still running after the given percentile of recent latencies is
+     * duplicated and the first response wins.
+     */
+    @Data
+    public static class Hedging {
+        private boolean enabled = false;
+        /**
+         * Percentile of recent latencies after which a duplicate is sent.
+         */
+        private double percentile = 0.95;
+        /**
+         * Duplicates are never sent earlier than this, even if recent latencies are lower.
+         */
+        private Duration minDelay = Duration.ofMillis(50);
+        /**
+         * Maximum ratio of duplicates to fetches, for example 0.05 for at most 5% more requests.
+         */
+        private double budget = 0.05;
+        /**
+         * Number of recent latencies the percentile is computed from.
+         */
+        private int window = 1000;
+        /**
+         * Number of latencies recorded before the first duplicate is sent.
+         */
+        private int minSamples = 100;
+    }
+
+    /**
+     * Settings of the receiver of GitHub webhook events, which update cached repositories in place.
+     */
+    @Data
+    public static class Webhook {
+        private boolean enabled = false;
+        /**
+         * Secret of the webhook, payloads are only accepted with a valid HMAC-SHA256 signature of it.
+         */
+        private String secret;
+        /**
+         * Maximum size of a payload, GitHub caps payloads at 25 MB.
+         */
+        private DataSize maxPayloadSize = DataSize.ofMegabytes(25);
+    }
+
+    /**
+     * Settings of the scheduler that keeps upstream calls within the GitHub rate limit.
+     */
+    @Data
+    public static class RateLimit {
+        private boolean enabled = true;
+        /**
+         * Remaining requests kept for high priority calls, such as repository lists. Low priority calls, such as
+         * branch fetches, are rejected once the remaining quota drops to this value.
+         */
+        private int lowPriorityReserve = 100;
+    }
+
+    /**
+     * Settings of the HTTP client and its connection pool.
+     */
+    @Data
+    public static class Client {
+        /**
+         * Maximum number of connections per remote address.
+         */
+        private int maxConnections = 100;
+        /**
+         * Maximum number of requests waiting for a connection, further requests fail immediately.
+         */
+        private int pendingAcquireMaxCount = 1000;
+        /**
+         * Maximum time a request waits for a connection from the pool.
+         */
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        /**
+         * Connections idle for longer are closed.
+         */
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        /**
+         * Connections older than this are closed once released, so DNS changes are picked up.
+         */
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        /**
+         * Interval of the background eviction of idle and expired connections.
+         */
+        private Duration evictionInterval = Duration.ofSeconds(30);
+        /**
+         * Whether to request gzip compressed responses.
+         */
+        private boolean compression = true;
+        /**
+         * Whether to negotiate HTTP/2 on TLS connections, falling back to HTTP/1.1.
+         */
+        private boolean http2 = true;
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration writeTimeout = Duration.ofSeconds(5);
+        /**
+         * Maximum time between two reads of a response, including the wait for its first byte.
+         */
+        private Duration responseTimeout = Duration.ofSeconds(10);
+    }
+}
@@ -0,0 +1,83 @@
+package com.dhorbach.codingchallenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration properties of the cache of assembled repositories.
+ */
+@Data
+@ConfigurationProperties(prefix = "repositories.cache")
+public class RepositoryCacheProperties {
+
+    private boolean enabled = true;
+    /**
+     * Time after which a cached entry is considered stale.
+     */
+    private Duration ttl = Duration.ofMinutes(1);
+    /**
+     * Time after expiry of the ttl during which a stale entry is still served while it is refreshed in the background.
+     */
+    private Duration staleWhileRevalidate = Duration.ofMinutes(5);
+    /**
+     * Maximum number of cached usernames, least recently used entries are evicted first.
+     */
+    private int maxEntries = 1_000;
+    private Persistence persistence = new Persistence();
+    private Negative negative = new Negative();
+
+    /**
+     * Persistence of cached repositories and GitHub responses cached by their ETag in an append-only log on disk, which
+     * is restored in the background after startup.
+     */
+    @Data
+    public static class Persistence {
+
+        private boolean enabled = false;
+        /**
+         * Directory of the segment files.
+         */
+        private Path directory = Path.of("cache");
+        /**
+         * Size after which a new segment file is started, at most 1GB.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+        /**
+         * Interval of checking whether the log needs to be compacted.
+         */
+        private Duration compactionInterval = Duration.ofMinutes(10);
+        /**
+         * Fraction of superseded and deleted records in the log above which it is compacted.
+         */
+        private double compactionThreshold = 0.5;
+        /**
+         * Maximum number of keys with a write waiting for the disk, writes of further keys are dropped.
+         */
+        private int maxPendingWrites = 1_000;
+    }
+
+    /**
+     * Cache of usernames GitHub answered with {@code 404 Not Found}.
+     */
+    @Data
+    public static class Negative {
+
+        private boolean enabled = true;
+        /**
+         * Time after which a cached unknown username is requested from GitHub again.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+        /**
+         * Maximum number of cached usernames, the oldest entries are evicted first.
+         */
+        private int maxEntries = 100_000;
+        /**
+         * False positive probability of the Bloom filter of a generation once it holds half of the maximum entries.
+         */
+        private double falsePositiveProbability = 0.01;
+    }
+}
@@ -0,0 +1,33 @@
+package com.dhorbach.codingchallenge.config;
+
+import com.dhorbach.codingchallenge.CodingChallengeApplication;
+import models.BatchRequest;
+import models.BatchResultDTO;
+import models.BranchDTO;
+import models.FailureResponse;
+import models.RepositoryDTO;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Startup of the application. With {@code spring.main.lazy-initialization}, beans of the framework and of libraries
+ * such as springdoc are only created once they are used, while the beans of the application stay eager, so the request
+ * path is ready before the first request arrives.
+ * <p>
+ * The API models are serialized by reflection, which a native image only supports for types registered at build time.
+ */
+@Configuration
+@RegisterReflectionForBinding({
+    RepositoryDTO.class, BranchDTO.class, BatchRequest.class, BatchResultDTO.class, FailureResponse.class
+})
+public class StartupConfiguration {
+
+    @Bean
+    public static LazyInitializationExcludeFilter applicationLazyInitializationExcludeFilter() {
+        final String applicationPackage = CodingChallengeApplication.class.getPackageName();
+        return (beanName, beanDefinition, beanType) ->
+            beanType != null && beanType.getPackageName().startsWith(applicationPackage);
+    }
+}
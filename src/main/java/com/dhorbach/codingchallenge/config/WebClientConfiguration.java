@@ -1,21 +1,163 @@
 package com.dhorbach.codingchallenge.config;
 
+import com.dhorbach.codingchallenge.cache.RepositoryStore;
+import com.dhorbach.codingchallenge.codecs.StreamingJsonDecoder;
+import com.dhorbach.codingchallenge.concurrency.AdaptiveConcurrencyLimiter;
+import com.dhorbach.codingchallenge.concurrency.RequestHedger;
+import com.dhorbach.codingchallenge.concurrency.GitHubRateLimiter;
+import com.dhorbach.codingchallenge.filters.ETagCacheExchangeFilterFunction;
+import com.dhorbach.codingchallenge.filters.FlightRecorderExchangeFilterFunction;
+import com.dhorbach.codingchallenge.filters.HedgingExchangeFilterFunction;
+import com.dhorbach.codingchallenge.filters.MetricsExchangeFilterFunction;
+import com.dhorbach.codingchallenge.filters.RateLimitExchangeFilterFunction;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
+@EnableConfigurationProperties(GitHubProperties.class)
 public class WebClientConfiguration {
 
     @Bean
-    public WebClient webClient() {
-        return WebClient.builder()
-            .baseUrl("https://api.github.com")
+    public WebClient webClient(
+        final GitHubProperties gitHubProperties,
+        final ClientHttpConnector gitHubClientHttpConnector,
+        final ObjectProvider<HedgingExchangeFilterFunction> hedgingExchangeFilterFunction,
+        final ObjectProvider<RateLimitExchangeFilterFunction> rateLimitExchangeFilterFunction,
+        final ObjectProvider<ETagCacheExchangeFilterFunction> eTagCacheExchangeFilterFunction,
+        final ObjectProvider<MetricsExchangeFilterFunction> metricsExchangeFilterFunction,
+        final ObjectProvider<FlightRecorderExchangeFilterFunction> flightRecorderExchangeFilterFunction
+    ) {
+        final WebClient.Builder builder = WebClient.builder()
+            .clientConnector(gitHubClientHttpConnector)
+            .baseUrl(gitHubProperties.getBaseUrl())
             .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
             .defaultHeader("X-GitHub-Api-Version", "2022-11-28")
+            .codecs(configurer -> {
+                configurer.customCodecs().register(StreamingJsonDecoder.gitHubRepositories());
+                configurer.customCodecs().register(StreamingJsonDecoder.gitHubBranches());
+            });
+        if (StringUtils.hasText(gitHubProperties.getToken())) {
+            builder.defaultHeaders(headers -> headers.setBearerAuth(gitHubProperties.getToken()));
+        }
+        hedgingExchangeFilterFunction.ifAvailable(builder::filter);
+        rateLimitExchangeFilterFunction.ifAvailable(builder::filter);
+        eTagCacheExchangeFilterFunction.ifAvailable(builder::filter);
+        metricsExchangeFilterFunction.ifAvailable(builder::filter);
+        flightRecorderExchangeFilterFunction.ifAvailable(builder::filter);
+        return builder.build();
+    }
+
+    /**
+     * Connection pool of the GitHub client. Pool metrics ({@code reactor.netty.connection.provider.*}) are published to
+     * the global Micrometer registry, which includes the registries of the application.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider gitHubConnectionProvider(final GitHubProperties gitHubProperties) {
+        final GitHubProperties.Client client = gitHubProperties.getClient();
+        return ConnectionProvider.builder("github")
+            .maxConnections(client.getMaxConnections())
+            .pendingAcquireMaxCount(client.getPendingAcquireMaxCount())
+            .pendingAcquireTimeout(client.getPendingAcquireTimeout())
+            .maxIdleTime(client.getMaxIdleTime())
+            .maxLifeTime(client.getMaxLifeTime())
+            .evictInBackground(client.getEvictionInterval())
+            .metrics(true)
             .build();
     }
 
-}
\ No newline at end of file
+    @Bean
+    public ClientHttpConnector gitHubClientHttpConnector(
+        final GitHubProperties gitHubProperties,
+        final ConnectionProvider gitHubConnectionProvider,
+        final ObjectProvider<FlightRecorderExchangeFilterFunction> flightRecorderExchangeFilterFunction
+    ) {
+        final GitHubProperties.Client client = gitHubProperties.getClient();
+        HttpClient httpClient = HttpClient.create(gitHubConnectionProvider)
+            .compress(client.isCompression())
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) client.getConnectTimeout().toMillis())
+            .responseTimeout(client.getResponseTimeout())
+            .doOnConnected(connection -> connection.addHandlerLast(
+                new WriteTimeoutHandler(client.getWriteTimeout().toMillis(), TimeUnit.MILLISECONDS)
+            ));
+        if (client.isHttp2() && gitHubProperties.getBaseUrl().startsWith("https:")) {
+            // HTTP/2 is negotiated with ALPN, servers without HTTP/2 support are still talked to with HTTP/1.1
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+        if (flightRecorderExchangeFilterFunction.getIfAvailable() != null) {
+            httpClient = FlightRecorderExchangeFilterFunction.instrument(httpClient);
+        }
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "github.etag-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public ETagCacheExchangeFilterFunction eTagCacheExchangeFilterFunction(
+        final GitHubProperties gitHubProperties,
+        final ObjectProvider<RepositoryStore> repositoryStore
+    ) {
+        final GitHubProperties.ETagCache eTagCache = gitHubProperties.getEtagCache();
+        return new ETagCacheExchangeFilterFunction(
+            eTagCache.getMaxEntries(),
+            eTagCache.getMaxBodySize(),
+            eTagCache.getMaxTotalSize(),
+            repositoryStore.getIfAvailable()
+        );
+    }
+
+    @Bean
+    public MetricsExchangeFilterFunction metricsExchangeFilterFunction(final MeterRegistry meterRegistry) {
+        return new MetricsExchangeFilterFunction(meterRegistry);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(
+        final GitHubProperties gitHubProperties,
+        final MeterRegistry meterRegistry
+    ) {
+        return new AdaptiveConcurrencyLimiter(gitHubProperties.getConcurrency(), meterRegistry);
+    }
+
+    @Bean
+    public RequestHedger requestHedger(final GitHubProperties gitHubProperties, final MeterRegistry meterRegistry) {
+        return new RequestHedger(gitHubProperties.getHedging(), meterRegistry);
+    }
+
+    @Bean
+    public HedgingExchangeFilterFunction hedgingExchangeFilterFunction(
+        final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter,
+        final RequestHedger requestHedger
+    ) {
+        return new HedgingExchangeFilterFunction(adaptiveConcurrencyLimiter, requestHedger);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "github.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+    public GitHubRateLimiter gitHubRateLimiter(final GitHubProperties gitHubProperties, final MeterRegistry meterRegistry) {
+        return new GitHubRateLimiter(gitHubProperties.getRateLimit(), meterRegistry, Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "github.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+    public RateLimitExchangeFilterFunction rateLimitExchangeFilterFunction(final GitHubRateLimiter gitHubRateLimiter) {
+        return new RateLimitExchangeFilterFunction(gitHubRateLimiter);
+    }
+
+}
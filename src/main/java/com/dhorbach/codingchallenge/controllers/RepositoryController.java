@@ -1,26 +1,236 @@
 package com.dhorbach.codingchallenge.controllers;
 
 import api.RepositoryControllerApi;
+import com.dhorbach.codingchallenge.concurrency.AdmissionQueue;
+import com.dhorbach.codingchallenge.config.AdmissionProperties;
+import com.dhorbach.codingchallenge.config.BatchProperties;
+import com.dhorbach.codingchallenge.mappers.RepositoryMapper;
 import com.dhorbach.codingchallenge.models.Repository;
+import com.dhorbach.codingchallenge.models.RepositoryQuery;
+import com.dhorbach.codingchallenge.recording.FlightRecorder;
 import com.dhorbach.codingchallenge.services.RepositoryService;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import models.BatchRequest;
+import models.BatchResultDTO;
 import models.RepositoryDTO;
-import org.modelmapper.ModelMapper;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
-@RequiredArgsConstructor
 public class RepositoryController implements RepositoryControllerApi {
+    /**
+     * Header with the number of milliseconds within which the client expects a response.
+     */
+    static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout";
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final List<MediaType> STREAMING_MEDIA_TYPES =
+        List.of(MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM);
+
     private final RepositoryService repositoryService;
-    private final ModelMapper modelMapper;
+    private final RepositoryMapper repositoryMapper;
+    private final MeterRegistry meterRegistry;
+    private final BatchProperties batchProperties;
+    private final ObjectMapper objectMapper;
+    private final AdmissionQueue admissionQueue;
+    private final AdmissionProperties admissionProperties;
+    private final FlightRecorder flightRecorder;
+
+    public RepositoryController(
+        final RepositoryService repositoryService,
+        final RepositoryMapper repositoryMapper,
+        final MeterRegistry meterRegistry,
+        final BatchProperties batchProperties,
+        final ObjectMapper objectMapper,
+        final AdmissionQueue admissionQueue,
+        final AdmissionProperties admissionProperties,
+        final FlightRecorder flightRecorder
+    ) {
+        this.repositoryService = repositoryService;
+        this.repositoryMapper = repositoryMapper;
+        this.meterRegistry = meterRegistry;
+        this.batchProperties = batchProperties;
+        this.objectMapper = objectMapper;
+        this.admissionQueue = admissionQueue;
+        this.admissionProperties = admissionProperties;
+        this.flightRecorder = flightRecorder;
+    }
 
     @Override
-    public Mono<ResponseEntity<Flux<RepositoryDTO>>> getRepositoriesListByUsername(String username, ServerWebExchange exchange) {
-        final Flux<Repository> repositories = repositoryService.getRepositories(username);
-        return Mono.just(ResponseEntity.ok(repositories.map(repository -> modelMapper.map(repository, RepositoryDTO.class))));
+    public Mono<ResponseEntity<Flux<RepositoryDTO>>> getRepositoriesListByUsername(
+        String username,
+        Boolean ordered,
+        Boolean includeBranches,
+        Integer maxBranches,
+        String namePrefix,
+        Integer page,
+        Integer size,
+        Boolean streamBranches,
+        ServerWebExchange exchange
+    ) {
+        if (maxBranches != null && maxBranches < 1) {
+            return Mono.error(new ServerWebInputException("maxBranches must be at least 1"));
+        }
+        if (page != null && page < 1) {
+            return Mono.error(new ServerWebInputException("page must be at least 1"));
+        }
+        if (size != null && (size < 1 || size > MAX_PAGE_SIZE)) {
+            return Mono.error(new ServerWebInputException(
+                String.format("size must be between 1 and %d", MAX_PAGE_SIZE)
+            ));
+        }
+        final RepositoryQuery query = RepositoryQuery.builder()
+            .includeBranches(!Boolean.FALSE.equals(includeBranches))
+            .maxBranches(maxBranches)
+            .namePrefix(namePrefix == null || namePrefix.isEmpty() ? null : namePrefix)
+            .page(page == null ? 1 : page)
+            .size(size)
+            .build();
+        final Duration timeout = timeout(exchange);
+        final AdmissionQueue.Priority priority =
+            repositoryService.isCached(username) ? AdmissionQueue.Priority.HIGH : AdmissionQueue.Priority.NORMAL;
+        if (Boolean.TRUE.equals(streamBranches) && !isStreaming(exchange)) {
+            // the generated API only knows complete DTOs, so branches streamed into their repository objects are
+            // written directly; nothing is written before the first repository, so errors still reach the handler
+            final ServerHttpResponse response = exchange.getResponse();
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            final RepositoryJsonWriter writer =
+                new RepositoryJsonWriter(repositoryMapper, objectMapper, response.bufferFactory());
+            return response
+                .writeWith(timed("stream", admit(
+                    "stream", username, priority, timeout, true,
+                    () -> writer.write(repositoryService.streamRepositories(username, query))
+                )))
+                .then(Mono.empty());
+        }
+        // a JSON array is only written once all repositories are complete, so it is always in upstream order, which
+        // keeps identical repositories at an identical body and ETag whatever order their branches arrived in
+        final boolean streaming = isStreaming(exchange);
+        final Flux<Repository> repositories = timed("single", admit(
+            "single", username, priority, timeout, streaming,
+            () -> repositoryService.getRepositories(username, !streaming || Boolean.TRUE.equals(ordered), query)
+        ));
+        if (streaming) {
+            return Mono.just(ResponseEntity.ok(repositories.map(repositoryMapper::toRepositoryDto)));
+        }
+        // the JSON array is only written once all repositories are complete anyway, so collecting them first costs no
+        // latency and lets conditional requests be answered with 304 before any repository is serialized
+        return repositories.collectList().map(list -> ResponseEntity.ok()
+            .eTag(RepositoryETags.of(list))
+            .body(Flux.fromIterable(list).map(repositoryMapper::toRepositoryDto)));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<BatchResultDTO>>> getRepositoriesBatch(
+        Mono<BatchRequest> batchRequest,
+        ServerWebExchange exchange
+    ) {
+        return batchRequest
+            .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Usernames are missing")))
+            .map(request -> {
+                final List<String> usernames = request.getUsernames();
+                if (usernames == null || usernames.isEmpty() || usernames.size() > batchProperties.getMaxUsernames()) {
+                    throw new ServerWebInputException(
+                        String.format("Between 1 and %d usernames are expected", batchProperties.getMaxUsernames())
+                    );
+                }
+                if (usernames.stream().anyMatch(username -> username == null || username.isBlank())) {
+                    throw new ServerWebInputException("Usernames must not be blank");
+                }
+                final Flux<BatchResultDTO> results = admit(
+                    "batch", null, AdmissionQueue.Priority.LOW, timeout(exchange), true,
+                    () -> repositoryService.getRepositories(usernames, batchProperties.getConcurrency())
+                ).map(repositoryMapper::toBatchResultDto);
+                return ResponseEntity.ok(timed("batch", results));
+            });
+    }
+
+    /**
+     * Admits the given request through the admission queue and records it with the {@link FlightRecorder}, including
+     * its wait for admission. The deadline of a streamed request, whose response is written as its elements arrive,
+     * only applies until its first element.
+     */
+    private <T> Flux<T> admit(
+        final String operation,
+        final String username,
+        final AdmissionQueue.Priority priority,
+        final Duration timeout,
+        final boolean streamed,
+        final Supplier<Flux<T>> request
+    ) {
+        return flightRecorder.record(
+            operation,
+            username,
+            admissionQueue.admit(priority, timeout, streamed, () -> FlightRecorder.admitted(request.get()))
+        );
+    }
+
+    /**
+     * @return the time the request has to be answered in, from the {@code X-Request-Timeout} header or the default
+     * timeout, but at most the maximum timeout
+     * @throws ServerWebInputException if the header is not a positive number of milliseconds
+     */
+    private Duration timeout(final ServerWebExchange exchange) {
+        final String header = exchange.getRequest().getHeaders().getFirst(REQUEST_TIMEOUT_HEADER);
+        if (header == null) {
+            return admissionProperties.getDefaultTimeout();
+        }
+        final long millis;
+        try {
+            millis = Long.parseLong(header.trim());
+        } catch (final NumberFormatException e) {
+            throw new ServerWebInputException(REQUEST_TIMEOUT_HEADER + " must be a number of milliseconds");
+        }
+        if (millis < 1) {
+            throw new ServerWebInputException(REQUEST_TIMEOUT_HEADER + " must be at least 1");
+        }
+        final Duration timeout = Duration.ofMillis(millis);
+        return timeout.compareTo(admissionProperties.getMaxTimeout()) > 0 ? admissionProperties.getMaxTimeout() : timeout;
+    }
+
+    /**
+     * @return whether the client accepts a streaming media type, whose repositories are written as they arrive and
+     * therefore have no ETag
+     */
+    private static boolean isStreaming(final ServerWebExchange exchange) {
+        return exchange.getRequest().getHeaders().getAccept().stream().anyMatch(mediaType ->
+            STREAMING_MEDIA_TYPES.stream().anyMatch(mediaType::equalsTypeAndSubtype)
+        );
+    }
+
+    /**
+     * Times the given flux from subscription until it terminates, for streamed responses until the last element is
+     * written, published as {@code repositories.requests} tagged with the {@code operation} ({@code single},
+     * {@code stream} or {@code batch}) and the {@code outcome} ({@code success}, {@code error} or {@code cancelled}).
+     */
+    private <T> Flux<T> timed(final String operation, final Flux<T> body) {
+        return Flux.defer(() -> {
+            final Timer.Sample sample = Timer.start(meterRegistry);
+            return body.doFinally(signalType -> sample.stop(Timer.builder("repositories.requests")
+                .description("End-to-end latency of requests for repositories")
+                .tag("operation", operation)
+                .tag("outcome", outcome(signalType))
+                .register(meterRegistry)));
+        });
+    }
+
+    private static String outcome(final SignalType signalType) {
+        return switch (signalType) {
+            case ON_COMPLETE -> "success";
+            case ON_ERROR -> "error";
+            default -> "cancelled";
+        };
     }
 }
@@ -0,0 +1,82 @@
+package com.dhorbach.codingchallenge.controllers;
+
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Strong ETags of repository responses, computed from the repositories instead of the serialized body.
+ */
+final class RepositoryETags {
+
+    /**
+     * Length of the ETag in bytes, 128 bits of SHA-256 are plenty to tell responses of the same URI apart.
+     */
+    private static final int LENGTH = 16;
+    private static final byte NULL = 0;
+    private static final byte PRESENT = 1;
+
+    private RepositoryETags() {
+    }
+
+    /**
+     * Computes a strong ETag that changes whenever the serialized repositories change: with the names, owners, order
+     * or branches of the repositories, including every last commit SHA.
+     *
+     * @param repositories the repositories in response order
+     * @return the quoted ETag
+     */
+    static String of(final List<Repository> repositories) {
+        final MessageDigest digest = sha256();
+        update(digest, repositories.size());
+        for (final Repository repository : repositories) {
+            update(digest, repository.getName());
+            update(digest, repository.getOwnerLogin());
+            final List<GitHubBranch> branches = repository.getBranches();
+            if (branches == null) {
+                digest.update(NULL);
+                continue;
+            }
+            digest.update(PRESENT);
+            update(digest, branches.size());
+            for (final GitHubBranch branch : branches) {
+                update(digest, branch.getName());
+                update(digest, branch.getLastCommitSha());
+            }
+        }
+        return '"' + HexFormat.of().formatHex(digest.digest(), 0, LENGTH) + '"';
+    }
+
+    /**
+     * Hashes a string with its length, so that adjacent strings cannot shift into each other.
+     */
+    private static void update(final MessageDigest digest, final String value) {
+        if (value == null) {
+            update(digest, -1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        update(digest, bytes.length);
+        digest.update(bytes);
+    }
+
+    private static void update(final MessageDigest digest, final int value) {
+        digest.update((byte) (value >>> 24));
+        digest.update((byte) (value >>> 16));
+        digest.update((byte) (value >>> 8));
+        digest.update((byte) value);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
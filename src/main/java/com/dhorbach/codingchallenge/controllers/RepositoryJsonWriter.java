@@ -0,0 +1,114 @@
+package com.dhorbach.codingchallenge.controllers;
+
+import com.dhorbach.codingchallenge.mappers.RepositoryMapper;
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.StreamedRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import models.RepositoryDTO;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes repositories with streamed branches as the JSON array of {@link RepositoryDTO} the API returns, one
+ * repository after another and the branches of a repository in chunks as they arrive. Branches are requested only as
+ * fast as the chunks are written, so memory per response is bounded by a chunk instead of the number of branches.
+ * <p>
+ * Nothing is written before the first repository arrives, so errors of the repository list, such as an unknown
+ * username, are still answered with an error response.
+ */
+final class RepositoryJsonWriter {
+
+    private static final int BRANCHES_PER_CHUNK = 64;
+
+    private final RepositoryMapper repositoryMapper;
+    private final ObjectMapper objectMapper;
+    private final DataBufferFactory bufferFactory;
+
+    RepositoryJsonWriter(
+        final RepositoryMapper repositoryMapper,
+        final ObjectMapper objectMapper,
+        final DataBufferFactory bufferFactory
+    ) {
+        this.repositoryMapper = repositoryMapper;
+        this.objectMapper = objectMapper;
+        this.bufferFactory = bufferFactory;
+    }
+
+    /**
+     * @param repositories the repositories in the order they are written
+     * @return the JSON array of the repositories, written once per subscription
+     */
+    Flux<DataBuffer> write(final Flux<StreamedRepository> repositories) {
+        return Flux.defer(() -> {
+            final boolean[] started = new boolean[1];
+            final Flux<DataBuffer> body = repositories.concatMap(repository -> {
+                final boolean first = !started[0];
+                started[0] = true;
+                return write(repository, first);
+            });
+            return Flux.concat(body, Mono.fromCallable(() -> buffer(started[0] ? "]" : "[]")));
+        });
+    }
+
+    /**
+     * Writes a repository object, in the property order of {@link RepositoryDTO}.
+     */
+    private Flux<DataBuffer> write(final StreamedRepository repository, final boolean first) {
+        final String header = (first ? "[" : ",")
+            + "{\"repositoryName\":" + json(repository.getName())
+            + ",\"ownerLogin\":" + json(repository.getOwnerLogin())
+            + ",\"branches\":";
+        if (repository.getBranches() == null) {
+            return Flux.just(buffer(header + "null}"));
+        }
+        return Flux.defer(() -> {
+            final boolean[] started = new boolean[1];
+            final Flux<DataBuffer> branches = repository.getBranches()
+                .buffer(BRANCHES_PER_CHUNK)
+                .map(chunk -> {
+                    final DataBuffer buffer = chunk(chunk, started[0]);
+                    started[0] = true;
+                    return buffer;
+                });
+            return Flux.concat(
+                Mono.fromCallable(() -> buffer(header + "[")),
+                branches,
+                Mono.fromCallable(() -> buffer("]}"))
+            );
+        });
+    }
+
+    private DataBuffer chunk(final List<GitHubBranch> branches, final boolean continued) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(branches.size() * 96);
+        for (int i = 0; i < branches.size(); i++) {
+            if (continued || i > 0) {
+                bytes.write(',');
+            }
+            bytes.writeBytes(jsonBytes(repositoryMapper.toBranchDto(branches.get(i))));
+        }
+        return bufferFactory.wrap(bytes.toByteArray());
+    }
+
+    private String json(final String value) {
+        return new String(jsonBytes(value), StandardCharsets.UTF_8);
+    }
+
+    private byte[] jsonBytes(final Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (final JsonProcessingException e) {
+            throw new IllegalStateException("Repository could not be serialized", e);
+        }
+    }
+
+    private DataBuffer buffer(final String json) {
+        return bufferFactory.wrap(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
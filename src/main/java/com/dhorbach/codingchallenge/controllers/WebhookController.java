@@ -0,0 +1,86 @@
+package com.dhorbach.codingchallenge.controllers;
+
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import com.dhorbach.codingchallenge.exceptions.InvalidSignatureException;
+import com.dhorbach.codingchallenge.exceptions.PayloadTooLargeException;
+import com.dhorbach.codingchallenge.services.WebhookService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+
+/**
+ * Receiver of GitHub webhook events. Unlike the API in {@code openapi.yaml}, the signature is computed over the raw
+ * payload, so the payload is taken as bytes and only parsed once its signature is verified.
+ * <p>
+ * GitHub sends payloads of up to 25 MB, far beyond the codec limit of the other endpoints, so the payload is read from
+ * the request with a limit of its own instead of being decoded as a {@code @RequestBody}.
+ */
+@RestController
+@ConditionalOnProperty(name = "github.webhook.enabled", havingValue = "true")
+public class WebhookController {
+
+    private final WebhookService webhookService;
+    private final ObjectMapper objectMapper;
+    private final int maxPayloadSize;
+
+    public WebhookController(
+        final WebhookService webhookService,
+        final ObjectMapper objectMapper,
+        final GitHubProperties gitHubProperties
+    ) {
+        this.webhookService = webhookService;
+        this.objectMapper = objectMapper;
+        this.maxPayloadSize =
+            (int) Math.min(gitHubProperties.getWebhook().getMaxPayloadSize().toBytes(), Integer.MAX_VALUE);
+    }
+
+    @PostMapping(path = "/api/v1/webhooks/github", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Void>> receiveGitHubEvent(
+        @RequestHeader("X-GitHub-Event") final String event,
+        @RequestHeader(name = "X-Hub-Signature-256", required = false) final String signature,
+        final ServerWebExchange exchange
+    ) {
+        return readPayload(exchange).flatMap(payload -> {
+            if (!webhookService.isSignatureValid(event, signature, payload)) {
+                return Mono.error(new InvalidSignatureException("Signature of the webhook payload is invalid"));
+            }
+            final JsonNode json;
+            try {
+                json = objectMapper.readTree(payload);
+            } catch (final IOException e) {
+                return Mono.error(new ServerWebInputException("Webhook payload is not valid JSON"));
+            }
+            webhookService.handle(event, json);
+            return Mono.just(ResponseEntity.noContent().build());
+        });
+    }
+
+    /**
+     * @return the request body, failing with a {@link PayloadTooLargeException} beyond the maximum payload size
+     */
+    private Mono<byte[]> readPayload(final ServerWebExchange exchange) {
+        return DataBufferUtils.join(exchange.getRequest().getBody(), maxPayloadSize)
+            .map(buffer -> {
+                final byte[] payload = new byte[buffer.readableByteCount()];
+                buffer.read(payload);
+                DataBufferUtils.release(buffer);
+                return payload;
+            })
+            .defaultIfEmpty(new byte[0])
+            .onErrorMap(DataBufferLimitException.class, e -> new PayloadTooLargeException(
+                "Webhook payload exceeds " + maxPayloadSize + " bytes"
+            ));
+    }
+}
@@ -0,0 +1,40 @@
+package com.dhorbach.codingchallenge.endpoints;
+
+import com.dhorbach.codingchallenge.cache.NegativeCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint for inspecting and purging the {@link NegativeCache}, for example after a user was created on
+ * GitHub within the ttl of the cache.
+ */
+@Component
+@Endpoint(id = "negativecache")
+@RequiredArgsConstructor
+public class NegativeCacheEndpoint {
+
+    private final NegativeCache negativeCache;
+
+    @ReadOperation
+    public Map<String, Integer> size() {
+        return Map.of("size", negativeCache.size());
+    }
+
+    @DeleteOperation
+    public Map<String, Integer> purgeAll() {
+        final int size = negativeCache.size();
+        negativeCache.clear();
+        return Map.of("removed", size);
+    }
+
+    @DeleteOperation
+    public Map<String, Integer> purgeUsername(@Selector final String username) {
+        return Map.of("removed", negativeCache.remove(username) ? 1 : 0);
+    }
+}
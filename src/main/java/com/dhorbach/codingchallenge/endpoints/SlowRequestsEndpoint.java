@@ -0,0 +1,28 @@
+package com.dhorbach.codingchallenge.endpoints;
+
+import com.dhorbach.codingchallenge.recording.FlightRecorder;
+import com.dhorbach.codingchallenge.recording.RequestTimeline;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint listing the slowest recent requests kept by the {@link FlightRecorder}, with the timelines of their
+ * GitHub calls, to find out which calls a slow request waited for and where their time went. Read-only, as the
+ * timelines name the usernames and repositories of real requests.
+ */
+@Component
+@Endpoint(id = "slowrequests")
+@RequiredArgsConstructor
+public class SlowRequestsEndpoint {
+
+    private final FlightRecorder flightRecorder;
+
+    @ReadOperation
+    public List<RequestTimeline> slowRequests() {
+        return flightRecorder.getSlowRequests();
+    }
+}
@@ -0,0 +1,11 @@
+package com.dhorbach.codingchallenge.exceptions;
+
+/**
+ * Exception indicating that a webhook payload is not signed with the configured secret.
+ */
+public class InvalidSignatureException extends RuntimeException {
+
+    public InvalidSignatureException(final String message) {
+        super(message);
+    }
+}
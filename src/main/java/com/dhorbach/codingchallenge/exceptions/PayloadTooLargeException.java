@@ -0,0 +1,11 @@
+package com.dhorbach.codingchallenge.exceptions;
+
+/**
+ * Exception indicating that a request body exceeds the size accepted for it.
+ */
+public class PayloadTooLargeException extends RuntimeException {
+
+    public PayloadTooLargeException(final String message) {
+        super(message);
+    }
+}
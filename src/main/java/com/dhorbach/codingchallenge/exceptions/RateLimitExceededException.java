@@ -0,0 +1,19 @@
+package com.dhorbach.codingchallenge.exceptions;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Exception indicating that the GitHub rate limit is exhausted and the request cannot be answered correctly.
+ */
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(final String message, final Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
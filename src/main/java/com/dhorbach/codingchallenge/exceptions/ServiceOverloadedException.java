@@ -0,0 +1,19 @@
+package com.dhorbach.codingchallenge.exceptions;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Exception indicating that a request was rejected or aborted because it could not be completed within its deadline.
+ */
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(final String message, final Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -1,6 +1,10 @@
 package com.dhorbach.codingchallenge.exceptions.handlers;
 
+import com.dhorbach.codingchallenge.exceptions.InvalidSignatureException;
 import com.dhorbach.codingchallenge.exceptions.NotFoundException;
+import com.dhorbach.codingchallenge.exceptions.PayloadTooLargeException;
+import com.dhorbach.codingchallenge.exceptions.RateLimitExceededException;
+import com.dhorbach.codingchallenge.exceptions.ServiceOverloadedException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -8,11 +12,13 @@ import lombok.SneakyThrows;
 import models.FailureResponse;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.NotAcceptableStatusException;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
 import org.springframework.web.server.WebExceptionHandler;
 import reactor.core.publisher.Mono;
 
@@ -43,9 +49,32 @@ public class ApplicationExceptionHandler implements WebExceptionHandler {
         if (ex instanceof NotAcceptableStatusException notAcceptableStatusException) {
             errorMessage = notAcceptableStatusException.getReason();
             httpStatus = HttpStatus.NOT_ACCEPTABLE;
+        } else if (ex instanceof ServerWebInputException serverWebInputException) {
+            errorMessage = serverWebInputException.getReason();
+            httpStatus = HttpStatus.BAD_REQUEST;
+        } else if (ex instanceof InvalidSignatureException) {
+            errorMessage = ex.getMessage();
+            httpStatus = HttpStatus.UNAUTHORIZED;
+        } else if (ex instanceof PayloadTooLargeException) {
+            errorMessage = ex.getMessage();
+            httpStatus = HttpStatus.PAYLOAD_TOO_LARGE;
         } else if (ex instanceof NotFoundException) {
             errorMessage = ex.getMessage();
             httpStatus = HttpStatus.NOT_FOUND;
+        } else if (ex instanceof RateLimitExceededException rateLimitExceededException) {
+            errorMessage = ex.getMessage();
+            httpStatus = HttpStatus.TOO_MANY_REQUESTS;
+            exchange.getResponse().getHeaders().set(
+                HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(rateLimitExceededException.getRetryAfter().toSeconds(), 1))
+            );
+        } else if (ex instanceof ServiceOverloadedException serviceOverloadedException) {
+            errorMessage = ex.getMessage();
+            httpStatus = HttpStatus.SERVICE_UNAVAILABLE;
+            exchange.getResponse().getHeaders().set(
+                HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(serviceOverloadedException.getRetryAfter().toSeconds(), 1))
+            );
         } else {
             return Mono.error(ex);
         }
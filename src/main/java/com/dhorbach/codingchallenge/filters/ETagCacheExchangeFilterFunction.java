@@ -0,0 +1,232 @@
+package com.dhorbach.codingchallenge.filters;
+
+import com.dhorbach.codingchallenge.cache.RepositoryStore;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Exchange filter that caches GET responses together with their {@code ETag} and revalidates them with
+ * {@code If-None-Match}. When GitHub answers with {@code 304 Not Modified}, the cached body is replayed as a
+ * {@code 200 OK} response, which does not count against the rate limit.
+ * <p>
+ * The cache is bounded by the number of responses and by the total size of their bodies, least recently used
+ * responses are evicted until both bounds are met again.
+ * <p>
+ * With a {@link RepositoryStore}, cached responses are persisted, so their ETags are revalidated after a restart
+ * instead of fetching the bodies again.
+ */
+public class ETagCacheExchangeFilterFunction implements ExchangeFilterFunction {
+
+    /**
+     * Response headers that are stored with the cached body and replayed on {@code 304 Not Modified}.
+     */
+    private static final List<String> CACHED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.LINK, HttpHeaders.ETAG);
+
+    /**
+     * Cached responses in access order, guarded by its own lock.
+     */
+    private final Map<URI, CachedResponse> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxEntries;
+    private final int maxBodySize;
+    private final long maxTotalSize;
+    private final RepositoryStore store;
+    private long totalSize;
+
+    /**
+     * @param maxEntries   the maximum number of cached responses, least recently used entries are evicted first
+     * @param maxBodySize  the maximum size of a cached body in bytes, bigger responses are not cached
+     * @param maxTotalSize the maximum size of all cached bodies in bytes, least recently used entries are evicted first
+     */
+    public ETagCacheExchangeFilterFunction(final int maxEntries, final int maxBodySize, final long maxTotalSize) {
+        this(maxEntries, maxBodySize, maxTotalSize, null);
+    }
+
+    /**
+     * @param maxEntries   the maximum number of cached responses, least recently used entries are evicted first
+     * @param maxBodySize  the maximum size of a cached body in bytes, bigger responses are not cached
+     * @param maxTotalSize the maximum size of all cached bodies in bytes, least recently used entries are evicted first
+     * @param store        the store responses are persisted in, or {@code null} to keep responses in memory only
+     */
+    public ETagCacheExchangeFilterFunction(
+        final int maxEntries,
+        final int maxBodySize,
+        final long maxTotalSize,
+        final RepositoryStore store
+    ) {
+        this.maxEntries = maxEntries;
+        // a body bigger than the whole cache would only evict everything else and then itself
+        this.maxBodySize = (int) Math.min(maxBodySize, maxTotalSize);
+        this.maxTotalSize = maxTotalSize;
+        this.store = store;
+    }
+
+    @NotNull
+    @Override
+    public Mono<ClientResponse> filter(@NotNull final ClientRequest request, @NotNull final ExchangeFunction next) {
+        if (!HttpMethod.GET.equals(request.method())) {
+            return next.exchange(request);
+        }
+        final URI uri = request.url();
+        final CachedResponse cached;
+        synchronized (cache) {
+            cached = cache.get(uri);
+        }
+        final ClientRequest conditionalRequest = cached == null
+            ? request
+            : ClientRequest.from(request).header(HttpHeaders.IF_NONE_MATCH, cached.eTag()).build();
+        return next.exchange(conditionalRequest)
+            .map(response -> {
+                if (cached != null && response.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                    return replay(response, cached);
+                }
+                final String eTag = response.headers().asHttpHeaders().getETag();
+                if (response.statusCode().is2xxSuccessful() && eTag != null) {
+                    return record(uri, eTag, response);
+                }
+                return response;
+            });
+    }
+
+    /**
+     * Adds a response restored from the {@link RepositoryStore}, unless a response of the URI is already cached or the
+     * response does not fit into the cache without evicting others. Restoring never evicts cached responses, so it
+     * does not delete them from the store either.
+     *
+     * @param uri     the request URI
+     * @param eTag    the ETag of the response
+     * @param headers the cached response headers
+     * @param body    the response body
+     */
+    public void restore(final URI uri, final String eTag, final HttpHeaders headers, final byte[] body) {
+        synchronized (cache) {
+            final boolean fits = cache.size() < maxEntries && totalSize + body.length <= maxTotalSize;
+            if (fits && !cache.containsKey(uri)) {
+                put(uri, new CachedResponse(eTag, headers, body));
+            }
+        }
+    }
+
+    /**
+     * @return the number of currently cached responses
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * @return the total size of the currently cached bodies in bytes
+     */
+    public long totalSize() {
+        synchronized (cache) {
+            return totalSize;
+        }
+    }
+
+    /**
+     * Caches the given response and evicts the least recently used responses until the cache is within its bounds
+     * again. Must be called while holding the lock of the cache.
+     */
+    private void put(final URI uri, final CachedResponse response) {
+        final CachedResponse previous = cache.put(uri, response);
+        if (previous != null) {
+            totalSize -= previous.body().length;
+        }
+        totalSize += response.body().length;
+        final Iterator<Map.Entry<URI, CachedResponse>> eldest = cache.entrySet().iterator();
+        while (cache.size() > maxEntries || totalSize > maxTotalSize) {
+            final Map.Entry<URI, CachedResponse> evicted = eldest.next();
+            totalSize -= evicted.getValue().body().length;
+            eldest.remove();
+            if (store != null) {
+                store.deleteResponse(evicted.getKey());
+            }
+        }
+    }
+
+    /**
+     * Replaces the empty {@code 304 Not Modified} response with the cached one. Headers of the fresh response, such as
+     * rate limit headers, are preserved.
+     */
+    private ClientResponse replay(final ClientResponse notModified, final CachedResponse cached) {
+        return notModified.mutate()
+            .statusCode(HttpStatus.OK)
+            .headers(headers -> {
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                headers.putAll(cached.headers());
+            })
+            .body(Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(cached.body()))))
+            .build();
+    }
+
+    /**
+     * Copies the body of the response while it is streamed to the decoder and caches it once it is complete.
+     */
+    private ClientResponse record(final URI uri, final String eTag, final ClientResponse response) {
+        final HttpHeaders headers = new HttpHeaders();
+        CACHED_HEADERS.forEach(name -> {
+            final List<String> values = response.headers().header(name);
+            if (!values.isEmpty()) {
+                headers.put(name, values);
+            }
+        });
+        return response.mutate()
+            .body(body -> {
+                final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+                final AtomicBoolean tooLarge = new AtomicBoolean();
+                return body
+                    .doOnNext(dataBuffer -> {
+                        if (tooLarge.get() || copy.size() + dataBuffer.readableByteCount() > maxBodySize) {
+                            tooLarge.set(true);
+                        } else {
+                            copyReadableBytes(dataBuffer, copy);
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if (!tooLarge.get()) {
+                            final byte[] bytes = copy.toByteArray();
+                            synchronized (cache) {
+                                put(uri, new CachedResponse(eTag, headers, bytes));
+                            }
+                            if (store != null) {
+                                store.saveResponse(uri, eTag, headers, bytes);
+                            }
+                        }
+                    });
+            })
+            .build();
+    }
+
+    /**
+     * Copies readable bytes of the buffer without moving its read position.
+     */
+    private static void copyReadableBytes(final DataBuffer dataBuffer, final ByteArrayOutputStream copy) {
+        final byte[] bytes = new byte[dataBuffer.readableByteCount()];
+        final int readPosition = dataBuffer.readPosition();
+        dataBuffer.read(bytes);
+        dataBuffer.readPosition(readPosition);
+        copy.writeBytes(bytes);
+    }
+
+    private record CachedResponse(String eTag, HttpHeaders headers, byte[] body) {
+    }
+}
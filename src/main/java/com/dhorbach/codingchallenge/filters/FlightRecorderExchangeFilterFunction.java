@@ -0,0 +1,116 @@
+package com.dhorbach.codingchallenge.filters;
+
+import com.dhorbach.codingchallenge.recording.UpstreamCall;
+import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.Connection;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientRequest;
+
+/**
+ * Exchange filter that records every upstream call as an {@link UpstreamCall} of the request in whose context it runs,
+ * from the start of the call until its response body was read or released.
+ * <p>
+ * The time the request was sent is taken from the HTTP client by {@link #requestSent}, which finds the call in the
+ * context the filter puts it in. For a new connection, the HTTP client hooks added by {@link #instrument} mark on its
+ * channel when it was opened, resolved and connected, so that the time before the request was sent can be split into
+ * pool acquisition, DNS and connect.
+ * <p>
+ * Registered as the innermost filter, after the {@link MetricsExchangeFilterFunction}, so it only sees calls that
+ * actually go to GitHub and bodies as they arrive, before the {@link ETagCacheExchangeFilterFunction} replaces
+ * revalidated ones.
+ */
+public class FlightRecorderExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private static final AttributeKey<Boolean> USED = AttributeKey.valueOf("flightRecorder.used");
+    private static final AttributeKey<Long> OPENED = AttributeKey.valueOf("flightRecorder.opened");
+    private static final AttributeKey<Long> RESOLVING = AttributeKey.valueOf("flightRecorder.resolving");
+    private static final AttributeKey<Long> RESOLVED = AttributeKey.valueOf("flightRecorder.resolved");
+    private static final AttributeKey<Long> CONNECTED = AttributeKey.valueOf("flightRecorder.connected");
+
+    @NotNull
+    @Override
+    public Mono<ClientResponse> filter(@NotNull final ClientRequest request, @NotNull final ExchangeFunction next) {
+        return Mono.deferContextual(context -> {
+            final UpstreamCall call = UpstreamCall.start(
+                context,
+                request.method().name(),
+                MetricsExchangeFilterFunction.endpoint(request.url().getPath()),
+                request.url().getPath()
+            );
+            return next.exchange(request)
+                .map(response -> {
+                    call.headers(response.statusCode().value());
+                    return response.mutate()
+                        .body(body -> body
+                            .doOnNext(buffer -> call.received(buffer.readableByteCount()))
+                            .doFinally(call::finish))
+                        .build();
+                })
+                .doOnError(throwable -> call.finish(SignalType.ON_ERROR))
+                .doOnCancel(() -> call.finish(SignalType.CANCEL))
+                .contextWrite(ctx -> ctx.put(UpstreamCall.class, call));
+        });
+    }
+
+    /**
+     * Adds the hooks the recorded calls are timed with to the given HTTP client.
+     */
+    public static HttpClient instrument(final HttpClient httpClient) {
+        return httpClient
+            .doOnChannelInit((observer, channel, remoteAddress) -> channel.attr(OPENED).setIfAbsent(System.nanoTime()))
+            .doOnResolve((connection, address) -> mark(connection, RESOLVING))
+            .doAfterResolve((connection, address) -> mark(connection, RESOLVED))
+            .doOnConnected(connection -> mark(connection, CONNECTED))
+            .doOnRequest(FlightRecorderExchangeFilterFunction::requestSent);
+    }
+
+    /**
+     * Callback of the HTTP client for a request about to be sent, registered with {@link HttpClient#doOnRequest}.
+     */
+    public static void requestSent(final HttpClientRequest request, final Connection connection) {
+        request.currentContextView().<UpstreamCall>getOrEmpty(UpstreamCall.class).ifPresent(call -> {
+            final Channel channel = channel(connection);
+            if (channel.attr(USED).getAndSet(Boolean.TRUE) == null) {
+                call.sent(
+                    true,
+                    nanos(channel, OPENED),
+                    nanos(channel, RESOLVING),
+                    nanos(channel, RESOLVED),
+                    nanos(channel, CONNECTED)
+                );
+            } else {
+                call.sent(false, 0, 0, 0, 0);
+            }
+        });
+    }
+
+    /**
+     * Marks the given phase on the channel of the given connection, only the first time counts.
+     */
+    private static void mark(final Connection connection, final AttributeKey<Long> phase) {
+        channel(connection).attr(phase).setIfAbsent(System.nanoTime());
+    }
+
+    /**
+     * @return the time the given phase was marked on the given channel, 0 if it never was
+     */
+    private static long nanos(final Channel channel, final AttributeKey<Long> phase) {
+        final Long nanos = channel.attr(phase).get();
+        return nanos == null ? 0 : nanos;
+    }
+
+    /**
+     * @return the channel of the given connection, for HTTP/2 streams the channel of their connection
+     */
+    private static Channel channel(final Connection connection) {
+        return connection.channel().parent() != null ? connection.channel().parent() : connection.channel();
+    }
+}
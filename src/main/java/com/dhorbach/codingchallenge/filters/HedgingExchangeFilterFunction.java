@@ -0,0 +1,61 @@
+package com.dhorbach.codingchallenge.filters;
+
+import com.dhorbach.codingchallenge.concurrency.AdaptiveConcurrencyLimiter;
+import com.dhorbach.codingchallenge.concurrency.GitHubRateLimiter;
+import com.dhorbach.codingchallenge.concurrency.RequestHedger;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Exchange filter that runs every branch call, a call with {@link GitHubRateLimiter.Priority#LOW} priority, within a
+ * permit of the {@link AdaptiveConcurrencyLimiter} and hedges it with the {@link RequestHedger}.
+ * <p>
+ * Every page is a call of its own, so a repository with many pages takes a permit per page and is not mistaken for a
+ * slow call. The hedger times a call from the moment it holds its permit, so waiting for a permit is not mistaken for
+ * GitHub latency. The body of a page is read before the call counts as answered, which keeps the permit until the page
+ * is complete and lets a stalled body be hedged like stalled headers. A page holds at most
+ * {@code github.pagination.page-size} elements, so buffering it stays small.
+ * <p>
+ * Registered as the outermost filter, so every attempt is reserved from the rate limit on its own.
+ */
+@RequiredArgsConstructor
+public class HedgingExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final RequestHedger requestHedger;
+
+    @NotNull
+    @Override
+    public Mono<ClientResponse> filter(@NotNull final ClientRequest request, @NotNull final ExchangeFunction next) {
+        final boolean branchCall = request.attribute(GitHubRateLimiter.PRIORITY_ATTRIBUTE)
+            .filter(GitHubRateLimiter.Priority.LOW::equals)
+            .isPresent();
+        if (!branchCall) {
+            return next.exchange(request);
+        }
+        return requestHedger.hedge(
+            () -> next.exchange(request).flatMap(HedgingExchangeFilterFunction::readBody),
+            concurrencyLimiter::limit
+        );
+    }
+
+    /**
+     * @return the response with its body read into a single buffer
+     */
+    private static Mono<ClientResponse> readBody(final ClientResponse response) {
+        return DataBufferUtils.join(response.body(BodyExtractors.toDataBuffers()))
+            .map(Flux::just)
+            .defaultIfEmpty(Flux.<DataBuffer>empty())
+            // the original body is consumed already and must not be subscribed to again
+            .map(body -> response.mutate().body(original -> body).build());
+    }
+}
@@ -0,0 +1,75 @@
+package com.dhorbach.codingchallenge.filters;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Exchange filter that times upstream calls until their response headers arrive, published as
+ * {@code github.client.requests} tagged with the {@code endpoint} ({@code repos}, {@code branches}, {@code graphql} or
+ * {@code other}) and the response {@code status}. Calls failing without a response are tagged {@code IO_ERROR},
+ * cancelled calls {@code CANCELLED}.
+ * <p>
+ * Registered as the innermost filter, so it only sees calls that actually go to GitHub. Revalidated responses of the
+ * {@link ETagCacheExchangeFilterFunction} are counted with status {@code 304}.
+ */
+@RequiredArgsConstructor
+public class MetricsExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private final MeterRegistry meterRegistry;
+
+    @NotNull
+    @Override
+    public Mono<ClientResponse> filter(@NotNull final ClientRequest request, @NotNull final ExchangeFunction next) {
+        return Mono.defer(() -> {
+            final String endpoint = endpoint(request.url().getPath());
+            final Timer.Sample sample = Timer.start(meterRegistry);
+            final boolean[] recorded = new boolean[1];
+            return next.exchange(request)
+                .doOnNext(response -> {
+                    recorded[0] = true;
+                    sample.stop(timer(endpoint, String.valueOf(response.statusCode().value())));
+                })
+                .doOnError(throwable -> {
+                    recorded[0] = true;
+                    sample.stop(timer(endpoint, "IO_ERROR"));
+                })
+                .doOnCancel(() -> {
+                    if (!recorded[0]) {
+                        sample.stop(timer(endpoint, "CANCELLED"));
+                    }
+                });
+        });
+    }
+
+    private Timer timer(final String endpoint, final String status) {
+        return Timer.builder("github.client.requests")
+            .description("Calls to the GitHub API")
+            .tag("endpoint", endpoint)
+            .tag("status", status)
+            .register(meterRegistry);
+    }
+
+    /**
+     * @param path the request path
+     * @return the endpoint tag of the path
+     */
+    static String endpoint(final String path) {
+        if (path.endsWith("/branches")) {
+            return "branches";
+        }
+        if (path.endsWith("/repos")) {
+            return "repos";
+        }
+        if (path.endsWith("/graphql")) {
+            return "graphql";
+        }
+        return "other";
+    }
+}
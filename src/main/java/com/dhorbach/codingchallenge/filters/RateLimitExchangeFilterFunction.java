@@ -0,0 +1,56 @@
+package com.dhorbach.codingchallenge.filters;
+
+import com.dhorbach.codingchallenge.concurrency.GitHubRateLimiter;
+import com.dhorbach.codingchallenge.exceptions.RateLimitExceededException;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Exchange filter that schedules upstream calls through the {@link GitHubRateLimiter}. Calls that would exceed the
+ * remaining quota and responses throttled by GitHub fail with {@link RateLimitExceededException}.
+ * <p>
+ * The priority of a call is read from the {@link GitHubRateLimiter#PRIORITY_ATTRIBUTE} request attribute and defaults
+ * to {@link GitHubRateLimiter.Priority#HIGH}. Calls running in the context of a {@link GitHubRateLimiter.Budget} are
+ * reserved from it.
+ */
+@RequiredArgsConstructor
+public class RateLimitExchangeFilterFunction implements ExchangeFilterFunction {
+
+    private final GitHubRateLimiter rateLimiter;
+
+    @NotNull
+    @Override
+    public Mono<ClientResponse> filter(@NotNull final ClientRequest request, @NotNull final ExchangeFunction next) {
+        final GitHubRateLimiter.Priority priority = request.attribute(GitHubRateLimiter.PRIORITY_ATTRIBUTE)
+            .map(GitHubRateLimiter.Priority.class::cast)
+            .orElse(GitHubRateLimiter.Priority.HIGH);
+        return Mono.deferContextual(context -> {
+            final Duration retryAfter = rateLimiter.tryReserve(
+                priority, context.getOrDefault(GitHubRateLimiter.Budget.class, null)
+            );
+            if (retryAfter != null) {
+                return Mono.error(new RateLimitExceededException(
+                    String.format("GitHub rate limit is exhausted, %s call to %s was rejected", priority, request.url().getPath()),
+                    retryAfter
+                ));
+            }
+            return next.exchange(request)
+                .doFinally(signalType -> rateLimiter.release())
+                .flatMap(response -> {
+                    if (rateLimiter.update(response.statusCode(), response.headers().asHttpHeaders())) {
+                        return response.releaseBody().then(Mono.error(new RateLimitExceededException(
+                            "GitHub rate limit is exhausted", rateLimiter.getRetryAfter()
+                        )));
+                    }
+                    return Mono.just(response);
+                });
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package com.dhorbach.codingchallenge.mappers;
+
+import com.dhorbach.codingchallenge.exceptions.NotFoundException;
+import com.dhorbach.codingchallenge.exceptions.RateLimitExceededException;
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.Repository;
+import com.dhorbach.codingchallenge.models.UserRepositories;
+import models.BatchResultDTO;
+import models.BranchDTO;
+import models.FailureResponse;
+import models.RepositoryDTO;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps repositories to the DTOs returned by the API. Every property is mapped explicitly, so renamed or removed
+ * properties on either side fail at compile time.
+ */
+@Component
+public class RepositoryMapper {
+
+    /**
+     * @param repository the repository
+     * @return the DTO of the repository
+     */
+    public RepositoryDTO toRepositoryDto(final Repository repository) {
+        return new RepositoryDTO()
+            .repositoryName(repository.getName())
+            .ownerLogin(repository.getOwnerLogin())
+            .branches(toBranchDtos(repository.getBranches()));
+    }
+
+    /**
+     * @param branch the branch
+     * @return the DTO of the branch
+     */
+    public BranchDTO toBranchDto(final GitHubBranch branch) {
+        return new BranchDTO()
+            .name(branch.getName())
+            .lastCommitSHA(branch.getLastCommitSha());
+    }
+
+    /**
+     * Maps the result of a username of a batch. Errors are mapped to the status and message the single username
+     * endpoint would respond with, unexpected errors to {@code 500} without exposing their message.
+     *
+     * @param userRepositories the repositories of the username or the error retrieving them
+     * @return the DTO of the result
+     */
+    public BatchResultDTO toBatchResultDto(final UserRepositories userRepositories) {
+        final BatchResultDTO batchResultDto = new BatchResultDTO().username(userRepositories.getUsername());
+        final Throwable error = userRepositories.getError();
+        if (error == null) {
+            final List<RepositoryDTO> repositoryDtos = new ArrayList<>(userRepositories.getRepositories().size());
+            for (final Repository repository : userRepositories.getRepositories()) {
+                repositoryDtos.add(toRepositoryDto(repository));
+            }
+            return batchResultDto.repositories(repositoryDtos);
+        }
+        if (error instanceof NotFoundException || error instanceof RateLimitExceededException) {
+            final HttpStatus status = error instanceof NotFoundException ? HttpStatus.NOT_FOUND : HttpStatus.TOO_MANY_REQUESTS;
+            return batchResultDto.error(new FailureResponse().status(status.value()).message(error.getMessage()));
+        }
+        return batchResultDto.error(new FailureResponse()
+            .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
+            .message("Repositories could not be retrieved"));
+    }
+
+    private List<BranchDTO> toBranchDtos(final List<GitHubBranch> branches) {
+        if (branches == null) {
+            return null;
+        }
+        final List<BranchDTO> branchDtos = new ArrayList<>(branches.size());
+        for (final GitHubBranch branch : branches) {
+            branchDtos.add(toBranchDto(branch));
+        }
+        return branchDtos;
+    }
+}
@@ -1,10 +1,12 @@
 package com.dhorbach.codingchallenge.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -14,6 +16,16 @@ public class GitHubRepository {
     private String name;
     private boolean fork;
     private String ownerLogin;
+    /**
+     * Branches prefetched together with the repository, {@code null} if they have to be fetched separately.
+     */
+    @JsonIgnore
+    private List<GitHubBranch> branches;
+
+    public GitHubRepository(final String name, final boolean fork, final String ownerLogin) {
+        this(name, fork, ownerLogin, null);
+    }
+
     @JsonProperty("owner")
     private void setOwnerLogin(final Map<String, String> owner) {
         ownerLogin = owner.get("login");
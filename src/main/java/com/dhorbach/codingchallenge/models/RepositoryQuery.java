@@ -0,0 +1,74 @@
+package com.dhorbach.codingchallenge.models;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Projection of the repositories of a username a caller asked for. Restricting the query saves upstream calls:
+ * repositories are filtered by name and paged before their branches are fetched, and branches are fetched only as far
+ * as they are included.
+ */
+@Value
+@Builder(toBuilder = true)
+public class RepositoryQuery {
+
+    /**
+     * All repositories with all of their branches.
+     */
+    public static final RepositoryQuery ALL = RepositoryQuery.builder().build();
+
+    /**
+     * Whether branches are fetched at all, repositories have {@code null} branches otherwise.
+     */
+    @Builder.Default
+    boolean includeBranches = true;
+    /**
+     * Maximum number of branches per repository, {@code null} for all of them.
+     */
+    Integer maxBranches;
+    /**
+     * Case-insensitive prefix of the repository names, {@code null} for all repositories.
+     */
+    String namePrefix;
+    /**
+     * Page of repositories starting with 1, only applied together with the size.
+     */
+    @Builder.Default
+    int page = 1;
+    /**
+     * Number of repositories per page, {@code null} for all repositories.
+     */
+    Integer size;
+
+    /**
+     * @return whether the query asks for all repositories with all of their branches
+     */
+    public boolean isUnrestricted() {
+        return includeBranches && maxBranches == null && namePrefix == null && size == null;
+    }
+
+    /**
+     * @param name the repository name
+     * @return whether the repository name starts with the name prefix
+     */
+    public boolean matches(final String name) {
+        return namePrefix == null || name.regionMatches(true, 0, namePrefix, 0, namePrefix.length());
+    }
+
+    /**
+     * @return the number of matching repositories skipped before the page
+     */
+    public long getOffset() {
+        return size == null ? 0 : (long) (page - 1) * size;
+    }
+
+    /**
+     * @return the maximum number of branches per repository, {@link Integer#MAX_VALUE} for all of them
+     */
+    public int getBranchLimit() {
+        if (!includeBranches) {
+            return 0;
+        }
+        return maxBranches == null ? Integer.MAX_VALUE : maxBranches;
+    }
+}
@@ -0,0 +1,19 @@
+package com.dhorbach.codingchallenge.models;
+
+import lombok.Builder;
+import lombok.Value;
+import reactor.core.publisher.Flux;
+
+/**
+ * Repository whose branches are streamed instead of collected, so that they can be written as they are fetched.
+ */
+@Value
+@Builder
+public class StreamedRepository {
+    String name;
+    String ownerLogin;
+    /**
+     * Branches fetched on subscription and only as fast as they are consumed, {@code null} if branches are excluded.
+     */
+    Flux<GitHubBranch> branches;
+}
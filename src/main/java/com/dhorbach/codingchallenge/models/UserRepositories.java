@@ -0,0 +1,17 @@
+package com.dhorbach.codingchallenge.models;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Repositories of a single username of a batch, or the error retrieving them.
+ */
+@Value
+@Builder
+public class UserRepositories {
+    String username;
+    List<Repository> repositories;
+    Throwable error;
+}
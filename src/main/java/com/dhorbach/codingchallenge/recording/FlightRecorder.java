@@ -0,0 +1,123 @@
+package com.dhorbach.codingchallenge.recording;
+
+import com.dhorbach.codingchallenge.config.FlightRecorderProperties;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Flight recorder of requests for repositories. Every request and every GitHub call it makes is committed as a JFR event
+ * ({@link RepositoryRequestEvent}, {@link GitHubCallEvent}), and the slowest requests of the recent window are kept with
+ * the timelines of their calls for the {@code slowrequests} actuator endpoint.
+ * <p>
+ * Recording a request costs a few objects per call and no lock beyond the request itself. A finished request faster
+ * than the fastest one kept is dropped without taking the lock of the recorder, so only slow requests contend for it.
+ */
+public class FlightRecorder {
+
+    private final FlightRecorderProperties properties;
+    private final PriorityQueue<Slow> slowest = new PriorityQueue<>(Comparator.comparingLong(Slow::durationNanos));
+    /**
+     * Duration of the fastest request kept once the buffer is full, 0 before.
+     */
+    private volatile long minimumNanos;
+    /**
+     * End of the oldest request kept, after which it is no longer recent.
+     */
+    private volatile long oldestEndNanos;
+
+    public FlightRecorder(final FlightRecorderProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Records the given request from subscription until it terminates or is cancelled.
+     *
+     * @param operation the operation of the request
+     * @param username  the requested username, {@code null} for batch requests
+     * @param request   the request
+     * @return the request, with its recording in its context
+     */
+    public <T> Flux<T> record(final String operation, final String username, final Flux<T> request) {
+        if (!properties.isEnabled()) {
+            return request;
+        }
+        return Flux.defer(() -> {
+            final RequestRecording recording =
+                new RequestRecording(operation, username, properties.getMaxCallsPerRequest());
+            return request
+                .doFinally(signalType -> finished(recording, recording.finish(signalType)))
+                .contextWrite(context -> context.put(RequestRecording.class, recording));
+        });
+    }
+
+    /**
+     * Marks the request recorded in the context of the given request as admitted once it is subscribed to.
+     *
+     * @param request the admitted request
+     * @return the request
+     */
+    public static <T> Flux<T> admitted(final Flux<T> request) {
+        return Flux.deferContextual(context -> {
+            context.<RequestRecording>getOrEmpty(RequestRecording.class).ifPresent(RequestRecording::admitted);
+            return request;
+        });
+    }
+
+    /**
+     * @return the slowest recent requests, slowest first
+     */
+    public List<RequestTimeline> getSlowRequests() {
+        final List<Slow> requests;
+        synchronized (this) {
+            expire(System.nanoTime());
+            requests = new ArrayList<>(slowest);
+        }
+        requests.sort(Comparator.comparingLong(Slow::durationNanos).reversed());
+        return requests.stream().map(Slow::timeline).toList();
+    }
+
+    private void finished(final RequestRecording recording, final long durationNanos) {
+        final long now = System.nanoTime();
+        if (durationNanos <= minimumNanos && now - oldestEndNanos < properties.getWindow().toNanos()) {
+            return;
+        }
+        final RequestTimeline timeline = recording.toTimeline();
+        synchronized (this) {
+            expire(now);
+            if (slowest.size() >= properties.getSlowRequests()) {
+                if (slowest.isEmpty() || durationNanos <= slowest.peek().durationNanos()) {
+                    return;
+                }
+                slowest.poll();
+            }
+            slowest.add(new Slow(durationNanos, now, timeline));
+            update();
+        }
+    }
+
+    /**
+     * Must be called while holding the lock.
+     */
+    private void expire(final long now) {
+        final long window = properties.getWindow().toNanos();
+        if (slowest.removeIf(slow -> now - slow.endNanos() >= window)) {
+            update();
+        }
+    }
+
+    /**
+     * Must be called while holding the lock.
+     */
+    private void update() {
+        minimumNanos = slowest.size() >= properties.getSlowRequests() && !slowest.isEmpty()
+            ? slowest.peek().durationNanos() : 0;
+        oldestEndNanos = slowest.stream().mapToLong(Slow::endNanos).min().orElse(Long.MAX_VALUE);
+    }
+
+    private record Slow(long durationNanos, long endNanos, RequestTimeline timeline) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.dhorbach.codingchallenge.recording;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of a single call to GitHub, from the start of the call until its body was read. The duration is split into
+ * the phases before the request was sent, until the response headers arrived and until the body was read. The phase
+ * before the request was sent is further split into pool acquisition, DNS and connect.
+ */
+@Name("com.dhorbach.codingchallenge.GitHubCall")
+@Label("GitHub Call")
+@Category({"Coding Challenge", "GitHub"})
+@Description("Call to the GitHub API")
+@StackTrace(false)
+class GitHubCallEvent extends Event {
+
+    @Label("Operation")
+    @Description("Operation of the request the call was made for, empty for calls outside of requests")
+    String operation;
+
+    @Label("Username")
+    String username;
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Endpoint")
+    @Description("repos, branches, graphql or other")
+    String endpoint;
+
+    @Label("Status")
+    @Description("HTTP status of the response, 0 without a response")
+    int status;
+
+    @Label("Outcome")
+    @Description("success, error or cancelled")
+    String outcome;
+
+    @Label("New Connection")
+    @Description("Whether the request was the first one sent on its connection")
+    boolean newConnection;
+
+    @Label("Connection")
+    @Description("Time until the request was sent: pool acquisition and, for new connections, DNS, TCP and TLS")
+    @Timespan(Timespan.NANOSECONDS)
+    long connection;
+
+    @Label("Pool")
+    @Description("Time waiting for a connection from the pool, the whole connection phase for reused connections")
+    @Timespan(Timespan.NANOSECONDS)
+    long pool;
+
+    @Label("DNS")
+    @Description("Time resolving the address of a new connection")
+    @Timespan(Timespan.NANOSECONDS)
+    long dns;
+
+    @Label("Connect")
+    @Description("Time opening the TCP connection and completing the TLS handshake of a new connection")
+    @Timespan(Timespan.NANOSECONDS)
+    long connect;
+
+    @Label("Server")
+    @Description("Time from sending the request until the response headers arrived")
+    @Timespan(Timespan.NANOSECONDS)
+    long server;
+
+    @Label("Body")
+    @Description("Time from the response headers until the body was read")
+    @Timespan(Timespan.NANOSECONDS)
+    long body;
+
+    @Label("Bytes")
+    @Description("Bytes of the decompressed response body")
+    @DataAmount(DataAmount.BYTES)
+    long bytes;
+}
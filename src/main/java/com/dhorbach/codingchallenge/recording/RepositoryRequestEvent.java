@@ -0,0 +1,52 @@
+package com.dhorbach.codingchallenge.recording;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of a request for repositories, from its arrival until its response was written, with the GitHub calls it
+ * made. The calls themselves are recorded as {@link GitHubCallEvent}s on the same threads and within its duration.
+ */
+@Name("com.dhorbach.codingchallenge.RepositoryRequest")
+@Label("Repository Request")
+@Category({"Coding Challenge", "Requests"})
+@Description("Request for the repositories of one or more usernames")
+@StackTrace(false)
+class RepositoryRequestEvent extends Event {
+
+    @Label("Operation")
+    @Description("single, stream or batch")
+    String operation;
+
+    @Label("Username")
+    @Description("Requested username, empty for batch requests")
+    String username;
+
+    @Label("Outcome")
+    @Description("success, error or cancelled")
+    String outcome;
+
+    @Label("Admission")
+    @Description("Time the request waited for admission")
+    @Timespan(Timespan.NANOSECONDS)
+    long admission;
+
+    @Label("GitHub Calls")
+    int calls;
+
+    @Label("Critical Call")
+    @Description("Time from the start of the last GitHub call to finish until the end of its body")
+    @Timespan(Timespan.NANOSECONDS)
+    long criticalCall;
+
+    @Label("Bytes")
+    @Description("Bytes of the decompressed response bodies of all GitHub calls")
+    @DataAmount(DataAmount.BYTES)
+    long bytes;
+}
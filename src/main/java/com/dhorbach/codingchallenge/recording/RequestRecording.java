@@ -0,0 +1,117 @@
+package com.dhorbach.codingchallenge.recording;
+
+import reactor.core.publisher.SignalType;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recording of a request for repositories and the GitHub calls it made, carried in the Reactor context of the request
+ * so that calls find it on whichever thread they run. At most a fixed number of calls are kept with their timelines,
+ * further calls are only counted.
+ */
+public final class RequestRecording {
+
+    private final String operation;
+    private final String username;
+    private final int maxCalls;
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final RepositoryRequestEvent event = new RepositoryRequestEvent();
+    private final List<UpstreamCall> calls = new ArrayList<>();
+    private volatile long admittedNanos;
+    private int callCount;
+    private long bytes;
+    private UpstreamCall critical;
+    private long endNanos;
+    private String outcome;
+
+    RequestRecording(final String operation, final String username, final int maxCalls) {
+        this.operation = operation;
+        this.username = username;
+        this.maxCalls = maxCalls;
+        event.begin();
+    }
+
+    /**
+     * Marks the end of the wait for admission, only the first call counts.
+     */
+    public void admitted() {
+        if (admittedNanos == 0) {
+            admittedNanos = System.nanoTime();
+        }
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    synchronized void started(final UpstreamCall call) {
+        callCount++;
+        if (calls.size() < maxCalls) {
+            calls.add(call);
+        }
+    }
+
+    synchronized void finished(final UpstreamCall call) {
+        bytes += call.getBytes();
+        if (critical == null || call.getEndNanos() >= critical.getEndNanos()) {
+            critical = call;
+        }
+    }
+
+    /**
+     * Ends the request and commits its JFR event.
+     *
+     * @return the duration of the request in nanoseconds
+     */
+    long finish(final SignalType signalType) {
+        event.end();
+        synchronized (this) {
+            endNanos = System.nanoTime();
+            outcome = outcome(signalType);
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.username = username;
+                event.outcome = outcome;
+                event.admission = admittedNanos == 0 ? 0 : admittedNanos - startNanos;
+                event.calls = callCount;
+                event.criticalCall = critical == null ? 0 : critical.getEndNanos() - critical.getStartNanos();
+                event.bytes = bytes;
+                event.commit();
+            }
+            return endNanos - startNanos;
+        }
+    }
+
+    synchronized RequestTimeline toTimeline() {
+        final List<RequestTimeline.Call> timeline = new ArrayList<>(calls.size());
+        for (final UpstreamCall call : calls) {
+            timeline.add(call.toTimeline(startNanos, call == critical));
+        }
+        return new RequestTimeline(
+            operation,
+            username,
+            outcome,
+            startedAt,
+            UpstreamCall.millis(endNanos - startNanos),
+            admittedNanos == 0 ? null : UpstreamCall.millis(admittedNanos - startNanos),
+            callCount,
+            bytes,
+            timeline
+        );
+    }
+
+    static String outcome(final SignalType signalType) {
+        return switch (signalType) {
+            case ON_COMPLETE -> "success";
+            case ON_ERROR -> "error";
+            default -> "cancelled";
+        };
+    }
+}
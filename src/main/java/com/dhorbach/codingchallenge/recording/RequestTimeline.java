@@ -0,0 +1,71 @@
+package com.dhorbach.codingchallenge.recording;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Snapshot of a recorded request with the GitHub calls it made, as returned by the {@code slowrequests} actuator
+ * endpoint. Times are in milliseconds.
+ *
+ * @param operation       {@code single}, {@code stream} or {@code batch}
+ * @param username        the requested username, {@code null} for batch requests
+ * @param outcome         {@code success}, {@code error} or {@code cancelled}
+ * @param startedAt       the arrival of the request
+ * @param durationMillis  the time until the response was written
+ * @param admissionMillis the time the request waited for admission, {@code null} if it was never admitted
+ * @param callCount       the number of GitHub calls, including calls beyond the recorded ones
+ * @param bytes           the bytes of the response bodies of all GitHub calls
+ * @param calls           the recorded GitHub calls in the order they started
+ */
+public record RequestTimeline(
+    String operation,
+    String username,
+    String outcome,
+    Instant startedAt,
+    double durationMillis,
+    Double admissionMillis,
+    int callCount,
+    long bytes,
+    List<Call> calls
+) {
+
+    /**
+     * @param startMillis      the start of the call after the arrival of the request
+     * @param durationMillis   the time until the body of the call was read
+     * @param method           the HTTP method
+     * @param endpoint         {@code repos}, {@code branches}, {@code graphql} or {@code other}
+     * @param username         the username the call was made for
+     * @param repository       the repository of a branch call
+     * @param status           the response status, {@code null} without a response
+     * @param outcome          {@code success}, {@code error} or {@code cancelled}, {@code null} while running
+     * @param newConnection    whether the call was the first one sent on its connection
+     * @param connectionMillis the time until the request was sent
+     * @param poolMillis       the part of it waiting for a connection from the pool
+     * @param dnsMillis        the part of it resolving the address of a new connection
+     * @param connectMillis    the part of it opening a new connection, including TLS
+     * @param serverMillis     the time from sending the request until the response headers arrived
+     * @param bodyMillis       the time from the response headers until the body was read
+     * @param bytes            the bytes of the decompressed response body
+     * @param critical         whether the call was the last one of the request to finish
+     */
+    public record Call(
+        double startMillis,
+        double durationMillis,
+        String method,
+        String endpoint,
+        String username,
+        String repository,
+        Integer status,
+        String outcome,
+        boolean newConnection,
+        double connectionMillis,
+        double poolMillis,
+        double dnsMillis,
+        double connectMillis,
+        double serverMillis,
+        double bodyMillis,
+        long bytes,
+        boolean critical
+    ) {
+    }
+}
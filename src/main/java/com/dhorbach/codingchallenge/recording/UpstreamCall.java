@@ -0,0 +1,198 @@
+package com.dhorbach.codingchallenge.recording;
+
+import reactor.core.publisher.SignalType;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Timeline of a single call to GitHub, recorded by the {@link FlightRecorder} for the request it was made for. The
+ * phases are taken from the time the call started, the request was sent, the response headers arrived and the body was
+ * read. The time before the request was sent is further split into pool acquisition, DNS and connect, the latter two
+ * only for calls that opened a new connection.
+ */
+public final class UpstreamCall {
+
+    private final RequestRecording request;
+    private final String method;
+    private final String endpoint;
+    private final String username;
+    private final String repository;
+    private final long startNanos = System.nanoTime();
+    private final GitHubCallEvent event = new GitHubCallEvent();
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private volatile long sentNanos;
+    private volatile long poolNanos;
+    private volatile long dnsNanos;
+    private volatile long connectNanos;
+    private volatile long headersNanos;
+    private volatile long endNanos;
+    private volatile boolean newConnection;
+    private volatile int status;
+    private volatile long bytes;
+    private volatile String outcome;
+
+    private UpstreamCall(final RequestRecording request, final String method, final String endpoint, final String path) {
+        this.request = request;
+        this.method = method;
+        this.endpoint = endpoint;
+        // /users/{username}/repos and /repos/{owner}/{repository}/branches name the account and repository themselves
+        final String[] segments = path.split("/");
+        final int length = segments.length;
+        if (length >= 4 && "repos".equals(segments[length - 4])) {
+            this.username = segments[length - 3];
+            this.repository = segments[length - 2];
+        } else if (length >= 3 && "users".equals(segments[length - 3])) {
+            this.username = segments[length - 2];
+            this.repository = null;
+        } else {
+            this.username = request == null ? null : request.getUsername();
+            this.repository = null;
+        }
+        event.begin();
+    }
+
+    /**
+     * Starts recording a call made within the given context, attributed to the request recorded in it if any.
+     *
+     * @param context  the context of the call
+     * @param method   the HTTP method
+     * @param endpoint the endpoint, one of {@code repos}, {@code branches}, {@code graphql} or {@code other}
+     * @param path     the request path
+     */
+    public static UpstreamCall start(
+        final ContextView context,
+        final String method,
+        final String endpoint,
+        final String path
+    ) {
+        final RequestRecording request = context.getOrDefault(RequestRecording.class, null);
+        final UpstreamCall call = new UpstreamCall(request, method, endpoint, path);
+        if (request != null) {
+            request.started(call);
+        }
+        return call;
+    }
+
+    /**
+     * Marks the request as sent. The times of a new connection are those its channel was opened, the resolution of its
+     * address started and ended and it was connected, including TLS, each 0 if unknown and all 0 for reused ones.
+     *
+     * @param newConnection whether the request is the first one sent on its connection
+     */
+    public void sent(
+        final boolean newConnection,
+        final long openedNanos,
+        final long resolvingNanos,
+        final long resolvedNanos,
+        final long connectedNanos
+    ) {
+        final long now = System.nanoTime();
+        this.newConnection = newConnection;
+        // Whatever the new connection did not spend on opening, it waited for the pool
+        this.poolNanos = Math.max(0, (openedNanos == 0 ? now : Math.min(openedNanos, now)) - startNanos);
+        this.dnsNanos = resolvingNanos == 0 || resolvedNanos == 0 ? 0 : resolvedNanos - resolvingNanos;
+        final long connectingNanos = resolvedNanos != 0 ? resolvedNanos : openedNanos;
+        this.connectNanos = connectedNanos == 0 || connectingNanos == 0 ? 0 : connectedNanos - connectingNanos;
+        this.sentNanos = now;
+    }
+
+    public void headers(final int status) {
+        this.status = status;
+        this.headersNanos = System.nanoTime();
+    }
+
+    /**
+     * Called for every buffer of the response body, which is read sequentially.
+     */
+    public void received(final int bytes) {
+        this.bytes += bytes;
+    }
+
+    /**
+     * Ends the call once, commits its JFR event and adds it to its request.
+     */
+    public void finish(final SignalType signalType) {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        endNanos = System.nanoTime();
+        outcome = RequestRecording.outcome(signalType);
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = request == null ? null : request.getOperation();
+            event.username = username;
+            event.repository = repository;
+            event.endpoint = endpoint;
+            event.status = status;
+            event.outcome = outcome;
+            event.newConnection = newConnection;
+            event.connection = connectionNanos();
+            event.pool = poolNanos;
+            event.dns = dnsNanos;
+            event.connect = connectNanos;
+            event.server = serverNanos();
+            event.body = bodyNanos();
+            event.bytes = bytes;
+            event.commit();
+        }
+        if (request != null) {
+            request.finished(this);
+        }
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    long getEndNanos() {
+        return endNanos;
+    }
+
+    long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @param requestStartNanos the start of the request the call was made for
+     * @param critical          whether the call was the last one of its request to finish
+     */
+    RequestTimeline.Call toTimeline(final long requestStartNanos, final boolean critical) {
+        final long end = endNanos == 0 ? System.nanoTime() : endNanos;
+        return new RequestTimeline.Call(
+            millis(startNanos - requestStartNanos),
+            millis(end - startNanos),
+            method,
+            endpoint,
+            username,
+            repository,
+            status == 0 ? null : status,
+            outcome,
+            newConnection,
+            millis(connectionNanos()),
+            millis(poolNanos),
+            millis(dnsNanos),
+            millis(connectNanos),
+            millis(serverNanos()),
+            millis(bodyNanos()),
+            bytes,
+            critical
+        );
+    }
+
+    private long connectionNanos() {
+        return sentNanos == 0 ? 0 : sentNanos - startNanos;
+    }
+
+    private long serverNanos() {
+        return sentNanos == 0 || headersNanos == 0 ? 0 : headersNanos - sentNanos;
+    }
+
+    private long bodyNanos() {
+        return headersNanos == 0 || endNanos == 0 ? 0 : endNanos - headersNanos;
+    }
+
+    static double millis(final long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -3,41 +3,35 @@ package com.dhorbach.codingchallenge.services;
 import com.dhorbach.codingchallenge.exceptions.NotFoundException;
 import com.dhorbach.codingchallenge.models.GitHubBranch;
 import com.dhorbach.codingchallenge.models.GitHubRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
-import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import com.dhorbach.codingchallenge.models.RepositoryQuery;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
 
 /**
- * Service for fetching data from GitHub APIs.
+ * Service for fetching data from GitHub APIs. The implementation is selected with the {@code github.backend} property.
  */
-@Service
-@RequiredArgsConstructor
-public class GitHubService {
-
-    private final WebClient webClient;
+public interface GitHubService {
 
     /**
-     * Retrieves GitHub repositories for a given username.
+     * Retrieves GitHub repositories for a given username. Implementations may prefetch the branches of the
+     * repositories, see {@link GitHubRepository#getBranches()}.
      *
      * @param username the username
      * @return a flux of GitHub repositories
      * @throws NotFoundException if the user with the given username is not found
      */
-    public Flux<GitHubRepository> getGithubRepositories(final String username) {
-        return webClient.get()
-            .uri("/users/{username}/repos", username)
-            .retrieve()
-            .onStatus(
-                HttpStatus.NOT_FOUND::equals,
-                clientResponse -> Mono.error(
-                    new NotFoundException(String.format("User with username %s not found!", username))
-                )
-            )
-            .bodyToFlux(GitHubRepository.class);
-    }
+    Flux<GitHubRepository> getGithubRepositories(String username);
+
+    /**
+     * Retrieves GitHub repositories for a given username in the order GitHub lists them. A page is only fetched once
+     * the previous one is consumed, so cancelling after the needed repositories saves the remaining pages. Branches are
+     * only prefetched as far as the query includes them.
+     *
+     * @param username the username
+     * @param query    the query the repositories are retrieved for
+     * @return a flux of GitHub repositories in upstream order
+     * @throws NotFoundException if the user with the given username is not found
+     */
+    Flux<GitHubRepository> getGithubRepositories(String username, RepositoryQuery query);
 
     /**
      * Retrieves GitHub branches for a given username and repository name.
@@ -47,18 +41,17 @@ public class GitHubService {
      * @return a flux of GitHub branches
      * @throws NotFoundException if the user or repository with the given username and repository name is not found
      */
-    public Flux<GitHubBranch> getGitHubBranches(final String username, final String repositoryName) {
-        return webClient.get()
-            .uri("/repos/{username}/{repositoryName}/branches", username, repositoryName)
-            .retrieve()
-            .onStatus(
-                HttpStatus.NOT_FOUND::equals,
-                clientResponse -> Mono.error(
-                    new NotFoundException(
-                        String.format("Branch for username %s and repository name %s not found!", username, repositoryName)
-                    )
-                )
-            )
-            .bodyToFlux(GitHubBranch.class);
-    }
+    Flux<GitHubBranch> getGitHubBranches(String username, String repositoryName);
+
+    /**
+     * Retrieves at most the given number of GitHub branches for a given username and repository name, fetching only
+     * the pages needed for them.
+     *
+     * @param username        the username
+     * @param repositoryName  the repository name
+     * @param maxBranches     the maximum number of branches
+     * @return a flux of GitHub branches
+     * @throws NotFoundException if the user or repository with the given username and repository name is not found
+     */
+    Flux<GitHubBranch> getGitHubBranches(String username, String repositoryName, int maxBranches);
 }
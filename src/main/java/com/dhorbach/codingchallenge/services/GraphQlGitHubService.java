@@ -0,0 +1,302 @@
+package com.dhorbach.codingchallenge.services;
+
+import com.dhorbach.codingchallenge.concurrency.GitHubRateLimiter;
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import com.dhorbach.codingchallenge.exceptions.NotFoundException;
+import com.dhorbach.codingchallenge.exceptions.RateLimitExceededException;
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.GitHubRepository;
+import com.dhorbach.codingchallenge.models.RepositoryQuery;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Service for fetching data from the GitHub GraphQL API. Non-fork repositories are fetched together with their
+ * branches in batched, cursor-paginated queries, so a username costs one round trip per page of repositories instead of
+ * one round trip per repository. Only repositories with more branches than fit into one query need further round trips.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "github.backend", havingValue = "graphql")
+public class GraphQlGitHubService implements GitHubService {
+
+    private static final String REPOSITORIES_QUERY = """
+        query($login: String!, $cursor: String, $repositoryPageSize: Int!, $branchPageSize: Int!, $includeBranches: Boolean!) {
+          repositoryOwner(login: $login) {
+            repositories(first: $repositoryPageSize, after: $cursor, isFork: false, ownerAffiliations: OWNER,
+                         privacy: PUBLIC, orderBy: {field: NAME, direction: ASC}) {
+              pageInfo { hasNextPage endCursor }
+              nodes {
+                name
+                isFork
+                owner { login }
+                refs(refPrefix: "refs/heads/", first: $branchPageSize, orderBy: {field: ALPHABETICAL, direction: ASC})
+                    @include(if: $includeBranches) {
+                  pageInfo { hasNextPage endCursor }
+                  nodes { name target { oid } }
+                }
+              }
+            }
+          }
+        }
+        """;
+
+    private static final String BRANCHES_QUERY = """
+        query($owner: String!, $name: String!, $cursor: String, $branchPageSize: Int!) {
+          repository(owner: $owner, name: $name) {
+            refs(refPrefix: "refs/heads/", first: $branchPageSize, after: $cursor, orderBy: {field: ALPHABETICAL, direction: ASC}) {
+              pageInfo { hasNextPage endCursor }
+              nodes { name target { oid } }
+            }
+          }
+        }
+        """;
+
+    private final WebClient webClient;
+    private final GitHubProperties gitHubProperties;
+
+    @Override
+    public Flux<GitHubRepository> getGithubRepositories(final String username) {
+        return getGithubRepositories(username, RepositoryQuery.ALL);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Branches are prefetched only up to the branch limit of the query, and not requested at all if the query does not
+     * include them.
+     */
+    @Override
+    public Flux<GitHubRepository> getGithubRepositories(final String username, final RepositoryQuery query) {
+        final Supplier<NotFoundException> notFound =
+            () -> new NotFoundException(String.format("User with username %s not found!", username));
+        final int maxBranches = query.getBranchLimit();
+        return getRepositoriesPage(username, null, maxBranches, notFound)
+            .expand(page -> page.hasNextPage()
+                ? getRepositoriesPage(username, page.endCursor(), maxBranches, notFound)
+                : Mono.empty())
+            .flatMapIterable(Connection::nodes)
+            .flatMapSequential(
+                node -> toRepository(username, node, maxBranches),
+                gitHubProperties.getPagination().getConcurrency()
+            );
+    }
+
+    @Override
+    public Flux<GitHubBranch> getGitHubBranches(final String username, final String repositoryName) {
+        return getBranches(username, repositoryName, null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Flux<GitHubBranch> getGitHubBranches(
+        final String username,
+        final String repositoryName,
+        final int maxBranches
+    ) {
+        return getBranches(username, repositoryName, null, maxBranches);
+    }
+
+    /**
+     * Retrieves branches of a repository starting after the given cursor.
+     *
+     * @param username       the username
+     * @param repositoryName the repository name
+     * @param cursor         the cursor of the last already fetched branch, {@code null} to start with the first one
+     * @param maxBranches    the maximum number of branches
+     * @return a flux of GitHub branches
+     */
+    private Flux<GitHubBranch> getBranches(
+        final String username,
+        final String repositoryName,
+        final String cursor,
+        final int maxBranches
+    ) {
+        final Supplier<NotFoundException> notFound = () -> new NotFoundException(
+            String.format("Branch for username %s and repository name %s not found!", username, repositoryName)
+        );
+        return getBranchesPage(username, repositoryName, cursor, maxBranches, notFound)
+            .expand(page -> page.hasNextPage()
+                ? getBranchesPage(username, repositoryName, page.endCursor(), maxBranches, notFound)
+                : Mono.empty())
+            .flatMapIterable(page -> toBranches(page.nodes()))
+            .take(maxBranches);
+    }
+
+    private Mono<Connection> getRepositoriesPage(
+        final String username,
+        final String cursor,
+        final int maxBranches,
+        final Supplier<NotFoundException> notFound
+    ) {
+        final Map<String, Object> variables = new HashMap<>();
+        variables.put("login", username);
+        variables.put("cursor", cursor);
+        variables.put("repositoryPageSize", gitHubProperties.getGraphql().getRepositoryPageSize());
+        variables.put("branchPageSize", branchPageSize(maxBranches));
+        variables.put("includeBranches", maxBranches > 0);
+        return query(REPOSITORIES_QUERY, variables, GitHubRateLimiter.Priority.HIGH, notFound)
+            .flatMap(data -> connection(data.path("repositoryOwner"), "repositories", notFound));
+    }
+
+    private Mono<Connection> getBranchesPage(
+        final String username,
+        final String repositoryName,
+        final String cursor,
+        final int maxBranches,
+        final Supplier<NotFoundException> notFound
+    ) {
+        final Map<String, Object> variables = new HashMap<>();
+        variables.put("owner", username);
+        variables.put("name", repositoryName);
+        variables.put("cursor", cursor);
+        variables.put("branchPageSize", branchPageSize(maxBranches));
+        return query(BRANCHES_QUERY, variables, GitHubRateLimiter.Priority.LOW, notFound)
+            .flatMap(data -> connection(data.path("repository"), "refs", notFound));
+    }
+
+    /**
+     * Executes a GraphQL query.
+     *
+     * @param query     the query
+     * @param variables the query variables
+     * @param priority  the rate limit priority of the call
+     * @param notFound  supplier of the exception emitted when the query reports a {@code NOT_FOUND} error
+     * @return a mono of the {@code data} of the response
+     */
+    private Mono<JsonNode> query(
+        final String query,
+        final Map<String, Object> variables,
+        final GitHubRateLimiter.Priority priority,
+        final Supplier<NotFoundException> notFound
+    ) {
+        return webClient.post()
+            .uri(gitHubProperties.getGraphql().getPath())
+            .attribute(GitHubRateLimiter.PRIORITY_ATTRIBUTE, priority)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of("query", query, "variables", variables))
+            .retrieve()
+            .toEntity(JsonNode.class)
+            .flatMap(entity -> {
+                final JsonNode response = entity.getBody() == null ? MissingNode.getInstance() : entity.getBody();
+                final JsonNode errors = response.path("errors");
+                if (errors.isEmpty()) {
+                    return Mono.just(response.path("data"));
+                }
+                final JsonNode error = errors.get(0);
+                if ("NOT_FOUND".equals(error.path("type").asText())) {
+                    return Mono.error(notFound.get());
+                }
+                if ("RATE_LIMITED".equals(error.path("type").asText())) {
+                    return Mono.error(new RateLimitExceededException(
+                        String.format("GitHub rate limit is exhausted: %s", error.path("message").asText()),
+                        retryAfter(entity.getHeaders())
+                    ));
+                }
+                return Mono.error(new IllegalStateException(
+                    String.format("GitHub GraphQL query failed: %s", error.path("message").asText())
+                ));
+            });
+    }
+
+    /**
+     * Reads when a query rejected by the GraphQL rate limit can be retried, from {@code Retry-After} or the reset time
+     * of the rate limit window like for REST responses, and one minute if neither is given.
+     */
+    private static Duration retryAfter(final HttpHeaders headers) {
+        final String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        final String reset = headers.getFirst(GitHubRateLimiter.RESET_HEADER);
+        try {
+            if (retryAfter != null) {
+                return Duration.ofSeconds(Long.parseLong(retryAfter.trim()));
+            }
+            if (reset != null) {
+                final Instant resetAt = Instant.ofEpochSecond(Long.parseLong(reset.trim()));
+                final Duration untilReset = Duration.between(Instant.now(), resetAt);
+                return untilReset.isNegative() ? Duration.ZERO : untilReset;
+            }
+        } catch (final NumberFormatException e) {
+            // fall through to the default
+        }
+        return Duration.ofMinutes(1);
+    }
+
+    /**
+     * Number of branches requested per query, at least 1 as GitHub rejects empty pages.
+     */
+    private int branchPageSize(final int maxBranches) {
+        return Math.max(1, Math.min(maxBranches, gitHubProperties.getGraphql().getBranchPageSize()));
+    }
+
+    /**
+     * Completes a prefetched repository node with the branches that did not fit into the repositories query, up to
+     * the given maximum number of branches.
+     */
+    private Mono<GitHubRepository> toRepository(final String username, final JsonNode node, final int maxBranches) {
+        final String name = node.path("name").asText();
+        final JsonNode refs = node.path("refs");
+        final List<GitHubBranch> branches = toBranches(refs.path("nodes"));
+        final JsonNode pageInfo = refs.path("pageInfo");
+        final boolean hasMoreBranches = pageInfo.path("hasNextPage").asBoolean() && branches.size() < maxBranches;
+        final Mono<List<GitHubBranch>> allBranches = hasMoreBranches
+            ? getBranches(username, name, pageInfo.path("endCursor").asText(), maxBranches - branches.size())
+                .collectList()
+                .map(remainingBranches -> {
+                    branches.addAll(remainingBranches);
+                    return branches;
+                })
+            : Mono.just(branches);
+        return allBranches.map(repositoryBranches -> new GitHubRepository(
+            name,
+            node.path("isFork").asBoolean(),
+            node.path("owner").path("login").asText(),
+            repositoryBranches
+        ));
+    }
+
+    private static List<GitHubBranch> toBranches(final JsonNode nodes) {
+        final List<GitHubBranch> branches = new ArrayList<>(nodes.size());
+        for (final JsonNode node : nodes) {
+            branches.add(new GitHubBranch(node.path("name").asText(), node.path("target").path("oid").asText()));
+        }
+        return branches;
+    }
+
+    private static Mono<Connection> connection(
+        final JsonNode parent,
+        final String field,
+        final Supplier<NotFoundException> notFound
+    ) {
+        if (parent.isNull() || parent.isMissingNode()) {
+            return Mono.error(notFound.get());
+        }
+        final JsonNode connection = parent.path(field);
+        final JsonNode pageInfo = connection.path("pageInfo");
+        return Mono.just(new Connection(
+            connection.path("nodes"),
+            pageInfo.path("hasNextPage").asBoolean(),
+            pageInfo.path("endCursor").asText(null)
+        ));
+    }
+
+    /**
+     * A page of a GraphQL connection.
+     */
+    private record Connection(JsonNode nodes, boolean hasNextPage, String endCursor) {
+    }
+}
@@ -1,39 +1,437 @@
 package com.dhorbach.codingchallenge.services;
 
+import com.dhorbach.codingchallenge.cache.NegativeCache;
+import com.dhorbach.codingchallenge.cache.RepositoryCache;
+import com.dhorbach.codingchallenge.concurrency.AdaptiveConcurrencyLimiter;
+import com.dhorbach.codingchallenge.concurrency.GitHubRateLimiter;
+import com.dhorbach.codingchallenge.concurrency.RequestHedger;
+import com.dhorbach.codingchallenge.exceptions.NotFoundException;
+import com.dhorbach.codingchallenge.exceptions.RateLimitExceededException;
+import com.dhorbach.codingchallenge.filters.HedgingExchangeFilterFunction;
 import com.dhorbach.codingchallenge.models.GitHubBranch;
 import com.dhorbach.codingchallenge.models.GitHubRepository;
 import com.dhorbach.codingchallenge.models.Repository;
-import lombok.RequiredArgsConstructor;
+import com.dhorbach.codingchallenge.models.RepositoryQuery;
+import com.dhorbach.codingchallenge.models.StreamedRepository;
+import com.dhorbach.codingchallenge.models.UserRepositories;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service for retrieving repositories.
+ * <p>
+ * Publishes the width of the branch fan-out per upstream load ({@code repositories.fanout}), the number of branches
+ * per repository ({@code repositories.branches}), branch fetches that failed and were answered with an empty list
+ * ({@code repositories.branches.failures}) and the requests currently in flight. In-flight requests are tracked per
+ * username, but published as totals and as the maximum per username to keep usernames out of the metric tags.
  */
 @Service
-@RequiredArgsConstructor
 public class RepositoryService {
 
     private final GitHubService gitHubService;
+    private final RepositoryCache repositoryCache;
+    private final NegativeCache negativeCache;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Integer> inFlight = new ConcurrentHashMap<>();
+
+    private final DistributionSummary fanOut;
+    private final DistributionSummary branchesPerRepository;
+
+    public RepositoryService(
+        final GitHubService gitHubService,
+        final RepositoryCache repositoryCache,
+        final NegativeCache negativeCache,
+        final MeterRegistry meterRegistry
+    ) {
+        this.gitHubService = gitHubService;
+        this.repositoryCache = repositoryCache;
+        this.negativeCache = negativeCache;
+        this.meterRegistry = meterRegistry;
+        this.fanOut = DistributionSummary.builder("repositories.fanout")
+            .description("Branch fetches started by a single upstream load of repositories")
+            .baseUnit("calls")
+            .register(meterRegistry);
+        this.branchesPerRepository = DistributionSummary.builder("repositories.branches")
+            .description("Branches per repository")
+            .baseUnit("branches")
+            .register(meterRegistry);
+        Gauge.builder("repositories.requests.in-flight", inFlight, RepositoryService::total)
+            .description("Requests for repositories currently in flight")
+            .register(meterRegistry);
+        Gauge.builder("repositories.requests.in-flight.usernames", inFlight, Map::size)
+            .description("Distinct usernames with requests currently in flight")
+            .register(meterRegistry);
+        Gauge.builder("repositories.requests.in-flight.max-per-username", inFlight, RepositoryService::maxPerUsername)
+            .description("Requests currently in flight for the username with the most of them")
+            .register(meterRegistry);
+    }
 
     /**
-     * Retrieves repositories and its corresponding branches for a given username.
+     * Retrieves repositories and its corresponding branches for a given username in the order their branches arrive.
      *
      * @param username the username
      * @return a flux of repositories
+     * @see #getRepositories(String, boolean)
      */
     public Flux<Repository> getRepositories(final String username) {
-        return gitHubService.getGithubRepositories(username)
-            .filter(repository -> !repository.isFork())
-            .flatMap(gitHubRepository ->
-                gitHubService.getGitHubBranches(username, gitHubRepository.getName())
+        return getRepositories(username, false);
+    }
+
+    /**
+     * Retrieves repositories and its corresponding branches for a given username. Results are served from the
+     * {@link RepositoryCache}, concurrent requests for the same username share a single upstream fan-out. Usernames
+     * in the {@link NegativeCache} fail without an upstream call.
+     * <p>
+     * By default, a repository is emitted as soon as its branches arrive, so repositories with fewer branches tend to
+     * come first. In upstream order, a repository is held back until all repositories listed before it are emitted.
+     * Repositories served from the cache are always in upstream order.
+     *
+     * @param username the username
+     * @param ordered  whether to emit repositories in the order GitHub lists them
+     * @return a flux of repositories
+     * @throws NotFoundException if the user with the given username is not found
+     */
+    public Flux<Repository> getRepositories(final String username, final boolean ordered) {
+        if (negativeCache.contains(username)) {
+            return Flux.error(new NotFoundException(String.format("User with username %s not found!", username)));
+        }
+        final Flux<Tuple2<Long, Repository>> repositories =
+            repositoryCache.get(username, key -> fetchRepositories(key, RepositoryQuery.ALL));
+        return tracked(username, ordered ? inUpstreamOrder(repositories) : repositories.map(Tuple2::getT2));
+    }
+
+    /**
+     * Retrieves the projection of the repositories of a given username the query asks for. Unrestricted queries are
+     * answered like {@link #getRepositories(String, boolean)}. Other queries are answered from fresh cached
+     * repositories if there are any, and otherwise fetched from GitHub without caching the partial result: repositories
+     * are filtered by name and paged before their branches are fetched, GitHub pages after the requested page are not
+     * fetched and branches are fetched only as far as the query includes them.
+     *
+     * @param username the username
+     * @param ordered  whether to emit repositories in the order GitHub lists them
+     * @param query    the query
+     * @return a flux of repositories
+     * @throws NotFoundException if the user with the given username is not found
+     */
+    public Flux<Repository> getRepositories(
+        final String username,
+        final boolean ordered,
+        final RepositoryQuery query
+    ) {
+        if (query.isUnrestricted()) {
+            return getRepositories(username, ordered);
+        }
+        if (negativeCache.contains(username)) {
+            return Flux.error(new NotFoundException(String.format("User with username %s not found!", username)));
+        }
+        final Flux<Repository> repositories = repositoryCache.getIfPresent(username)
+            .map(cached -> {
+                final Flux<Repository> matching =
+                    Flux.fromIterable(cached).filter(repository -> query.matches(repository.getName()));
+                return window(matching, query).map(repository -> project(repository, query));
+            })
+            .orElseGet(() -> {
+                final Flux<Tuple2<Long, Repository>> fetched = fetchRepositories(username, query);
+                return ordered ? inUpstreamOrder(fetched) : fetched.map(Tuple2::getT2);
+            });
+        return tracked(username, repositories);
+    }
+
+    /**
+     * Streams the projection of the repositories of a given username the query asks for, with branches that are
+     * fetched only as fast as they are consumed, so that memory per request does not grow with the number of branches.
+     * Repositories are emitted in upstream order and the branches of a repository are fetched once it is consumed, so a
+     * consumer writing one repository after another fetches the branches of one repository at a time.
+     * <p>
+     * Fresh cached repositories are streamed from the cache. Otherwise repositories are listed from GitHub without
+     * prefetching branches and nothing is cached, as caching would hold all branches in memory again. Branch streams
+     * are not limited by the {@link AdaptiveConcurrencyLimiter} or hedged, as their duration depends on the consumer.
+     *
+     * @param username the username
+     * @param query    the query
+     * @return a flux of repositories with streamed branches
+     * @throws NotFoundException if the user with the given username is not found
+     */
+    public Flux<StreamedRepository> streamRepositories(final String username, final RepositoryQuery query) {
+        if (negativeCache.contains(username)) {
+            return Flux.error(new NotFoundException(String.format("User with username %s not found!", username)));
+        }
+        final Flux<StreamedRepository> repositories = repositoryCache.getIfPresent(username)
+            .map(cached -> {
+                final Flux<Repository> matching =
+                    Flux.fromIterable(cached).filter(repository -> query.matches(repository.getName()));
+                return window(matching, query).map(repository -> {
+                    final Repository projected = project(repository, query);
+                    return StreamedRepository.builder()
+                        .name(projected.getName())
+                        .ownerLogin(projected.getOwnerLogin())
+                        .branches(projected.getBranches() == null ? null : Flux.fromIterable(projected.getBranches()))
+                        .build();
+                });
+            })
+            .orElseGet(() -> {
+                final Flux<GitHubRepository> matching = gitHubService
+                    .getGithubRepositories(username, query.toBuilder().includeBranches(false).build())
+                    .doOnError(NotFoundException.class, e -> negativeCache.add(username))
+                    .filter(repository -> !repository.isFork() && query.matches(repository.getName()));
+                return window(matching, query).map(repository -> StreamedRepository.builder()
+                    .name(repository.getName())
+                    .ownerLogin(repository.getOwnerLogin())
+                    .branches(query.isIncludeBranches()
+                        ? streamBranches(username, repository.getName(), query.getBranchLimit())
+                        : null)
+                    .build());
+            });
+        return tracked(username, repositories);
+    }
+
+    /**
+     * @param username the username
+     * @return whether repositories of the given username are cached and fresh, so a request is answered without
+     * upstream calls
+     */
+    public boolean isCached(final String username) {
+        return repositoryCache.contains(username);
+    }
+
+    /**
+     * Retrieves repositories of many usernames, each of them like {@link #getRepositories(String, boolean)} in
+     * upstream order. Usernames are deduplicated case-insensitively, keeping the first spelling. A username that cannot
+     * be retrieved results in an element with the error instead of failing the whole batch.
+     *
+     * @param usernames   the usernames
+     * @param concurrency the number of usernames retrieved concurrently
+     * @return a flux with an element per distinct username, in the order the usernames complete
+     */
+    public Flux<UserRepositories> getRepositories(final Collection<String> usernames, final int concurrency) {
+        final Map<String, String> distinct = new LinkedHashMap<>();
+        usernames.forEach(username -> distinct.putIfAbsent(username.toLowerCase(Locale.ROOT), username));
+        return Flux.fromIterable(distinct.values())
+            .flatMap(
+                username -> Flux.defer(() -> getRepositories(username, true))
                     .collectList()
-                    .onErrorResume(throwable -> Mono.just(Collections.emptyList()))
-                    .map(branches -> buildRepository(gitHubRepository, branches)));
+                    .map(repositories -> UserRepositories.builder()
+                        .username(username)
+                        .repositories(repositories)
+                        .build())
+                    .onErrorResume(throwable -> Mono.just(UserRepositories.builder()
+                        .username(username)
+                        .error(throwable)
+                        .build())),
+                concurrency
+            );
+    }
+
+    /**
+     * Fetches a single repository of a given username with all of its branches from GitHub, to refresh it in the
+     * {@link RepositoryCache} without fetching all other repositories of the username. The branch fetch shares the
+     * {@link AdaptiveConcurrencyLimiter} with all other branch fetches.
+     *
+     * @param username       the username
+     * @param repositoryName the name of the repository
+     * @return a mono of the repository
+     */
+    public Mono<Repository> fetchRepository(final String username, final String repositoryName) {
+        final GitHubRepository gitHubRepository = new GitHubRepository(repositoryName, false, username);
+        return getBranches(username, gitHubRepository, Integer.MAX_VALUE)
+            .doOnNext(branches -> branchesPerRepository.record(branches.size()))
+            .map(branches -> buildRepository(gitHubRepository, branches));
+    }
+
+    /**
+     * Counts the given request as in flight for the given username from subscription until it terminates or is
+     * cancelled.
+     *
+     * @param username     the username
+     * @param repositories the repositories of the request
+     * @return a flux of repositories
+     */
+    private <T> Flux<T> tracked(final String username, final Flux<T> repositories) {
+        return Flux.defer(() -> {
+            inFlight.merge(username, 1, Integer::sum);
+            return repositories.doFinally(signalType -> inFlight.computeIfPresent(
+                username, (key, count) -> count == 1 ? null : count - 1
+            ));
+        });
+    }
+
+    /**
+     * Fetches the repositories a query asks for and their corresponding branches from GitHub. Branch calls of all
+     * requests share the {@link AdaptiveConcurrencyLimiter} and slow ones are hedged by the {@link RequestHedger}, both
+     * per page by the {@link HedgingExchangeFilterFunction}. A failed branch fetch results in a repository without
+     * branches, unless it failed because of the rate limit, which fails the whole request instead of returning
+     * incomplete data. The calls of a load are admitted by the
+     * {@link GitHubRateLimiter} as a unit. Unknown usernames are added to the {@link NegativeCache}.
+     *
+     * @param username the username
+     * @param query    the query
+     * @return a flux of repositories tagged with their upstream position, in the order their branches arrive
+     */
+    private Flux<Tuple2<Long, Repository>> fetchRepositories(final String username, final RepositoryQuery query) {
+        return GitHubRateLimiter.budgeted(Flux.defer(() -> {
+            final AtomicInteger branchFetches = new AtomicInteger();
+            final Flux<GitHubRepository> gitHubRepositories = query.isUnrestricted()
+                ? gitHubService.getGithubRepositories(username)
+                : gitHubService.getGithubRepositories(username, query);
+            final Flux<GitHubRepository> matching = gitHubRepositories
+                .doOnError(NotFoundException.class, e -> negativeCache.add(username))
+                .filter(repository -> !repository.isFork() && query.matches(repository.getName()));
+            return window(matching, query)
+                .index()
+                .flatMap(indexed -> {
+                    if (!query.isIncludeBranches()) {
+                        return Mono.just(Tuples.of(indexed.getT1(), buildRepository(indexed.getT2(), null)));
+                    }
+                    if (indexed.getT2().getBranches() == null) {
+                        branchFetches.incrementAndGet();
+                    }
+                    return getBranches(username, indexed.getT2(), query.getBranchLimit())
+                        .doOnNext(branches -> branchesPerRepository.record(branches.size()))
+                        .map(branches -> Tuples.of(indexed.getT1(), buildRepository(indexed.getT2(), branches)));
+                })
+                .doOnComplete(() -> fanOut.record(branchFetches.get()));
+        }));
+    }
+
+    /**
+     * Limits repositories to the page of the query. Repositories after the page are not requested, so their
+     * upstream pages are not fetched.
+     *
+     * @param repositories the repositories matching the query
+     * @param query        the query
+     * @return a flux of the repositories of the page
+     */
+    private static <T> Flux<T> window(final Flux<T> repositories, final RepositoryQuery query) {
+        if (query.getSize() == null) {
+            return repositories;
+        }
+        return repositories.skip(query.getOffset()).take(query.getSize());
+    }
+
+    /**
+     * Limits the branches of a cached repository to the ones the query includes.
+     *
+     * @param repository the repository with all of its branches
+     * @param query      the query
+     * @return the projected repository
+     */
+    private static Repository project(final Repository repository, final RepositoryQuery query) {
+        if (!query.isIncludeBranches()) {
+            return repository.toBuilder().branches(null).build();
+        }
+        final List<GitHubBranch> branches = repository.getBranches();
+        if (branches == null || branches.size() <= query.getBranchLimit()) {
+            return repository;
+        }
+        return repository.toBuilder().branches(branches.subList(0, query.getBranchLimit())).build();
+    }
+
+    /**
+     * Restores the upstream order of repositories, buffering those that arrive before their predecessors.
+     *
+     * @param repositories repositories tagged with their upstream position
+     * @return a flux of repositories in upstream order
+     */
+    private static Flux<Repository> inUpstreamOrder(final Flux<Tuple2<Long, Repository>> repositories) {
+        return Flux.defer(() -> {
+            final Map<Long, Repository> pending = new HashMap<>();
+            final long[] next = new long[1];
+            return repositories.concatMapIterable(indexed -> {
+                pending.put(indexed.getT1(), indexed.getT2());
+                final List<Repository> ready = new ArrayList<>();
+                Repository repository;
+                while ((repository = pending.remove(next[0])) != null) {
+                    ready.add(repository);
+                    next[0]++;
+                }
+                return ready;
+            });
+        });
+    }
+
+    /**
+     * Retrieves branches of the given repository, unless they were already prefetched together with the repository.
+     *
+     * @param username         the username
+     * @param gitHubRepository the {@link GitHubRepository} object
+     * @param maxBranches      the maximum number of branches, {@link Integer#MAX_VALUE} for all of them
+     * @return a mono of the list of {@link GitHubBranch} objects
+     */
+    private Mono<List<GitHubBranch>> getBranches(
+        final String username,
+        final GitHubRepository gitHubRepository,
+        final int maxBranches
+    ) {
+        final List<GitHubBranch> prefetched = gitHubRepository.getBranches();
+        if (prefetched != null) {
+            return Mono.just(prefetched.size() <= maxBranches ? prefetched : prefetched.subList(0, maxBranches));
+        }
+        final Flux<GitHubBranch> branches = maxBranches == Integer.MAX_VALUE
+            ? gitHubService.getGitHubBranches(username, gitHubRepository.getName())
+            : gitHubService.getGitHubBranches(username, gitHubRepository.getName(), maxBranches);
+        return branches.collectList()
+            .onErrorResume(
+                throwable -> !(throwable instanceof RateLimitExceededException),
+                throwable -> {
+                    countBranchFailure(throwable);
+                    return Mono.just(Collections.emptyList());
+                }
+            );
+    }
+
+    /**
+     * Streams branches of the given repository as fast as they are consumed. A fetch failing before its first branch
+     * results in no branches like in {@link #getBranches(String, GitHubRepository, int)}, a fetch failing later fails
+     * the stream, as branches already emitted cannot be taken back.
+     *
+     * @param username       the username
+     * @param repositoryName the name of the repository
+     * @param maxBranches    the maximum number of branches, {@link Integer#MAX_VALUE} for all of them
+     * @return a flux of branches
+     */
+    private Flux<GitHubBranch> streamBranches(final String username, final String repositoryName, final int maxBranches) {
+        return Flux.defer(() -> {
+            final boolean[] emitted = new boolean[1];
+            final Flux<GitHubBranch> branches = maxBranches == Integer.MAX_VALUE
+                ? gitHubService.getGitHubBranches(username, repositoryName)
+                : gitHubService.getGitHubBranches(username, repositoryName, maxBranches);
+            return branches
+                .doOnNext(branch -> emitted[0] = true)
+                .onErrorResume(
+                    throwable -> !emitted[0] && !(throwable instanceof RateLimitExceededException),
+                    throwable -> {
+                        countBranchFailure(throwable);
+                        return Flux.empty();
+                    }
+                );
+        });
+    }
+
+    private void countBranchFailure(final Throwable throwable) {
+        Counter.builder("repositories.branches.failures")
+            .description("Branch fetches that failed and were answered with an empty list of branches")
+            .tag("exception", throwable.getClass().getSimpleName())
+            .register(meterRegistry)
+            .increment();
     }
 
     /**
@@ -53,4 +451,12 @@ public class RepositoryService {
             .branches(gitHubBranches)
             .build();
     }
+
+    private static int total(final Map<String, Integer> inFlight) {
+        return inFlight.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private static int maxPerUsername(final Map<String, Integer> inFlight) {
+        return inFlight.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
 }
@@ -0,0 +1,219 @@
+package com.dhorbach.codingchallenge.services;
+
+import com.dhorbach.codingchallenge.concurrency.GitHubRateLimiter;
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import com.dhorbach.codingchallenge.exceptions.NotFoundException;
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.GitHubRepository;
+import com.dhorbach.codingchallenge.models.RepositoryQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Service for fetching data from GitHub REST APIs.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "github.backend", havingValue = "rest", matchIfMissing = true)
+public class RestGitHubService implements GitHubService {
+
+    private static final Pattern LAST_PAGE_LINK = Pattern.compile("<([^>]*)>\\s*;\\s*rel=\"last\"");
+
+    private final WebClient webClient;
+    private final GitHubProperties gitHubProperties;
+
+    @Override
+    public Flux<GitHubRepository> getGithubRepositories(final String username) {
+        return getAllPages(
+            "/users/{username}/repos",
+            GitHubRepository.class,
+            GitHubRateLimiter.Priority.HIGH,
+            () -> new NotFoundException(String.format("User with username %s not found!", username)),
+            username
+        );
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Repositories are never prefetched with branches by the REST API, the query only limits the pages fetched.
+     */
+    @Override
+    public Flux<GitHubRepository> getGithubRepositories(final String username, final RepositoryQuery query) {
+        return getPagesInOrder(
+            "/users/{username}/repos",
+            gitHubProperties.getPagination().getPageSize(),
+            GitHubRepository.class,
+            GitHubRateLimiter.Priority.HIGH,
+            () -> new NotFoundException(String.format("User with username %s not found!", username)),
+            username
+        );
+    }
+
+    @Override
+    public Flux<GitHubBranch> getGitHubBranches(final String username, final String repositoryName) {
+        return getAllPages(
+            "/repos/{username}/{repositoryName}/branches",
+            GitHubBranch.class,
+            GitHubRateLimiter.Priority.LOW,
+            () -> new NotFoundException(
+                String.format("Branch for username %s and repository name %s not found!", username, repositoryName)
+            ),
+            username, repositoryName
+        );
+    }
+
+    @Override
+    public Flux<GitHubBranch> getGitHubBranches(
+        final String username,
+        final String repositoryName,
+        final int maxBranches
+    ) {
+        return getPagesInOrder(
+                "/repos/{username}/{repositoryName}/branches",
+                Math.min(maxBranches, gitHubProperties.getPagination().getPageSize()),
+                GitHubBranch.class,
+                GitHubRateLimiter.Priority.LOW,
+                () -> new NotFoundException(
+                    String.format("Branch for username %s and repository name %s not found!", username, repositoryName)
+                ),
+                username, repositoryName
+            )
+            .take(maxBranches);
+    }
+
+    /**
+     * Retrieves all pages of a GitHub list endpoint. The first page is fetched on its own to read the last page number
+     * from the {@code Link} header, the remaining pages are then fetched concurrently. Elements are emitted in the order
+     * GitHub lists them: a page that arrives before its predecessors is buffered until they are emitted, so positions
+     * assigned downstream match the upstream listing.
+     *
+     * @param path         the URI template of the list endpoint
+     * @param elementType  the type of the list elements
+     * @param priority     the rate limit priority of the calls
+     * @param notFound     supplier of the exception emitted when the endpoint responds with 404
+     * @param uriVariables the URI template variables
+     * @return a flux of elements of all pages
+     */
+    private <T> Flux<T> getAllPages(
+        final String path,
+        final Class<T> elementType,
+        final GitHubRateLimiter.Priority priority,
+        final Supplier<NotFoundException> notFound,
+        final Object... uriVariables
+    ) {
+        final GitHubProperties.Pagination pagination = gitHubProperties.getPagination();
+        final int pageSize = pagination.getPageSize();
+        return getPage(path, 1, pageSize, elementType, priority, notFound, uriVariables)
+            .flatMapMany(firstPage -> {
+                final int lastPage = getLastPage(firstPage.getHeaders());
+                final Flux<T> remainingPages = Flux.range(2, Math.max(lastPage - 1, 0))
+                    .flatMapSequential(
+                        page -> getPage(path, page, pageSize, elementType, priority, notFound, uriVariables)
+                            .flatMapMany(ResponseEntity::getBody),
+                        pagination.getConcurrency()
+                    );
+                return Flux.mergeSequential(firstPage.getBody(), remainingPages);
+            });
+    }
+
+    /**
+     * Retrieves the pages of a GitHub list endpoint one after another. A page is only requested once all elements of
+     * the previous page are consumed, so a subscriber cancelling early saves the remaining pages. Elements are emitted
+     * in the order GitHub lists them.
+     *
+     * @param path         the URI template of the list endpoint
+     * @param pageSize     the number of elements requested per page
+     * @param elementType  the type of the list elements
+     * @param priority     the rate limit priority of the calls
+     * @param notFound     supplier of the exception emitted when the endpoint responds with 404
+     * @param uriVariables the URI template variables
+     * @return a flux of elements of all pages
+     */
+    private <T> Flux<T> getPagesInOrder(
+        final String path,
+        final int pageSize,
+        final Class<T> elementType,
+        final GitHubRateLimiter.Priority priority,
+        final Supplier<NotFoundException> notFound,
+        final Object... uriVariables
+    ) {
+        return getPage(path, 1, pageSize, elementType, priority, notFound, uriVariables)
+            .flatMapMany(firstPage -> {
+                final int lastPage = getLastPage(firstPage.getHeaders());
+                final Flux<T> remainingPages = Flux.range(2, Math.max(lastPage - 1, 0))
+                    .concatMap(page -> getPage(path, page, pageSize, elementType, priority, notFound, uriVariables)
+                        .flatMapMany(ResponseEntity::getBody));
+                return Flux.concat(firstPage.getBody(), remainingPages);
+            });
+    }
+
+    /**
+     * Retrieves a single page of a GitHub list endpoint.
+     *
+     * @param path         the URI template of the list endpoint
+     * @param page         the page number, starting with 1
+     * @param pageSize     the number of elements requested per page
+     * @param elementType  the type of the list elements
+     * @param priority     the rate limit priority of the call
+     * @param notFound     supplier of the exception emitted when the endpoint responds with 404
+     * @param uriVariables the URI template variables
+     * @return a mono of the response entity with a streamed body
+     */
+    private <T> Mono<ResponseEntity<Flux<T>>> getPage(
+        final String path,
+        final int page,
+        final int pageSize,
+        final Class<T> elementType,
+        final GitHubRateLimiter.Priority priority,
+        final Supplier<NotFoundException> notFound,
+        final Object... uriVariables
+    ) {
+        return webClient.get()
+            .uri(uriBuilder -> uriBuilder.path(path)
+                .queryParam("per_page", pageSize)
+                .queryParam("page", page)
+                .build(uriVariables))
+            .attribute(GitHubRateLimiter.PRIORITY_ATTRIBUTE, priority)
+            .retrieve()
+            .onStatus(HttpStatus.NOT_FOUND::equals, clientResponse -> Mono.error(notFound.get()))
+            .toEntityFlux(elementType);
+    }
+
+    /**
+     * Reads the last page number from the {@code Link} header of a GitHub list response.
+     *
+     * @param headers the response headers
+     * @return the last page number, or 1 if the response has no further pages
+     */
+    private static int getLastPage(final HttpHeaders headers) {
+        final List<String> links = headers.get(HttpHeaders.LINK);
+        if (links == null) {
+            return 1;
+        }
+        for (final String link : links) {
+            final Matcher matcher = LAST_PAGE_LINK.matcher(link);
+            if (matcher.find()) {
+                final String lastPage = UriComponentsBuilder.fromUriString(matcher.group(1))
+                    .build()
+                    .getQueryParams()
+                    .getFirst("page");
+                return lastPage == null ? 1 : Integer.parseInt(lastPage);
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,337 @@
+package com.dhorbach.codingchallenge.services;
+
+import com.dhorbach.codingchallenge.cache.NegativeCache;
+import com.dhorbach.codingchallenge.cache.RepositoryCache;
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.Repository;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+/**
+ * Service applying GitHub webhook events to the {@link RepositoryCache}, so that cached repositories stay fresh
+ * without fetching all repositories of their owner again.
+ * <p>
+ * {@code push}, {@code create} and {@code delete} events update the branches of a single cached repository in place.
+ * {@code repository} events add, remove or rename a single cached repository. Where an event lacks the data to update
+ * a repository in place, for example a new branch without its commit SHA or a new repository, only that repository is
+ * fetched again. Forks are never part of the cached repositories, so events of forks and {@code fork} events are
+ * ignored.
+ * <p>
+ * Publishes the handled events as {@code github.webhooks.events} tagged with the {@code event} and the {@code outcome}
+ * ({@code updated}, {@code refreshed}, {@code ignored} or {@code rejected}).
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "github.webhook.enabled", havingValue = "true")
+public class WebhookService {
+
+    private static final String SIGNATURE_PREFIX = "sha256=";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String BRANCH_REF_PREFIX = "refs/heads/";
+    /**
+     * Events tagged by their name, others are tagged as {@code other} to keep the header out of the metric tags.
+     */
+    private static final Set<String> EVENTS = Set.of("ping", "push", "create", "delete", "repository", "fork");
+
+    private final SecretKeySpec secret;
+    private final RepositoryCache repositoryCache;
+    private final NegativeCache negativeCache;
+    private final RepositoryService repositoryService;
+    private final MeterRegistry meterRegistry;
+
+    public WebhookService(
+        final GitHubProperties gitHubProperties,
+        final RepositoryCache repositoryCache,
+        final NegativeCache negativeCache,
+        final RepositoryService repositoryService,
+        final MeterRegistry meterRegistry
+    ) {
+        final String webhookSecret = gitHubProperties.getWebhook().getSecret();
+        if (!StringUtils.hasText(webhookSecret)) {
+            throw new IllegalStateException("github.webhook.secret is required when webhooks are enabled");
+        }
+        this.secret = new SecretKeySpec(webhookSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.repositoryCache = repositoryCache;
+        this.negativeCache = negativeCache;
+        this.repositoryService = repositoryService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Verifies the signature GitHub sends in the {@code X-Hub-Signature-256} header in constant time.
+     *
+     * @param event     the event name, only used for the metrics
+     * @param signature the signature header, {@code sha256=} followed by the hex encoded HMAC-SHA256 of the payload
+     * @param payload   the raw payload
+     * @return whether the payload is signed with the secret
+     */
+    public boolean isSignatureValid(final String event, final String signature, final byte[] payload) {
+        final boolean valid = signature != null
+            && signature.startsWith(SIGNATURE_PREFIX)
+            && MessageDigest.isEqual(hmac(payload), parseHex(signature.substring(SIGNATURE_PREFIX.length())));
+        if (!valid) {
+            count(event, "rejected");
+        }
+        return valid;
+    }
+
+    /**
+     * Applies a verified event to the cached repositories of the owner of its repository.
+     *
+     * @param event   the event name from the {@code X-GitHub-Event} header
+     * @param payload the payload of the event
+     */
+    public void handle(final String event, final JsonNode payload) {
+        final JsonNode repository = payload.path("repository");
+        final String ownerLogin = repository.path("owner").path("login").asText(null);
+        final String name = repository.path("name").asText(null);
+        final String outcome;
+        if (ownerLogin == null || name == null || repository.path("fork").asBoolean()) {
+            outcome = "ignored";
+        } else {
+            // an event of a repository proves its owner exists, even if GitHub answered 404 for it before
+            negativeCache.remove(ownerLogin);
+            outcome = switch (event) {
+                case "push" -> push(ownerLogin, name, payload);
+                case "create" -> create(ownerLogin, name, payload);
+                case "delete" -> delete(ownerLogin, name, payload);
+                case "repository" -> repository(ownerLogin, name, payload);
+                // including fork events: the fork is not part of the repositories of its owner and the forked
+                // repository does not change
+                default -> "ignored";
+            };
+        }
+        count(event, outcome);
+    }
+
+    /**
+     * Sets the last commit SHA of the pushed branch, or removes the branch if the push deleted it.
+     */
+    private String push(final String ownerLogin, final String name, final JsonNode payload) {
+        final String ref = payload.path("ref").asText("");
+        if (!ref.startsWith(BRANCH_REF_PREFIX)) {
+            return "ignored";
+        }
+        final String branch = ref.substring(BRANCH_REF_PREFIX.length());
+        if (payload.path("deleted").asBoolean()) {
+            return updateRepository(ownerLogin, name, repository -> withoutBranch(repository, branch));
+        }
+        final GitHubBranch pushed = new GitHubBranch(branch, payload.path("after").asText(null));
+        return updateRepository(ownerLogin, name, repository -> withBranch(repository, pushed));
+    }
+
+    /**
+     * Fetches the repository again if it does not have the created branch yet, as the event lacks its commit SHA.
+     * The {@code push} event GitHub sends for the new branch usually arrives first and adds it in place.
+     */
+    private String create(final String ownerLogin, final String name, final JsonNode payload) {
+        if (!"branch".equals(payload.path("ref_type").asText())) {
+            return "ignored";
+        }
+        final String branch = payload.path("ref").asText();
+        return updateRepository(ownerLogin, name, repository -> indexOfBranch(repository, branch) < 0 ? null : repository);
+    }
+
+    private String delete(final String ownerLogin, final String name, final JsonNode payload) {
+        if (!"branch".equals(payload.path("ref_type").asText())) {
+            return "ignored";
+        }
+        final String branch = payload.path("ref").asText();
+        return updateRepository(ownerLogin, name, repository -> withoutBranch(repository, branch));
+    }
+
+    private String repository(final String ownerLogin, final String name, final JsonNode payload) {
+        return switch (payload.path("action").asText()) {
+            // new public repositories have to be fetched for their branches
+            case "created", "publicized" -> updateRepository(ownerLogin, name, repository -> repository);
+            case "deleted", "privatized" -> updateRepositories(ownerLogin, repositories -> without(repositories, name));
+            case "renamed" -> {
+                final String previousName = payload.path("changes").path("repository").path("name").path("from").asText();
+                yield updateRepositories(ownerLogin, repositories -> {
+                    final int index = indexOf(repositories, previousName);
+                    if (index < 0) {
+                        return repositories;
+                    }
+                    final Repository renamed = repositories.get(index).toBuilder().name(name).build();
+                    return with(without(repositories, previousName), renamed);
+                });
+            }
+            case "transferred" -> {
+                final JsonNode previousOwner = payload.path("changes").path("owner").path("from");
+                final String previousLogin = previousOwner.has("user")
+                    ? previousOwner.path("user").path("login").asText()
+                    : previousOwner.path("organization").path("login").asText();
+                updateRepositories(previousLogin, repositories -> without(repositories, name));
+                yield updateRepository(ownerLogin, name, repository -> repository);
+            }
+            default -> "ignored";
+        };
+    }
+
+    /**
+     * Updates a single cached repository of the owner. If the update returns {@code null} or the repository is not
+     * cached yet, only that repository is fetched again.
+     */
+    private String updateRepository(
+        final String ownerLogin,
+        final String name,
+        final UnaryOperator<Repository> update
+    ) {
+        final AtomicBoolean refresh = new AtomicBoolean();
+        final String outcome = updateRepositories(ownerLogin, repositories -> {
+            final int index = indexOf(repositories, name);
+            final Repository updated = index < 0 ? null : update.apply(repositories.get(index));
+            if (updated == null) {
+                refresh.set(true);
+                return repositories;
+            }
+            if (updated == repositories.get(index)) {
+                return repositories;
+            }
+            final List<Repository> copy = new ArrayList<>(repositories);
+            copy.set(index, updated);
+            return copy;
+        });
+        if (!refresh.get()) {
+            return outcome;
+        }
+        repositoryService.fetchRepository(ownerLogin, name).subscribe(
+            repository -> repositoryCache.update(ownerLogin, repositories -> with(without(repositories, name), repository)),
+            throwable -> log.warn("Refresh of repository {}/{} failed", ownerLogin, name, throwable)
+        );
+        return "refreshed";
+    }
+
+    private String updateRepositories(final String ownerLogin, final UnaryOperator<List<Repository>> update) {
+        return repositoryCache.update(ownerLogin, update) > 0 ? "updated" : "ignored";
+    }
+
+    /**
+     * Adds a repository in the position GitHub lists it, by name ignoring case.
+     */
+    private static List<Repository> with(final List<Repository> repositories, final Repository repository) {
+        final List<Repository> updated = new ArrayList<>(repositories.size() + 1);
+        boolean added = false;
+        for (final Repository existing : repositories) {
+            if (!added && String.CASE_INSENSITIVE_ORDER.compare(existing.getName(), repository.getName()) > 0) {
+                updated.add(repository);
+                added = true;
+            }
+            updated.add(existing);
+        }
+        if (!added) {
+            updated.add(repository);
+        }
+        return updated;
+    }
+
+    private static List<Repository> without(final List<Repository> repositories, final String name) {
+        final int index = indexOf(repositories, name);
+        if (index < 0) {
+            return repositories;
+        }
+        final List<Repository> updated = new ArrayList<>(repositories);
+        updated.remove(index);
+        return updated;
+    }
+
+    /**
+     * Sets a branch of a repository, adding it in the position GitHub lists it, by name.
+     */
+    private static Repository withBranch(final Repository repository, final GitHubBranch branch) {
+        final List<GitHubBranch> branches = new ArrayList<>(
+            repository.getBranches() == null ? List.of() : repository.getBranches()
+        );
+        final int index = indexOfBranch(repository, branch.getName());
+        if (index >= 0) {
+            if (branch.equals(branches.get(index))) {
+                return repository;
+            }
+            branches.set(index, branch);
+        } else {
+            int position = 0;
+            while (position < branches.size() && branches.get(position).getName().compareTo(branch.getName()) < 0) {
+                position++;
+            }
+            branches.add(position, branch);
+        }
+        return repository.toBuilder().branches(branches).build();
+    }
+
+    private static Repository withoutBranch(final Repository repository, final String branch) {
+        final int index = indexOfBranch(repository, branch);
+        if (index < 0) {
+            return repository;
+        }
+        final List<GitHubBranch> branches = new ArrayList<>(repository.getBranches());
+        branches.remove(index);
+        return repository.toBuilder().branches(branches).build();
+    }
+
+    private static int indexOf(final List<Repository> repositories, final String name) {
+        for (int i = 0; i < repositories.size(); i++) {
+            if (repositories.get(i).getName().equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOfBranch(final Repository repository, final String branch) {
+        final List<GitHubBranch> branches = repository.getBranches();
+        if (branches == null) {
+            return -1;
+        }
+        for (int i = 0; i < branches.size(); i++) {
+            if (branches.get(i).getName().equals(branch)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private byte[] hmac(final byte[] payload) {
+        try {
+            final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secret);
+            return mac.doFinal(payload);
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC_ALGORITHM + " is not available", e);
+        }
+    }
+
+    private static byte[] parseHex(final String hex) {
+        try {
+            return HexFormat.of().parseHex(hex);
+        } catch (final IllegalArgumentException e) {
+            return new byte[0];
+        }
+    }
+
+    private void count(final String event, final String outcome) {
+        Counter.builder("github.webhooks.events")
+            .description("GitHub webhook events received")
+            .tag("event", EVENTS.contains(event) ? event : "other")
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+}
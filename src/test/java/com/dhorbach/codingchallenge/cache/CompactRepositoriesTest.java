@@ -0,0 +1,62 @@
+package com.dhorbach.codingchallenge.cache;
+
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.Repository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import static com.dhorbach.codingchallenge.util.Constants.USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactRepositoriesTest {
+
+    private static final String SHA = "0123456789abcdef0123456789abcdef01234567";
+
+    private final Map<String, String> internedNames = new HashMap<>();
+    private final UnaryOperator<String> interner = name -> internedNames.computeIfAbsent(name, key -> key);
+
+    @Test
+    void of_MixedRepositories_ExpandsToEqualRepositories() {
+        // Arrange
+        final List<Repository> repositories = List.of(
+            repository("repo1", List.of(new GitHubBranch("main", SHA), new GitHubBranch("develop", SHA.toUpperCase()))),
+            repository("repo2", null),
+            repository("repo3", List.of()),
+            repository("repo4", List.of(new GitHubBranch("main", null), new GitHubBranch("short", "abc")))
+        );
+
+        // Act
+        final CompactRepositories compact = CompactRepositories.of(repositories, interner);
+
+        // Verify
+        assertThat(compact).containsExactlyElementsOf(repositories);
+        assertThat(compact.get(1).getBranches()).isNull();
+        assertThat(compact.get(0).getBranches().subList(0, 1)).containsExactly(new GitHubBranch("main", SHA));
+    }
+
+    @Test
+    void of_RepeatedBranchNames_SharesNames() {
+        // Arrange
+        final List<Repository> repositories = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            repositories.add(repository("repo" + i, List.of(new GitHubBranch(new String("main"), SHA))));
+        }
+
+        // Act
+        final CompactRepositories compact = CompactRepositories.of(repositories, interner);
+
+        // Verify
+        final String name = compact.get(0).getBranches().get(0).getName();
+        assertThat(compact.get(1).getBranches().get(0).getName()).isSameAs(name);
+        assertThat(compact.get(2).getBranches().get(0).getName()).isSameAs(name);
+    }
+
+    private static Repository repository(final String name, final List<GitHubBranch> branches) {
+        return Repository.builder().name(name).ownerLogin(USERNAME).branches(branches).build();
+    }
+}
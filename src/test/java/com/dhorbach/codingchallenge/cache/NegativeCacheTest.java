@@ -0,0 +1,100 @@
+package com.dhorbach.codingchallenge.cache;
+
+import com.dhorbach.codingchallenge.config.RepositoryCacheProperties;
+import com.dhorbach.codingchallenge.util.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static com.dhorbach.codingchallenge.util.Constants.USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NegativeCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    private final MutableClock clock = new MutableClock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NegativeCache negativeCache;
+
+    @BeforeEach
+    void setUp() {
+        final RepositoryCacheProperties.Negative properties = new RepositoryCacheProperties.Negative();
+        properties.setTtl(TTL);
+        properties.setMaxEntries(1_000);
+        negativeCache = new NegativeCache(properties, meterRegistry, clock);
+    }
+
+    @Test
+    void contains_AddedUsername_CachedCaseInsensitivelyUntilTtl() {
+        // Act
+        negativeCache.add(USERNAME);
+
+        // Verify
+        assertThat(negativeCache.contains(USERNAME.toUpperCase())).isTrue();
+        clock.advance(TTL.minusSeconds(1));
+        assertThat(negativeCache.contains(USERNAME)).isTrue();
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(negativeCache.contains(USERNAME)).isFalse();
+        assertThat(requests("hit")).isEqualTo(2);
+    }
+
+    @Test
+    void contains_UnknownUsernames_NotCached() {
+        // Arrange
+        for (int i = 0; i < 400; i++) {
+            negativeCache.add("unknown-" + i);
+        }
+
+        // Act
+        int found = 0;
+        for (int i = 0; i < 10_000; i++) {
+            found += negativeCache.contains("user-" + i) ? 1 : 0;
+        }
+
+        // Verify
+        assertThat(found).isZero();
+        assertThat(negativeCache.contains("unknown-42")).isTrue();
+        assertThat(requests("miss")).isEqualTo(10_000);
+    }
+
+    @Test
+    void add_MoreUsernamesThanMaxEntries_EvictsOldestGeneration() {
+        // Act
+        for (int i = 0; i < 1_000; i++) {
+            negativeCache.add("unknown-" + i);
+        }
+        negativeCache.add("unknown-1000");
+
+        // Verify
+        assertThat(negativeCache.size()).isLessThanOrEqualTo(1_000);
+        assertThat(negativeCache.contains("unknown-0")).isFalse();
+        assertThat(negativeCache.contains("unknown-499")).isFalse();
+        assertThat(negativeCache.contains("unknown-500")).isTrue();
+        assertThat(negativeCache.contains("unknown-1000")).isTrue();
+    }
+
+    @Test
+    void remove_PurgedUsername_NoLongerCached() {
+        // Arrange
+        negativeCache.add(USERNAME);
+        negativeCache.add("other");
+
+        // Act
+        final boolean removed = negativeCache.remove(USERNAME);
+
+        // Verify
+        assertThat(removed).isTrue();
+        assertThat(negativeCache.contains(USERNAME)).isFalse();
+        assertThat(negativeCache.contains("other")).isTrue();
+        negativeCache.clear();
+        assertThat(negativeCache.contains("other")).isFalse();
+        assertThat(negativeCache.size()).isZero();
+    }
+
+    private double requests(final String result) {
+        return meterRegistry.get("repositories.negative-cache.requests").tag("result", result).counter().count();
+    }
+}
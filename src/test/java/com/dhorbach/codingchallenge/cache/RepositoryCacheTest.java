@@ -0,0 +1,196 @@
+package com.dhorbach.codingchallenge.cache;
+
+import com.dhorbach.codingchallenge.config.RepositoryCacheProperties;
+import com.dhorbach.codingchallenge.models.Repository;
+import com.dhorbach.codingchallenge.util.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.dhorbach.codingchallenge.util.Constants.REPOSITORIES;
+import static com.dhorbach.codingchallenge.util.Constants.USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepositoryCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+    private static final Duration STALE_WHILE_REVALIDATE = Duration.ofMinutes(5);
+
+    private final MutableClock clock = new MutableClock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+    private RepositoryCache repositoryCache;
+
+    @BeforeEach
+    void setUp() {
+        final RepositoryCacheProperties properties = new RepositoryCacheProperties();
+        properties.setTtl(TTL);
+        properties.setStaleWhileRevalidate(STALE_WHILE_REVALIDATE);
+        properties.setMaxEntries(2);
+        repositoryCache = new RepositoryCache(properties, meterRegistry, clock);
+    }
+
+    @Test
+    void get_FreshEntry_ServedWithoutLoading() {
+        // Act
+        StepVerifier.create(get(countingLoader())).expectNextSequence(REPOSITORIES).verifyComplete();
+        clock.advance(TTL.minusSeconds(1));
+        StepVerifier.create(get(countingLoader())).expectNextSequence(REPOSITORIES).verifyComplete();
+
+        // Verify
+        assertThat(loads).hasValue(1);
+        assertThat(requests("miss")).isEqualTo(1);
+        assertThat(requests("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void get_ConcurrentMisses_ShareSingleLoad() {
+        // Arrange
+        final Sinks.Many<Repository> upstream = Sinks.many().replay().all();
+        final Function<String, Flux<Tuple2<Long, Repository>>> loader = username -> {
+            loads.incrementAndGet();
+            return upstream.asFlux().index();
+        };
+
+        // Act
+        final Flux<Repository> first = get(loader);
+        final Flux<Repository> second = get(loader);
+        REPOSITORIES.forEach(upstream::tryEmitNext);
+        upstream.tryEmitComplete();
+
+        // Verify
+        StepVerifier.create(first).expectNextSequence(REPOSITORIES).verifyComplete();
+        StepVerifier.create(second).expectNextSequence(REPOSITORIES).verifyComplete();
+        assertThat(loads).hasValue(1);
+        assertThat(requests("miss")).isEqualTo(1);
+        assertThat(requests("coalesced")).isEqualTo(1);
+    }
+
+    @Test
+    void get_AllSubscribersCancelled_LoadCancelled() {
+        // Arrange
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final Function<String, Flux<Tuple2<Long, Repository>>> loader = username -> {
+            loads.incrementAndGet();
+            return Flux.<Tuple2<Long, Repository>>never().doOnCancel(() -> cancelled.set(true));
+        };
+        final Disposable first = get(loader).subscribe();
+        final Disposable second = get(loader).subscribe();
+
+        // Act
+        first.dispose();
+        assertThat(cancelled).isFalse();
+        second.dispose();
+
+        // Verify
+        assertThat(cancelled).isTrue();
+        StepVerifier.create(get(countingLoader())).expectNextSequence(REPOSITORIES).verifyComplete();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_StaleEntry_ServedWhileRefreshedInBackground() {
+        // Arrange
+        StepVerifier.create(get(countingLoader())).expectNextCount(REPOSITORIES.size()).verifyComplete();
+        clock.advance(TTL.plusSeconds(1));
+
+        // Act
+        StepVerifier.create(get(countingLoader()))
+            .expectNextSequence(REPOSITORIES)
+            .verifyComplete();
+        StepVerifier.create(get(countingLoader()))
+            .expectNextSequence(REPOSITORIES)
+            .verifyComplete();
+
+        // Verify
+        assertThat(loads).hasValue(2);
+        assertThat(requests("stale")).isEqualTo(1);
+        assertThat(requests("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void get_ExpiredEntry_LoadedAgain() {
+        // Arrange
+        StepVerifier.create(get(countingLoader())).expectNextCount(REPOSITORIES.size()).verifyComplete();
+        clock.advance(TTL.plus(STALE_WHILE_REVALIDATE).plusSeconds(1));
+
+        // Act
+        StepVerifier.create(get(countingLoader())).expectNextSequence(REPOSITORIES).verifyComplete();
+
+        // Verify
+        assertThat(loads).hasValue(2);
+        assertThat(requests("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void get_FailedLoad_NotCached() {
+        // Arrange
+        StepVerifier.create(get(username -> Flux.error(new IllegalStateException())))
+            .verifyError(IllegalStateException.class);
+
+        // Act & Verify
+        StepVerifier.create(get(countingLoader())).expectNextSequence(REPOSITORIES).verifyComplete();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_LoadedOutOfOrder_CachedInUpstreamOrder() {
+        // Arrange
+        final Function<String, Flux<Tuple2<Long, Repository>>> loader =
+            username -> Flux.just(Tuples.of(1L, REPOSITORIES.get(1)), Tuples.of(0L, REPOSITORIES.get(0)));
+
+        // Act
+        StepVerifier.create(get(loader))
+            .expectNext(REPOSITORIES.get(1), REPOSITORIES.get(0))
+            .verifyComplete();
+
+        // Verify
+        StepVerifier.create(get(countingLoader())).expectNextSequence(REPOSITORIES).verifyComplete();
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void get_DifferentlyCasedUsername_ServedFromSameEntry() {
+        // Arrange
+        StepVerifier.create(get(countingLoader())).expectNextCount(REPOSITORIES.size()).verifyComplete();
+        final String upperCased = USERNAME.toUpperCase(Locale.ROOT);
+
+        // Act
+        StepVerifier.create(repositoryCache.get(upperCased, countingLoader()).map(Tuple2::getT2))
+            .expectNextSequence(REPOSITORIES)
+            .verifyComplete();
+
+        // Verify
+        assertThat(loads).hasValue(1);
+        assertThat(repositoryCache.contains(upperCased)).isTrue();
+        repositoryCache.evict(upperCased);
+        assertThat(repositoryCache.getIfPresent(USERNAME)).isEmpty();
+    }
+
+    private Flux<Repository> get(final Function<String, Flux<Tuple2<Long, Repository>>> loader) {
+        return repositoryCache.get(USERNAME, loader).map(Tuple2::getT2);
+    }
+
+    private Function<String, Flux<Tuple2<Long, Repository>>> countingLoader() {
+        return username -> {
+            loads.incrementAndGet();
+            return Flux.fromIterable(REPOSITORIES).index();
+        };
+    }
+
+    private double requests(final String result) {
+        return meterRegistry.get("repositories.cache.requests").tag("result", result).counter().count();
+    }
+}
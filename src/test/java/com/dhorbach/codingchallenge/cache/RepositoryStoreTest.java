@@ -0,0 +1,226 @@
+package com.dhorbach.codingchallenge.cache;
+
+import com.dhorbach.codingchallenge.config.RepositoryCacheProperties;
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.Repository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static com.dhorbach.codingchallenge.util.Constants.REPOSITORIES;
+import static com.dhorbach.codingchallenge.util.Constants.USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepositoryStoreTest {
+
+    private static final Instant LOADED_AT = Instant.parse("2023-07-01T12:00:00Z");
+    private static final URI RESPONSE_URI = URI.create("https://api.github.com/users/testuser/repos?per_page=100&page=1");
+
+    @TempDir
+    private Path directory;
+    private RepositoryCacheProperties.Persistence properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RepositoryCacheProperties.Persistence();
+        properties.setEnabled(true);
+        properties.setDirectory(directory);
+        properties.setCompactionInterval(Duration.ofHours(1));
+    }
+
+    @Test
+    void restore_AfterReopen_ReturnsLatestEntries() {
+        // Arrange
+        final List<Repository> repositories = List.of(Repository.builder()
+            .name("repo")
+            .ownerLogin(USERNAME)
+            .branches(List.of(new GitHubBranch("main", "0123456789abcdef0123456789abcdef01234567")))
+            .build());
+        final HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LINK, "<https://api.github.com/users/testuser/repos?page=2>; rel=\"last\"");
+        final RepositoryStore store = new RepositoryStore(properties, new SimpleMeterRegistry());
+        store.saveRepositories(USERNAME, REPOSITORIES, LOADED_AT.minusSeconds(60));
+        store.saveRepositories(USERNAME, repositories, LOADED_AT);
+        store.saveRepositories("deleted", REPOSITORIES, LOADED_AT);
+        store.deleteRepositories("deleted");
+        store.saveResponse(RESPONSE_URI, "\"etag\"", headers, "[]".getBytes());
+        store.close();
+
+        // Act
+        final Restored restored = restore();
+
+        // Verify
+        assertThat(restored.repositories()).containsOnlyKeys(USERNAME);
+        assertThat(restored.repositories().get(USERNAME)).isEqualTo(repositories);
+        assertThat(restored.loadedAt()).containsEntry(USERNAME, LOADED_AT);
+        assertThat(restored.eTags()).containsEntry(RESPONSE_URI, "\"etag\"");
+        assertThat(restored.headers().get(RESPONSE_URI)).isEqualTo(headers);
+    }
+
+    @Test
+    void restore_TornLastRecord_RestoresPrecedingRecords() throws IOException {
+        // Arrange
+        final RepositoryStore store = new RepositoryStore(properties, new SimpleMeterRegistry());
+        store.saveRepositories(USERNAME, REPOSITORIES, LOADED_AT);
+        store.saveRepositories("other", REPOSITORIES, LOADED_AT);
+        store.close();
+        final Path segment = segments().get(0);
+        final long size = Files.size(segment);
+        try (var channel = Files.newByteChannel(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        // Act
+        final Restored restored = restore();
+
+        // Verify
+        assertThat(restored.repositories()).containsOnlyKeys(USERNAME);
+        assertThat(restored.repositories().get(USERNAME)).isEqualTo(REPOSITORIES);
+    }
+
+    @Test
+    void restore_MoreEntriesThanMax_RestoresLatestEntries() {
+        // Arrange
+        final RepositoryStore store = new RepositoryStore(properties, new SimpleMeterRegistry());
+        store.saveRepositories("oldest", REPOSITORIES, LOADED_AT);
+        store.saveRepositories("older", REPOSITORIES, LOADED_AT);
+        store.saveRepositories(USERNAME, REPOSITORIES, LOADED_AT);
+        store.saveRepositories("older", REPOSITORIES, LOADED_AT);
+        store.close();
+
+        // Act
+        final Restored restored = restore(2);
+
+        // Verify
+        assertThat(restored.repositories().keySet()).containsExactly(USERNAME, "older");
+    }
+
+    @Test
+    void saveRepositories_WhileStoreBusy_CoalescesAndDropsBeyondMaxPendingWrites() throws InterruptedException {
+        // Arrange
+        final RepositoryStore previous = new RepositoryStore(properties, new SimpleMeterRegistry());
+        previous.saveRepositories(USERNAME, REPOSITORIES, LOADED_AT);
+        previous.close();
+        properties.setMaxPendingWrites(2);
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        final RepositoryStore store = new RepositoryStore(properties, meterRegistry);
+        final CountDownLatch busy = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        // blocks the store thread while restoring, so the following writes stay queued
+        store.restore((username, repositories, loadedAt) -> {
+            busy.countDown();
+            awaitUninterruptibly(release);
+        }, 10, (uri, eTag, headers, body) -> { }, 10);
+        busy.await();
+        final List<Repository> latest = List.of(Repository.builder()
+            .name("latest")
+            .ownerLogin("first")
+            .branches(List.of())
+            .build());
+
+        // Act
+        store.saveRepositories("first", REPOSITORIES, LOADED_AT);
+        store.saveRepositories("second", REPOSITORIES, LOADED_AT);
+        store.saveRepositories("first", latest, LOADED_AT);
+        store.saveRepositories("third", REPOSITORIES, LOADED_AT);
+        release.countDown();
+        store.close();
+
+        // Verify
+        assertThat(meterRegistry.counter("repositories.store.dropped").count()).isEqualTo(1);
+        final Restored restored = restore();
+        assertThat(restored.repositories()).containsOnlyKeys(USERNAME, "first", "second");
+        assertThat(restored.repositories().get("first")).isEqualTo(latest);
+    }
+
+    @Test
+    void compact_SupersededRecords_RewritesLiveRecords() throws IOException {
+        // Arrange
+        final SegmentLog log = new SegmentLog(directory, 1024);
+        log.open();
+        for (int i = 0; i < 100; i++) {
+            log.put("key-" + (i % 10), new byte[]{(byte) i});
+        }
+        log.close();
+        final SegmentLog reopened = new SegmentLog(directory, 1024);
+        reopened.open();
+        final long sizeBefore = reopened.size();
+
+        // Act
+        reopened.compact();
+
+        // Verify
+        assertThat(reopened.size()).isLessThan(sizeBefore).isEqualTo(reopened.liveSize());
+        final Map<String, Byte> values = new LinkedHashMap<>();
+        reopened.forEachSealed((key, value) -> values.put(key, value.get()));
+        reopened.close();
+        assertThat(values).isEmpty();
+        final SegmentLog compacted = new SegmentLog(directory, 1024);
+        compacted.open();
+        compacted.forEachSealed((key, value) -> values.put(key, value.get()));
+        compacted.close();
+        assertThat(values).hasSize(10).containsEntry("key-0", (byte) 90).containsEntry("key-9", (byte) 99);
+    }
+
+    private Restored restore() {
+        return restore(Integer.MAX_VALUE);
+    }
+
+    private Restored restore(final int maxEntries) {
+        final Restored restored = new Restored(
+            new LinkedHashMap<>(), new LinkedHashMap<>(), new LinkedHashMap<>(), new LinkedHashMap<>()
+        );
+        final RepositoryStore store = new RepositoryStore(properties, new SimpleMeterRegistry());
+        store.restore(
+            (username, repositories, loadedAt) -> {
+                restored.repositories().put(username, repositories);
+                restored.loadedAt().put(username, loadedAt);
+            },
+            maxEntries,
+            (uri, eTag, headers, body) -> {
+                restored.eTags().put(uri, eTag);
+                restored.headers().put(uri, headers);
+            },
+            maxEntries
+        );
+        store.close();
+        return restored;
+    }
+
+    private static void awaitUninterruptibly(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private record Restored(
+        Map<String, List<Repository>> repositories,
+        Map<String, Instant> loadedAt,
+        Map<URI, String> eTags,
+        Map<URI, HttpHeaders> headers
+    ) {
+    }
+}
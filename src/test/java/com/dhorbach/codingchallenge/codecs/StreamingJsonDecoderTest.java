@@ -0,0 +1,106 @@
+package com.dhorbach.codingchallenge.codecs;
+
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.GitHubRepository;
+import com.dhorbach.codingchallenge.util.FileUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static com.dhorbach.codingchallenge.util.Constants.BRANCH_1;
+import static com.dhorbach.codingchallenge.util.Constants.COMMIT;
+import static com.dhorbach.codingchallenge.util.Constants.REPO_1;
+import static com.dhorbach.codingchallenge.util.Constants.REPO_2;
+import static com.dhorbach.codingchallenge.util.Constants.USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingJsonDecoderTest {
+
+    private final StreamingJsonDecoder<GitHubRepository> repositoryDecoder = StreamingJsonDecoder.gitHubRepositories();
+    private final StreamingJsonDecoder<GitHubBranch> branchDecoder = StreamingJsonDecoder.gitHubBranches();
+
+    @Test
+    void decode_InputSplitIntoSingleBytes_ReturnsRepositories() throws IOException {
+        // Arrange
+        final String json = FileUtil.readFromFileToString("/github-repositories.json");
+
+        // Act & Verify
+        StepVerifier.create(decodeRepositories(Flux.fromArray(json.split("")).map(StreamingJsonDecoderTest::buffer)))
+            .expectNext(new GitHubRepository(REPO_1, false, USERNAME))
+            .expectNext(new GitHubRepository(REPO_2, true, USERNAME))
+            .verifyComplete();
+    }
+
+    @Test
+    void decode_UnboundFields_AreSkipped() {
+        // Arrange
+        final String json = """
+            [{"id": 1, "name": "branch1", "protection": {"enabled": true, "name": "ignored", "checks": [{"sha": "x"}]},
+              "commit": {"url": "https://api.github.com", "sha": "commit sha", "author": {"name": "ignored"}},
+              "tags": [["name"], {"name": "ignored"}]}]
+            """;
+
+        // Act & Verify
+        StepVerifier.create(branchDecoder.decode(
+                Flux.just(buffer(json)), ResolvableType.forClass(GitHubBranch.class), MediaType.APPLICATION_JSON,
+                Collections.emptyMap()))
+            .expectNext(new GitHubBranch(BRANCH_1, COMMIT))
+            .verifyComplete();
+    }
+
+    @Test
+    void decode_ArrayStillArriving_EmitsCompletedElements() {
+        // Arrange
+        final Sinks.Many<DataBuffer> input = Sinks.many().unicast().onBackpressureBuffer();
+
+        // Act & Verify
+        StepVerifier.create(decodeRepositories(input.asFlux()))
+            .then(() -> input.tryEmitNext(buffer("[{\"name\": \"repo1\", \"fork\": false, \"owner\": {\"login\": \"testuser\"}}, {\"na")))
+            .expectNext(new GitHubRepository(REPO_1, false, USERNAME))
+            .then(() -> {
+                input.tryEmitNext(buffer("me\": \"repo2\", \"fork\": true, \"owner\": {\"login\": \"testuser\"}}]"));
+                input.tryEmitComplete();
+            })
+            .expectNext(new GitHubRepository(REPO_2, true, USERNAME))
+            .verifyComplete();
+    }
+
+    @Test
+    void decode_TruncatedInput_ThrowsDecodingException() {
+        // Act & Verify
+        StepVerifier.create(decodeRepositories(Flux.just(buffer("[{\"name\": \"repo1\""))))
+            .expectError(DecodingException.class)
+            .verify();
+    }
+
+    @Test
+    void canDecode_OtherType_ReturnsFalse() {
+        // Act & Verify
+        assertThat(repositoryDecoder.canDecode(ResolvableType.forClass(GitHubRepository.class), MediaType.APPLICATION_JSON))
+            .isTrue();
+        assertThat(repositoryDecoder.canDecode(ResolvableType.forClass(GitHubBranch.class), MediaType.APPLICATION_JSON))
+            .isFalse();
+        assertThat(repositoryDecoder.canDecode(ResolvableType.forClass(GitHubRepository.class), MediaType.TEXT_PLAIN))
+            .isFalse();
+    }
+
+    private Flux<GitHubRepository> decodeRepositories(final Flux<DataBuffer> input) {
+        return repositoryDecoder.decode(
+            input, ResolvableType.forClass(GitHubRepository.class), MediaType.APPLICATION_JSON, Collections.emptyMap()
+        );
+    }
+
+    private static DataBuffer buffer(final String value) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,162 @@
+package com.dhorbach.codingchallenge.concurrency;
+
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final int OVERLOAD_THRESHOLD = 4;
+
+    private final GitHubProperties.Concurrency properties = new GitHubProperties.Concurrency();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MockWebServer mockWebServer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties.setInitialLimit(8);
+        properties.setMinLimit(1);
+        properties.setMaxLimit(16);
+        properties.setLatencyThreshold(Duration.ofSeconds(1));
+
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void limit_MoreCallsThanLimit_QueuesCallsAboveLimit() {
+        // Arrange
+        properties.setInitialLimit(2);
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        final Sinks.One<String> first = Sinks.one();
+        final Sinks.One<String> second = Sinks.one();
+
+        // Act
+        limiter.limit(first.asMono()).subscribe();
+        limiter.limit(second.asMono()).subscribe();
+        final Mono<String> third = limiter.limit(Mono.just("third"));
+
+        // Verify
+        StepVerifier.create(third)
+            .then(() -> {
+                assertThat(limiter.getInFlight()).isEqualTo(2);
+                assertThat(limiter.getQueueDepth()).isEqualTo(1);
+                assertThat(meterRegistry.get("github.concurrency.queue").gauge().value()).isEqualTo(1);
+                first.tryEmitValue("first");
+            })
+            .expectNext("third")
+            .verifyComplete();
+        second.tryEmitValue("second");
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void limit_CancelledWhileQueued_RemovedFromQueue() {
+        // Arrange
+        properties.setInitialLimit(1);
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        limiter.limit(Mono.never()).subscribe();
+
+        // Act
+        limiter.limit(Mono.just("queued")).subscribe().dispose();
+
+        // Verify
+        assertThat(limiter.getQueueDepth()).isZero();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void limit_ThrottledResponses_DecreasesLimit() {
+        // Arrange
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        final WebClientResponseException tooManyRequests = WebClientResponseException.create(
+            HttpStatus.TOO_MANY_REQUESTS.value(), "Too Many Requests", null, null, null
+        );
+
+        // Act
+        StepVerifier.create(limiter.limit(Mono.error(tooManyRequests)))
+            .verifyError(WebClientResponseException.class);
+
+        // Verify
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void limit_SaturatedSuccessfulCalls_IncreasesLimit() {
+        // Arrange
+        properties.setInitialLimit(2);
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+
+        // Act
+        StepVerifier.create(Flux.range(0, 20).flatMap(i -> limiter.limit(Mono.delay(Duration.ofMillis(5)))))
+            .expectNextCount(20)
+            .verifyComplete();
+
+        // Verify
+        assertThat(limiter.getLimit()).isGreaterThan(2);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void limit_UpstreamThrottlesUnderConcurrency_ConvergesBelowThreshold() {
+        // Arrange
+        final AtomicInteger concurrentRequests = new AtomicInteger();
+        final AtomicInteger throttledRequests = new AtomicInteger();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull final RecordedRequest request) throws InterruptedException {
+                final int concurrency = concurrentRequests.incrementAndGet();
+                try {
+                    if (concurrency > OVERLOAD_THRESHOLD) {
+                        throttledRequests.incrementAndGet();
+                        return new MockResponse().setResponseCode(HttpStatus.TOO_MANY_REQUESTS.value());
+                    }
+                    Thread.sleep(10L * concurrency);
+                    return new MockResponse().setResponseCode(HttpStatus.OK.value()).setBody("ok");
+                } finally {
+                    concurrentRequests.decrementAndGet();
+                }
+            }
+        });
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, meterRegistry);
+        final WebClient webClient = WebClient.create(mockWebServer.url("/").toString());
+
+        // Act
+        StepVerifier.create(Flux.range(0, 200)
+                .flatMap(i -> limiter.limit(webClient.get().retrieve().bodyToMono(String.class))
+                    .onErrorResume(WebClientResponseException.class, e -> Mono.empty())))
+            .thenConsumeWhile(body -> true)
+            .verifyComplete();
+
+        // Verify
+        assertThat(limiter.getLimit()).isLessThan(properties.getInitialLimit());
+        assertThat(throttledRequests.get()).isLessThan(mockWebServer.getRequestCount() / 2);
+    }
+}
@@ -0,0 +1,180 @@
+package com.dhorbach.codingchallenge.concurrency;
+
+import com.dhorbach.codingchallenge.config.AdmissionProperties;
+import com.dhorbach.codingchallenge.exceptions.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionQueueTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final AdmissionProperties properties = new AdmissionProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AdmissionQueue admissionQueue;
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaxInFlight(1);
+        properties.setMaxQueued(2);
+        admissionQueue = new AdmissionQueue(properties, meterRegistry);
+    }
+
+    @Test
+    void admit_SlotsTaken_ServesQueueByPriority() {
+        // Arrange
+        final Sinks.Empty<String> running = Sinks.empty();
+        final List<String> served = new ArrayList<>();
+        admissionQueue.admit(AdmissionQueue.Priority.NORMAL, TIMEOUT, () -> running.asMono().flux()).subscribe();
+
+        // Act
+        admissionQueue.admit(AdmissionQueue.Priority.LOW, TIMEOUT, () -> Flux.just("low")).subscribe(served::add);
+        admissionQueue.admit(AdmissionQueue.Priority.HIGH, TIMEOUT, () -> Flux.just("high")).subscribe(served::add);
+        assertThat(admissionQueue.getQueueDepth()).isEqualTo(2);
+        running.tryEmitEmpty();
+
+        // Verify
+        assertThat(served).containsExactly("high", "low");
+        assertThat(admissionQueue.getInFlight()).isZero();
+        assertThat(admissionQueue.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void admit_QueueFull_EvictsLowerPriorityAndRejectsSamePriority() {
+        // Arrange
+        admissionQueue.admit(AdmissionQueue.Priority.NORMAL, TIMEOUT, Flux::never).subscribe();
+        final Flux<String> low = admissionQueue.admit(AdmissionQueue.Priority.LOW, TIMEOUT, () -> Flux.just("low"));
+        final List<Throwable> errors = new ArrayList<>();
+        low.subscribe(value -> { }, errors::add);
+        admissionQueue.admit(AdmissionQueue.Priority.NORMAL, TIMEOUT, Flux::never).subscribe();
+
+        // Act
+        admissionQueue.admit(AdmissionQueue.Priority.HIGH, TIMEOUT, Flux::never).subscribe();
+
+        // Verify
+        assertThat(errors).singleElement().isInstanceOf(ServiceOverloadedException.class);
+        StepVerifier.create(admissionQueue.admit(AdmissionQueue.Priority.NORMAL, TIMEOUT, () -> Flux.just("normal")))
+            .verifyError(ServiceOverloadedException.class);
+        assertThat(meterRegistry.get("repositories.admission.rejected").tag("reason", "evicted").counter().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("repositories.admission.rejected").tag("reason", "queue-full").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void admit_ExpectedWaitExceedsDeadline_RejectedOnArrival() {
+        // Arrange
+        StepVerifier.create(admissionQueue.admit(
+                AdmissionQueue.Priority.NORMAL, TIMEOUT, () -> Flux.just("slow").delayElements(Duration.ofMillis(200))
+            ))
+            .expectNext("slow")
+            .verifyComplete();
+        admissionQueue.admit(AdmissionQueue.Priority.NORMAL, TIMEOUT, Flux::never).subscribe();
+
+        // Act & Verify
+        StepVerifier.create(admissionQueue.admit(
+                AdmissionQueue.Priority.NORMAL, Duration.ofMillis(100), () -> Flux.just("late")
+            ))
+            .verifyError(ServiceOverloadedException.class);
+        assertThat(admissionQueue.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void admit_SlowRequestsOfOtherPriority_DoNotRejectOnArrival() {
+        // Arrange
+        StepVerifier.create(admissionQueue.admit(
+                AdmissionQueue.Priority.LOW, TIMEOUT, () -> Flux.just("slow").delayElements(Duration.ofMillis(200))
+            ))
+            .expectNext("slow")
+            .verifyComplete();
+
+        // Act & Verify
+        StepVerifier.create(admissionQueue.admit(
+                AdmissionQueue.Priority.NORMAL, Duration.ofMillis(100), () -> Flux.just("fast")
+            ))
+            .expectNext("fast")
+            .verifyComplete();
+        StepVerifier.create(admissionQueue.admit(
+                AdmissionQueue.Priority.LOW, Duration.ofMillis(100), () -> Flux.just("late")
+            ))
+            .verifyError(ServiceOverloadedException.class);
+    }
+
+    @Test
+    void admit_DeadlinePassedWhileRunning_CancelsRequest() {
+        // Arrange
+        final AtomicBoolean cancelled = new AtomicBoolean();
+
+        // Act & Verify
+        StepVerifier.create(admissionQueue.admit(
+                AdmissionQueue.Priority.NORMAL,
+                Duration.ofMillis(50),
+                () -> Flux.<String>never().doOnCancel(() -> cancelled.set(true))
+            ))
+            .expectErrorSatisfies(throwable -> assertThat(throwable)
+                .isInstanceOf(ServiceOverloadedException.class)
+                .hasMessage("Request could not be completed within its deadline"))
+            .verify(Duration.ofSeconds(5));
+        assertThat(cancelled).isTrue();
+        assertThat(admissionQueue.getInFlight()).isZero();
+    }
+
+    @Test
+    void admit_StreamedPastDeadlineAfterFirstElement_Completes() {
+        // Act & Verify
+        StepVerifier.create(admissionQueue.admit(
+                AdmissionQueue.Priority.LOW,
+                Duration.ofMillis(50),
+                true,
+                () -> Flux.concat(Mono.just("first"), Mono.just("second").delayElement(Duration.ofMillis(200)))
+            ))
+            .expectNext("first", "second")
+            .verifyComplete();
+        assertThat(admissionQueue.getInFlight()).isZero();
+    }
+
+    @Test
+    void admit_StreamedDeadlinePassedBeforeFirstElement_CancelsRequest() {
+        // Arrange
+        final AtomicBoolean cancelled = new AtomicBoolean();
+
+        // Act & Verify
+        StepVerifier.create(admissionQueue.admit(
+                AdmissionQueue.Priority.LOW,
+                Duration.ofMillis(50),
+                true,
+                () -> Flux.<String>never().doOnCancel(() -> cancelled.set(true))
+            ))
+            .expectError(ServiceOverloadedException.class)
+            .verify(Duration.ofSeconds(5));
+        assertThat(cancelled).isTrue();
+    }
+
+    @Test
+    void admit_CancelledWhileQueued_RemovedFromQueue() {
+        // Arrange
+        admissionQueue.admit(AdmissionQueue.Priority.NORMAL, TIMEOUT, Flux::never).subscribe();
+        final Disposable queued =
+            admissionQueue.admit(AdmissionQueue.Priority.NORMAL, TIMEOUT, () -> Flux.just("queued")).subscribe();
+
+        // Act
+        queued.dispose();
+
+        // Verify
+        assertThat(admissionQueue.getQueueDepth()).isZero();
+        assertThat(admissionQueue.getInFlight()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,178 @@
+package com.dhorbach.codingchallenge.concurrency;
+
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import com.dhorbach.codingchallenge.exceptions.RateLimitExceededException;
+import com.dhorbach.codingchallenge.filters.RateLimitExchangeFilterFunction;
+import com.dhorbach.codingchallenge.services.GitHubService;
+import com.dhorbach.codingchallenge.services.RestGitHubService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.dhorbach.codingchallenge.util.Constants.REPO_1;
+import static com.dhorbach.codingchallenge.util.Constants.USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GitHubRateLimiterTest {
+
+    private static final Instant NOW = Instant.parse("2023-07-01T00:00:00Z");
+    private static final long RESET = NOW.plusSeconds(600).getEpochSecond();
+
+    private MockWebServer mockWebServer;
+    private GitHubRateLimiter rateLimiter;
+    private GitHubService gitHubService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+
+        final GitHubProperties gitHubProperties = new GitHubProperties();
+        gitHubProperties.getRateLimit().setLowPriorityReserve(10);
+        rateLimiter = new GitHubRateLimiter(
+            gitHubProperties.getRateLimit(), new SimpleMeterRegistry(), Clock.fixed(NOW, ZoneOffset.UTC)
+        );
+        final WebClient webClient = WebClient.builder()
+            .baseUrl(mockWebServer.url("/").toString())
+            .filter(new RateLimitExchangeFilterFunction(rateLimiter))
+            .build();
+        gitHubService = new RestGitHubService(webClient, gitHubProperties);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void tryReserve_QuotaBelowReserve_RejectsOnlyLowPriorityCalls() {
+        // Arrange
+        enqueue(HttpStatus.OK, 5);
+
+        // Act
+        StepVerifier.create(gitHubService.getGithubRepositories(USERNAME)).verifyComplete();
+
+        // Verify
+        assertThat(rateLimiter.getRemaining()).isEqualTo(5);
+        StepVerifier.create(gitHubService.getGitHubBranches(USERNAME, REPO_1))
+            .verifyErrorSatisfies(throwable -> assertThat(throwable)
+                .isInstanceOf(RateLimitExceededException.class)
+                .extracting("retryAfter")
+                .isEqualTo(Duration.ofSeconds(600)));
+        assertThat(rateLimiter.tryReserve(GitHubRateLimiter.Priority.HIGH)).isNull();
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void tryReserve_BudgetedRequests_AdmittedOrRejectedAsUnit() {
+        // Arrange
+        rateLimiter.update(HttpStatus.OK, headers(100));
+        StepVerifier.create(request(49, () -> { })).expectNextCount(50).verifyComplete();
+        final AtomicInteger others = new AtomicInteger();
+
+        // Act & Verify
+        StepVerifier.create(request(49, () -> {
+                // other requests use up the quota after the fan-out of this one was reserved
+                while (rateLimiter.tryReserve(GitHubRateLimiter.Priority.LOW) == null) {
+                    others.incrementAndGet();
+                }
+            }))
+            .expectNextCount(50)
+            .verifyComplete();
+        assertThat(others).hasValue(41);
+
+        for (int i = 0; i < others.get(); i++) {
+            rateLimiter.release();
+        }
+        rateLimiter.update(HttpStatus.OK, headers(40));
+        StepVerifier.create(request(49, () -> { }))
+            .expectNext(Duration.ofSeconds(600))
+            .verifyComplete();
+        assertThat(rateLimiter.tryReserve(GitHubRateLimiter.Priority.HIGH)).isNull();
+    }
+
+    @Test
+    void update_ThrottledResponse_RejectsAllCallsUntilRetryAfter() {
+        // Arrange
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(HttpStatus.FORBIDDEN.value())
+            .setHeader(HttpHeaders.RETRY_AFTER, "30"));
+
+        // Act & Verify
+        StepVerifier.create(gitHubService.getGithubRepositories(USERNAME))
+            .verifyError(RateLimitExceededException.class);
+        assertThat(rateLimiter.tryReserve(GitHubRateLimiter.Priority.HIGH)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(rateLimiter.getRetryAfter()).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void update_ResponsesOutOfOrder_KeepsLowestRemaining() {
+        // Act
+        rateLimiter.update(HttpStatus.OK, headers(100));
+        rateLimiter.update(HttpStatus.OK, headers(120));
+
+        // Verify
+        assertThat(rateLimiter.getRemaining()).isEqualTo(100);
+    }
+
+    /**
+     * Runs the calls of a budgeted request: a listing and the given number of branch fetches, each released right away.
+     *
+     * @return the result of every call, {@link Duration#ZERO} for admitted calls, up to the first rejected call
+     */
+    private Flux<Duration> request(final int fanOut, final Runnable afterFirstCall) {
+        return GitHubRateLimiter.budgeted(Flux.deferContextual(context -> {
+            final GitHubRateLimiter.Budget budget = context.get(GitHubRateLimiter.Budget.class);
+            final List<Duration> results = new ArrayList<>();
+            for (int i = 0; i <= fanOut; i++) {
+                final Duration retryAfter = rateLimiter.tryReserve(
+                    i == 0 ? GitHubRateLimiter.Priority.HIGH : GitHubRateLimiter.Priority.LOW, budget
+                );
+                if (retryAfter != null) {
+                    results.add(retryAfter);
+                    break;
+                }
+                rateLimiter.release();
+                results.add(Duration.ZERO);
+                if (i == 0) {
+                    afterFirstCall.run();
+                }
+            }
+            return Flux.fromIterable(results);
+        }));
+    }
+
+    private void enqueue(final HttpStatus status, final long remaining) {
+        final MockResponse response = new MockResponse()
+            .setResponseCode(status.value())
+            .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .setBody("[]");
+        headers(remaining).forEach((name, values) -> response.setHeader(name, values.get(0)));
+        mockWebServer.enqueue(response);
+    }
+
+    private static HttpHeaders headers(final long remaining) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(GitHubRateLimiter.REMAINING_HEADER, String.valueOf(remaining));
+        headers.set(GitHubRateLimiter.RESET_HEADER, String.valueOf(RESET));
+        return headers;
+    }
+}
@@ -0,0 +1,151 @@
+package com.dhorbach.codingchallenge.concurrency;
+
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestHedgerTest {
+
+    private static final int SAMPLES = 10;
+
+    private final GitHubProperties.Hedging properties = new GitHubProperties.Hedging();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        properties.setEnabled(true);
+        properties.setWindow(SAMPLES);
+        properties.setMinSamples(SAMPLES);
+        properties.setMinDelay(Duration.ofMillis(20));
+        properties.setBudget(1);
+    }
+
+    @Test
+    void hedge_NotEnoughLatencies_NeverDuplicates() {
+        // Arrange
+        final RequestHedger hedger = new RequestHedger(properties, meterRegistry);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        // Act & Verify
+        StepVerifier.create(hedger.hedge(() -> {
+                attempts.incrementAndGet();
+                return Mono.delay(Duration.ofMillis(100)).thenReturn("primary");
+            }))
+            .expectNext("primary")
+            .verifyComplete();
+
+        assertThat(hedger.getDelay()).isNull();
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void hedge_StalledCall_DuplicateWins() {
+        // Arrange
+        final RequestHedger hedger = warmedUp();
+        final AtomicInteger attempts = new AtomicInteger();
+
+        // Act & Verify
+        StepVerifier.create(hedger.hedge(() -> attempts.incrementAndGet() == 1 ? Mono.never() : Mono.just("duplicate")))
+            .expectNext("duplicate")
+            .verifyComplete();
+
+        assertThat(hedger.getDelay()).isGreaterThanOrEqualTo(properties.getMinDelay());
+        assertThat(attempts).hasValue(2);
+        assertThat(meterRegistry.get("github.hedges.issued").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("github.hedges.won").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void hedge_BudgetExhausted_WaitsForCall() {
+        // Arrange
+        properties.setBudget(0);
+        final RequestHedger hedger = warmedUp();
+        final AtomicInteger attempts = new AtomicInteger();
+
+        // Act & Verify
+        StepVerifier.create(hedger.hedge(() -> {
+                attempts.incrementAndGet();
+                return Mono.delay(Duration.ofMillis(100)).thenReturn("primary");
+            }))
+            .expectNext("primary")
+            .verifyComplete();
+
+        assertThat(attempts).hasValue(1);
+        assertThat(meterRegistry.get("github.hedges.issued").counter().count()).isZero();
+        assertThat(meterRegistry.get("github.hedges.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void hedge_CancelledCall_NotRecorded() {
+        // Arrange
+        final RequestHedger hedger = new RequestHedger(properties, meterRegistry);
+        for (int i = 0; i < SAMPLES - 1; i++) {
+            hedger.hedge(() -> Mono.just("fast")).block();
+        }
+
+        // Act
+        hedger.hedge(Mono::never).subscribe().dispose();
+
+        // Verify
+        assertThat(hedger.getDelay()).isNull();
+    }
+
+    @Test
+    void hedge_FailedCall_FailsWithoutDuplicate() {
+        // Arrange
+        final RequestHedger hedger = warmedUp();
+        final AtomicInteger attempts = new AtomicInteger();
+
+        // Act & Verify
+        StepVerifier.create(hedger.hedge(() -> {
+                attempts.incrementAndGet();
+                return Mono.error(new IllegalStateException("upstream failed"));
+            }))
+            .verifyError(IllegalStateException.class);
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void hedge_WaitingForAdmission_NeitherHedgedNorRecorded() {
+        // Arrange
+        final RequestHedger hedger = warmedUp();
+        final AtomicInteger attempts = new AtomicInteger();
+
+        // Act & Verify
+        for (int i = 0; i < SAMPLES; i++) {
+            StepVerifier.create(hedger.hedge(
+                    () -> {
+                        attempts.incrementAndGet();
+                        return Mono.just("primary");
+                    },
+                    call -> Mono.delay(Duration.ofMillis(100)).then(call)
+                ))
+                .expectNext("primary")
+                .verifyComplete();
+        }
+
+        assertThat(attempts).hasValue(SAMPLES);
+        assertThat(hedger.getDelay()).isEqualTo(properties.getMinDelay());
+        assertThat(meterRegistry.get("github.hedges.issued").counter().count()).isZero();
+    }
+
+    /**
+     * @return a hedger that recorded enough fast calls to hedge with the minimum delay
+     */
+    private RequestHedger warmedUp() {
+        final RequestHedger hedger = new RequestHedger(properties, meterRegistry);
+        for (int i = 0; i < SAMPLES; i++) {
+            hedger.hedge(() -> Mono.just("fast")).block();
+        }
+        return hedger;
+    }
+}
@@ -0,0 +1,60 @@
+package com.dhorbach.codingchallenge.config;
+
+import com.dhorbach.codingchallenge.CodingChallengeApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Loads the whole application with {@code spring.main.lazy-initialization=true} from {@code application.properties}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StartupConfigurationTest {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void contextLoads_LazyInitialization_ApplicationBeansCreatedEagerly() {
+        // Arrange
+        final ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+        final String applicationPackage = CodingChallengeApplication.class.getPackageName();
+
+        // Act
+        final List<String> applicationBeans = Arrays.stream(beanFactory.getBeanDefinitionNames())
+            .filter(name -> {
+                final Class<?> type = beanFactory.getType(name, false);
+                return type != null && type.getPackageName().startsWith(applicationPackage);
+            })
+            .toList();
+
+        // Verify
+        assertThat(context.getEnvironment().getProperty("spring.main.lazy-initialization", Boolean.class)).isTrue();
+        assertThat(applicationBeans).contains("repositoryController", "repositoryService", "repositoryCache");
+        assertThat(applicationBeans).allSatisfy(name -> {
+            assertThat(beanFactory.getBeanDefinition(name).isLazyInit()).as(name).isFalse();
+            assertThat(beanFactory.containsSingleton(name)).as(name).isTrue();
+        });
+        assertThat(Arrays.stream(beanFactory.getBeanDefinitionNames()))
+            .anyMatch(name -> beanFactory.getBeanDefinition(name).isLazyInit());
+    }
+
+    @Test
+    void contextLoads_LazyInitialization_LazyBeansCreatedOnFirstRequest() {
+        // Act & Verify
+        webTestClient.get()
+            .uri("/actuator/health")
+            .exchange()
+            .expectStatus().isOk();
+    }
+}
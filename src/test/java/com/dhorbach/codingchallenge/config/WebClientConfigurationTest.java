@@ -0,0 +1,92 @@
+package com.dhorbach.codingchallenge.config;
+
+import com.dhorbach.codingchallenge.filters.FlightRecorderExchangeFilterFunction;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.timeout.ReadTimeoutException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebClientConfigurationTest {
+
+    private final WebClientConfiguration webClientConfiguration = new WebClientConfiguration();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MockWebServer mockWebServer;
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+        Metrics.addRegistry(meterRegistry);
+
+        final GitHubProperties properties = new GitHubProperties();
+        properties.setBaseUrl(mockWebServer.url("/").toString());
+        properties.getClient().setResponseTimeout(Duration.ofMillis(200));
+        connectionProvider = webClientConfiguration.gitHubConnectionProvider(properties);
+        webClient = WebClient.builder()
+            .clientConnector(webClientConfiguration.gitHubClientHttpConnector(
+                properties,
+                connectionProvider,
+                new DefaultListableBeanFactory().getBeanProvider(FlightRecorderExchangeFilterFunction.class)
+            ))
+            .baseUrl(properties.getBaseUrl())
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        connectionProvider.dispose();
+        Metrics.removeRegistry(meterRegistry);
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void gitHubClientHttpConnector_ResponseTooSlow_FailsWithTimeout() {
+        // Arrange
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(HttpStatus.OK.value())
+            .setHeadersDelay(2, TimeUnit.SECONDS)
+            .setBody("[]"));
+
+        // Act & Verify
+        StepVerifier.create(webClient.get().uri("/users/testuser/repos").retrieve().bodyToMono(String.class))
+            .expectErrorSatisfies(throwable -> assertThat(throwable)
+                .isInstanceOf(WebClientRequestException.class)
+                .hasCauseInstanceOf(ReadTimeoutException.class))
+            .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void gitHubClientHttpConnector_Request_AcceptsCompressionAndPublishesPoolMetrics() throws InterruptedException {
+        // Arrange
+        mockWebServer.enqueue(new MockResponse().setResponseCode(HttpStatus.OK.value()).setBody("[]"));
+
+        // Act
+        StepVerifier.create(webClient.get().uri("/users/testuser/repos").retrieve().bodyToMono(String.class))
+            .expectNext("[]")
+            .verifyComplete();
+
+        // Verify
+        assertThat(mockWebServer.takeRequest().getHeader(HttpHeaders.ACCEPT_ENCODING)).contains("gzip");
+        assertThat(meterRegistry.find("reactor.netty.connection.provider.idle.connections").tag("name", "github").gauge())
+            .isNotNull();
+    }
+}
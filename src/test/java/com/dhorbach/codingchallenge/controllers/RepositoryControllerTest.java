@@ -1,32 +1,60 @@
 package com.dhorbach.codingchallenge.controllers;
 
+import com.dhorbach.codingchallenge.config.AdmissionConfiguration;
+import com.dhorbach.codingchallenge.config.BatchConfiguration;
+import com.dhorbach.codingchallenge.config.FlightRecorderConfiguration;
 import com.dhorbach.codingchallenge.exceptions.NotFoundException;
+import com.dhorbach.codingchallenge.exceptions.RateLimitExceededException;
+import com.dhorbach.codingchallenge.mappers.RepositoryMapper;
+import com.dhorbach.codingchallenge.models.GitHubBranch;
 import com.dhorbach.codingchallenge.models.Repository;
+import com.dhorbach.codingchallenge.models.RepositoryQuery;
+import com.dhorbach.codingchallenge.models.StreamedRepository;
+import com.dhorbach.codingchallenge.models.UserRepositories;
 import com.dhorbach.codingchallenge.services.RepositoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import models.BatchRequest;
+import models.BatchResultDTO;
 import models.FailureResponse;
 import models.RepositoryDTO;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import static com.dhorbach.codingchallenge.util.Constants.BRANCH_1;
 import static com.dhorbach.codingchallenge.util.Constants.REPOSITORIES;
 import static com.dhorbach.codingchallenge.util.Constants.USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 @WebFluxTest
+@Import({RepositoryMapper.class, SimpleMeterRegistry.class, BatchConfiguration.class, AdmissionConfiguration.class,
+    FlightRecorderConfiguration.class})
 class RepositoryControllerTest {
 
     @Autowired
@@ -35,10 +63,11 @@ class RepositoryControllerTest {
     @MockBean
     private RepositoryService repositoryService;
 
-    @SpyBean
-    private ModelMapper modelMapper;
+    @Autowired
+    private RepositoryMapper repositoryMapper;
 
     private static final String API_URL = "/api/v1/repositories/{username}";
+    private static final String BATCH_API_URL = "/api/v1/repositories:batch";
 
     @Test
     void getRepositoriesListByUsername_ValidUsername_ReturnsRepositories() {
@@ -46,10 +75,10 @@ class RepositoryControllerTest {
         final Flux<Repository> repositories = Flux.fromIterable(REPOSITORIES);
         final List<RepositoryDTO> expectedResponse =
             REPOSITORIES.stream()
-                .map(repository -> modelMapper.map(repository, RepositoryDTO.class))
+                .map(repositoryMapper::toRepositoryDto)
                 .collect(Collectors.toList());
 
-        when(repositoryService.getRepositories(USERNAME)).thenReturn(repositories);
+        when(repositoryService.getRepositories(USERNAME, true, RepositoryQuery.ALL)).thenReturn(repositories);
 
         // Act & Verify
         client.get()
@@ -62,11 +91,59 @@ class RepositoryControllerTest {
             .isEqualTo(expectedResponse);
     }
 
+    @Test
+    void getRepositoriesListByUsername_AcceptNdjson_StreamsRepositories() {
+        // Arrange
+        when(repositoryService.getRepositories(USERNAME, false, RepositoryQuery.ALL))
+            .thenReturn(Flux.fromIterable(REPOSITORIES));
+
+        // Act
+        final Flux<RepositoryDTO> response = client.get()
+            .uri(API_URL, USERNAME)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(RepositoryDTO.class)
+            .getResponseBody();
+
+        // Verify
+        StepVerifier.create(response)
+            .expectNextSequence(REPOSITORIES.stream()
+                .map(repositoryMapper::toRepositoryDto)
+                .collect(Collectors.toList()))
+            .verifyComplete();
+    }
+
+    @Test
+    void getRepositoriesListByUsername_AcceptEventStreamOrdered_StreamsRepositoriesInUpstreamOrder() {
+        // Arrange
+        when(repositoryService.getRepositories(USERNAME, true, RepositoryQuery.ALL))
+            .thenReturn(Flux.fromIterable(REPOSITORIES));
+
+        // Act
+        final Flux<RepositoryDTO> response = client.get()
+            .uri(uriBuilder -> uriBuilder.path(API_URL).queryParam("ordered", true).build(USERNAME))
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+            .returnResult(RepositoryDTO.class)
+            .getResponseBody();
+
+        // Verify
+        StepVerifier.create(response)
+            .expectNextCount(REPOSITORIES.size())
+            .verifyComplete();
+        verify(repositoryService).getRepositories(USERNAME, true, RepositoryQuery.ALL);
+    }
+
     @Test
     void getRepositoriesListByUsername_InvalidUsername_ReturnsNotFound() {
         // Arrange
         final String errorMessage = "User with username testuser not found!";
-        when(repositoryService.getRepositories(USERNAME)).thenThrow(new NotFoundException(errorMessage));
+        when(repositoryService.getRepositories(USERNAME, true, RepositoryQuery.ALL))
+            .thenThrow(new NotFoundException(errorMessage));
         final FailureResponse failureResponse = new FailureResponse().status(404).message(errorMessage);
         
         // Act & Verify
@@ -79,6 +156,25 @@ class RepositoryControllerTest {
             .isEqualTo(failureResponse);
     }
 
+    @Test
+    void getRepositoriesListByUsername_RateLimitExceeded_ReturnsTooManyRequests() {
+        // Arrange
+        final String errorMessage = "GitHub rate limit is exhausted";
+        when(repositoryService.getRepositories(USERNAME, true, RepositoryQuery.ALL))
+            .thenReturn(Flux.error(new RateLimitExceededException(errorMessage, Duration.ofSeconds(42))));
+        final FailureResponse failureResponse = new FailureResponse().status(429).message(errorMessage);
+
+        // Act & Verify
+        client.get()
+            .uri(API_URL, USERNAME)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+            .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "42")
+            .expectBody(FailureResponse.class)
+            .isEqualTo(failureResponse);
+    }
+
     @Test
     void getRepositoriesListByUsername_InvalidAcceptHeader_ReturnsNotAcceptable() {
         //Arrange
@@ -96,4 +192,256 @@ class RepositoryControllerTest {
             .expectBody(FailureResponse.class)
             .isEqualTo(failureResponse);
     }
+
+    @Test
+    void getRepositoriesBatch_ValidUsernames_StreamsResultPerUsername() {
+        // Arrange
+        final String errorMessage = "User with username unknown not found!";
+        when(repositoryService.getRepositories(List.of(USERNAME, "unknown"), 8)).thenReturn(Flux.just(
+            UserRepositories.builder().username(USERNAME).repositories(REPOSITORIES).build(),
+            UserRepositories.builder().username("unknown").error(new NotFoundException(errorMessage)).build()
+        ));
+
+        // Act
+        final Flux<BatchResultDTO> response = client.post()
+            .uri(BATCH_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(new BatchRequest().usernames(List.of(USERNAME, "unknown")))
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(BatchResultDTO.class)
+            .getResponseBody();
+
+        // Verify
+        StepVerifier.create(response)
+            .expectNext(new BatchResultDTO()
+                .username(USERNAME)
+                .repositories(REPOSITORIES.stream().map(repositoryMapper::toRepositoryDto).collect(Collectors.toList())))
+            .expectNext(new BatchResultDTO()
+                .username("unknown")
+                .error(new FailureResponse().status(404).message(errorMessage)))
+            .verifyComplete();
+    }
+
+    @Test
+    void getRepositoriesBatch_NoUsernames_ReturnsBadRequest() {
+        // Act & Verify
+        client.post()
+            .uri(BATCH_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(new BatchRequest().usernames(List.of()))
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody(FailureResponse.class)
+            .isEqualTo(new FailureResponse().status(400).message("Between 1 and 1000 usernames are expected"));
+
+        verify(repositoryService, never()).getRepositories(anyList(), anyInt());
+    }
+
+    @Test
+    void getRepositoriesListByUsername_QueryParameters_PassedAsQuery() {
+        // Arrange
+        final RepositoryQuery query = RepositoryQuery.builder()
+            .includeBranches(false)
+            .namePrefix("repo")
+            .page(2)
+            .size(10)
+            .build();
+        when(repositoryService.getRepositories(USERNAME, true, query)).thenReturn(Flux.fromIterable(REPOSITORIES));
+
+        // Act & Verify
+        client.get()
+            .uri(uriBuilder -> uriBuilder.path(API_URL)
+                .queryParam("includeBranches", false)
+                .queryParam("namePrefix", "repo")
+                .queryParam("page", 2)
+                .queryParam("size", 10)
+                .build(USERNAME))
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBodyList(RepositoryDTO.class)
+            .hasSize(REPOSITORIES.size());
+        verify(repositoryService).getRepositories(USERNAME, true, query);
+    }
+
+    @Test
+    void getRepositoriesListByUsername_InvalidSize_ReturnsBadRequest() {
+        // Act & Verify
+        client.get()
+            .uri(uriBuilder -> uriBuilder.path(API_URL).queryParam("size", 0).build(USERNAME))
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody(FailureResponse.class)
+            .isEqualTo(new FailureResponse().status(400).message("size must be between 1 and 100"));
+    }
+
+    @Test
+    void getRepositoriesListByUsername_MatchingIfNoneMatch_ReturnsNotModified() {
+        // Arrange
+        when(repositoryService.getRepositories(USERNAME, true, RepositoryQuery.ALL))
+            .thenReturn(Flux.fromIterable(REPOSITORIES));
+        final String eTag = client.get()
+            .uri(API_URL, USERNAME)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().exists(HttpHeaders.ETAG)
+            .returnResult(RepositoryDTO.class)
+            .getResponseHeaders()
+            .getETag();
+
+        // Act & Verify
+        client.get()
+            .uri(API_URL, USERNAME)
+            .accept(MediaType.APPLICATION_JSON)
+            .ifNoneMatch(eTag)
+            .exchange()
+            .expectStatus().isNotModified()
+            .expectHeader().valueEquals(HttpHeaders.ETAG, eTag)
+            .expectBody().isEmpty();
+    }
+
+    @Test
+    void getRepositoriesListByUsername_MissesCompletingInDifferentOrder_ReturnSameETag() {
+        // Arrange
+        final AtomicInteger misses = new AtomicInteger();
+        when(repositoryService.getRepositories(eq(USERNAME), anyBoolean(), eq(RepositoryQuery.ALL)))
+            .thenAnswer(invocation -> {
+                // in completion order, every miss would emit the repositories in a different order
+                final boolean ordered = invocation.getArgument(1);
+                return ordered || misses.getAndIncrement() % 2 == 0
+                    ? Flux.fromIterable(REPOSITORIES)
+                    : Flux.just(REPOSITORIES.get(1), REPOSITORIES.get(0));
+            });
+
+        // Act
+        final String first = getETag();
+        final String second = getETag();
+
+        // Verify
+        assertThat(first).isNotNull().isEqualTo(second);
+        verify(repositoryService, times(2)).getRepositories(USERNAME, true, RepositoryQuery.ALL);
+    }
+
+    @Test
+    void getRepositoriesListByUsername_ChangedCommitSha_ReturnsNewETag() {
+        // Arrange
+        final List<Repository> changed = List.of(
+            REPOSITORIES.get(0),
+            REPOSITORIES.get(1).toBuilder().branches(List.of(new GitHubBranch(BRANCH_1, "new commit sha"))).build()
+        );
+        when(repositoryService.getRepositories(USERNAME, true, RepositoryQuery.ALL))
+            .thenReturn(Flux.fromIterable(REPOSITORIES), Flux.fromIterable(changed));
+        final String eTag = client.get()
+            .uri(API_URL, USERNAME)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .returnResult(RepositoryDTO.class)
+            .getResponseHeaders()
+            .getETag();
+
+        // Act & Verify
+        client.get()
+            .uri(API_URL, USERNAME)
+            .accept(MediaType.APPLICATION_JSON)
+            .ifNoneMatch(eTag)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().value(HttpHeaders.ETAG, value -> assertThat(value).isNotEqualTo(eTag))
+            .expectBodyList(RepositoryDTO.class)
+            .hasSize(changed.size());
+    }
+
+    @Test
+    void getRepositoriesListByUsername_StreamBranches_ReturnsSameRepositories() {
+        // Arrange
+        final List<RepositoryDTO> expectedResponse = REPOSITORIES.stream()
+            .map(repositoryMapper::toRepositoryDto)
+            .collect(Collectors.toList());
+        when(repositoryService.streamRepositories(USERNAME, RepositoryQuery.ALL)).thenReturn(Flux.fromIterable(REPOSITORIES)
+            .map(repository -> StreamedRepository.builder()
+                .name(repository.getName())
+                .ownerLogin(repository.getOwnerLogin())
+                .branches(Flux.fromIterable(repository.getBranches()))
+                .build()));
+
+        // Act & Verify
+        client.get()
+            .uri(API_URL + "?streamBranches=true", USERNAME)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentType(MediaType.APPLICATION_JSON)
+            .expectBodyList(RepositoryDTO.class)
+            .isEqualTo(expectedResponse);
+        verify(repositoryService, never()).getRepositories(USERNAME, true, RepositoryQuery.ALL);
+    }
+
+    @Test
+    void getRepositoriesListByUsername_StreamBranchesInvalidUsername_ReturnsNotFound() {
+        // Arrange
+        final String errorMessage = "User with username testuser not found!";
+        when(repositoryService.streamRepositories(USERNAME, RepositoryQuery.ALL))
+            .thenReturn(Flux.error(new NotFoundException(errorMessage)));
+        final FailureResponse failureResponse = new FailureResponse().status(404).message(errorMessage);
+
+        // Act & Verify
+        client.get()
+            .uri(API_URL + "?streamBranches=true", USERNAME)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isNotFound()
+            .expectBody(FailureResponse.class)
+            .isEqualTo(failureResponse);
+    }
+
+    @Test
+    void getRepositoriesListByUsername_DeadlineExceeded_ReturnsServiceUnavailableAndCancelsFanOut() {
+        // Arrange
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        when(repositoryService.getRepositories(USERNAME, true, RepositoryQuery.ALL))
+            .thenReturn(Flux.<Repository>never().doOnCancel(() -> cancelled.set(true)));
+        final FailureResponse failureResponse =
+            new FailureResponse().status(503).message("Request could not be completed within its deadline");
+
+        // Act & Verify
+        client.get()
+            .uri(API_URL, USERNAME)
+            .accept(MediaType.APPLICATION_JSON)
+            .header(RepositoryController.REQUEST_TIMEOUT_HEADER, "100")
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+            .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "1")
+            .expectBody(FailureResponse.class)
+            .isEqualTo(failureResponse);
+        assertThat(cancelled).isTrue();
+    }
+
+    @Test
+    void getRepositoriesListByUsername_InvalidRequestTimeout_ReturnsBadRequest() {
+        // Act & Verify
+        client.get()
+            .uri(API_URL, USERNAME)
+            .accept(MediaType.APPLICATION_JSON)
+            .header(RepositoryController.REQUEST_TIMEOUT_HEADER, "soon")
+            .exchange()
+            .expectStatus().isBadRequest();
+        verify(repositoryService, never()).getRepositories(USERNAME, true, RepositoryQuery.ALL);
+    }
+
+    private String getETag() {
+        return client.get()
+            .uri(API_URL, USERNAME)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus().isOk()
+            .returnResult(RepositoryDTO.class)
+            .getResponseHeaders()
+            .getETag();
+    }
 }
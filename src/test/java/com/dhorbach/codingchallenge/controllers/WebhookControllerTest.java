@@ -0,0 +1,133 @@
+package com.dhorbach.codingchallenge.controllers;
+
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import com.dhorbach.codingchallenge.services.WebhookService;
+import com.dhorbach.codingchallenge.util.FileUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import models.FailureResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(
+    controllers = WebhookController.class,
+    properties = {"github.webhook.enabled=true", "github.webhook.max-payload-size=2MB"}
+)
+@EnableConfigurationProperties(GitHubProperties.class)
+class WebhookControllerTest {
+
+    private static final String WEBHOOK_URL = "/api/v1/webhooks/github";
+    private static final String SIGNATURE = "sha256=0123";
+
+    @Autowired
+    private WebTestClient client;
+
+    @MockBean
+    private WebhookService webhookService;
+
+    @Test
+    void receiveGitHubEvent_ValidSignature_HandlesEvent() throws IOException {
+        // Arrange
+        final String payload = FileUtil.readFromFileToString("webhooks/push.json");
+        when(webhookService.isSignatureValid(eq("push"), eq(SIGNATURE), any())).thenReturn(true);
+
+        // Act & Verify
+        client.post()
+            .uri(WEBHOOK_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("X-GitHub-Event", "push")
+            .header("X-Hub-Signature-256", SIGNATURE)
+            .bodyValue(payload)
+            .exchange()
+            .expectStatus().isNoContent();
+
+        verify(webhookService).handle(eq("push"), any(JsonNode.class));
+    }
+
+    @Test
+    void receiveGitHubEvent_InvalidSignature_ReturnsUnauthorized() throws IOException {
+        // Arrange
+        final String payload = FileUtil.readFromFileToString("webhooks/push.json");
+        when(webhookService.isSignatureValid(eq("push"), eq(SIGNATURE), any())).thenReturn(false);
+
+        // Act & Verify
+        client.post()
+            .uri(WEBHOOK_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("X-GitHub-Event", "push")
+            .header("X-Hub-Signature-256", SIGNATURE)
+            .bodyValue(payload)
+            .exchange()
+            .expectStatus().isUnauthorized()
+            .expectBody(FailureResponse.class)
+            .isEqualTo(new FailureResponse()
+                .status(HttpStatus.UNAUTHORIZED.value())
+                .message("Signature of the webhook payload is invalid"));
+
+        verify(webhookService, never()).handle(any(), any());
+    }
+
+    @Test
+    void receiveGitHubEvent_PayloadBeyondCodecLimit_HandlesEvent() {
+        // Arrange
+        final String payload = payload(1024 * 1024);
+        when(webhookService.isSignatureValid(eq("push"), eq(SIGNATURE), any())).thenReturn(true);
+
+        // Act & Verify
+        client.post()
+            .uri(WEBHOOK_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("X-GitHub-Event", "push")
+            .header("X-Hub-Signature-256", SIGNATURE)
+            .bodyValue(payload)
+            .exchange()
+            .expectStatus().isNoContent();
+
+        verify(webhookService)
+            .isSignatureValid(eq("push"), eq(SIGNATURE), argThat(bytes -> bytes.length == payload.length()));
+        verify(webhookService).handle(eq("push"), any(JsonNode.class));
+    }
+
+    @Test
+    void receiveGitHubEvent_PayloadBeyondMaxPayloadSize_ReturnsPayloadTooLarge() {
+        // Arrange
+        final String payload = payload(3 * 1024 * 1024);
+
+        // Act & Verify
+        client.post()
+            .uri(WEBHOOK_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("X-GitHub-Event", "push")
+            .header("X-Hub-Signature-256", SIGNATURE)
+            .bodyValue(payload)
+            .exchange()
+            .expectStatus().isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE)
+            .expectBody(FailureResponse.class)
+            .isEqualTo(new FailureResponse()
+                .status(HttpStatus.PAYLOAD_TOO_LARGE.value())
+                .message("Webhook payload exceeds 2097152 bytes"));
+
+        verify(webhookService, never()).handle(any(), any());
+    }
+
+    /**
+     * @return a JSON payload of about the given size
+     */
+    private static String payload(final int size) {
+        return "{\"ref\":\"refs/heads/main\",\"padding\":\"" + "x".repeat(size) + "\"}";
+    }
+}
@@ -0,0 +1,158 @@
+package com.dhorbach.codingchallenge.filters;
+
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import com.dhorbach.codingchallenge.models.GitHubRepository;
+import com.dhorbach.codingchallenge.services.GitHubService;
+import com.dhorbach.codingchallenge.services.RestGitHubService;
+import com.dhorbach.codingchallenge.util.FileUtil;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.dhorbach.codingchallenge.util.Constants.REPO_1;
+import static com.dhorbach.codingchallenge.util.Constants.REPO_2;
+import static com.dhorbach.codingchallenge.util.Constants.USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ETagCacheExchangeFilterFunctionTest {
+
+    private static final String ETAG = "\"etag-1\"";
+
+    private MockWebServer mockWebServer;
+    private ETagCacheExchangeFilterFunction eTagCacheExchangeFilterFunction;
+    private GitHubService gitHubService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+
+        eTagCacheExchangeFilterFunction = new ETagCacheExchangeFilterFunction(1, 1024, 1024);
+        final WebClient webClient = WebClient.builder()
+            .baseUrl(mockWebServer.url("/").toString())
+            .filter(eTagCacheExchangeFilterFunction)
+            .build();
+
+        gitHubService = new RestGitHubService(webClient, new GitHubProperties());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void filter_NotModified_ReplaysCachedBody() throws IOException, InterruptedException {
+        // Arrange
+        final List<GitHubRepository> expectedRepositories = List.of(
+            new GitHubRepository(REPO_1, false, USERNAME),
+            new GitHubRepository(REPO_2, true, USERNAME)
+        );
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(HttpStatus.OK.value())
+            .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .setHeader(HttpHeaders.ETAG, ETAG)
+            .setBody(FileUtil.readFromFileToString("/github-repositories.json")));
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(HttpStatus.NOT_MODIFIED.value())
+            .setHeader(HttpHeaders.ETAG, ETAG));
+
+        // Act & Verify
+        StepVerifier.create(gitHubService.getGithubRepositories(USERNAME))
+            .expectNextSequence(expectedRepositories)
+            .verifyComplete();
+        StepVerifier.create(gitHubService.getGithubRepositories(USERNAME))
+            .expectNextSequence(expectedRepositories)
+            .verifyComplete();
+
+        final RecordedRequest firstRequest = mockWebServer.takeRequest();
+        final RecordedRequest secondRequest = mockWebServer.takeRequest();
+        assertThat(firstRequest.getHeader(HttpHeaders.IF_NONE_MATCH)).isNull();
+        assertThat(secondRequest.getHeader(HttpHeaders.IF_NONE_MATCH)).isEqualTo(ETAG);
+    }
+
+    @Test
+    void filter_MaxEntriesExceeded_EvictsLeastRecentlyUsedResponse() throws InterruptedException {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(HttpStatus.OK.value())
+                .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .setHeader(HttpHeaders.ETAG, ETAG)
+                .setBody("[]"));
+        }
+
+        // Act
+        StepVerifier.create(gitHubService.getGitHubBranches(USERNAME, REPO_1)).verifyComplete();
+        StepVerifier.create(gitHubService.getGitHubBranches(USERNAME, REPO_2)).verifyComplete();
+        StepVerifier.create(gitHubService.getGitHubBranches(USERNAME, REPO_1)).verifyComplete();
+
+        // Verify
+        assertThat(eTagCacheExchangeFilterFunction.size()).isEqualTo(1);
+        mockWebServer.takeRequest();
+        mockWebServer.takeRequest();
+        assertThat(mockWebServer.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH)).isNull();
+    }
+
+    @Test
+    void filter_MaxTotalSizeExceeded_EvictsLeastRecentlyUsedResponse() throws InterruptedException {
+        // Arrange
+        final ETagCacheExchangeFilterFunction bySize = new ETagCacheExchangeFilterFunction(100, 1024, 10);
+        final GitHubService service = new RestGitHubService(
+            WebClient.builder().baseUrl(mockWebServer.url("/").toString()).filter(bySize).build(),
+            new GitHubProperties()
+        );
+        for (int i = 0; i < 3; i++) {
+            mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(HttpStatus.OK.value())
+                .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .setHeader(HttpHeaders.ETAG, ETAG)
+                .setBody("[    ]"));
+        }
+
+        // Act
+        StepVerifier.create(service.getGitHubBranches(USERNAME, REPO_1)).verifyComplete();
+        StepVerifier.create(service.getGitHubBranches(USERNAME, REPO_2)).verifyComplete();
+        StepVerifier.create(service.getGitHubBranches(USERNAME, REPO_1)).verifyComplete();
+
+        // Verify
+        assertThat(bySize.size()).isEqualTo(1);
+        assertThat(bySize.totalSize()).isEqualTo(6);
+        mockWebServer.takeRequest();
+        mockWebServer.takeRequest();
+        assertThat(mockWebServer.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH)).isNull();
+    }
+
+    @Test
+    void filter_BodyTooLarge_DoesNotCacheResponse() throws InterruptedException {
+        // Arrange
+        final String body = "[" + "{\"name\":\"branch\",\"commit\":{\"sha\":\"sha\"}},".repeat(50) + "{}]";
+        for (int i = 0; i < 2; i++) {
+            mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(HttpStatus.OK.value())
+                .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .setHeader(HttpHeaders.ETAG, ETAG)
+                .setBody(body));
+        }
+
+        // Act
+        StepVerifier.create(gitHubService.getGitHubBranches(USERNAME, REPO_1)).expectNextCount(51).verifyComplete();
+        StepVerifier.create(gitHubService.getGitHubBranches(USERNAME, REPO_1)).expectNextCount(51).verifyComplete();
+
+        // Verify
+        assertThat(eTagCacheExchangeFilterFunction.size()).isZero();
+        mockWebServer.takeRequest();
+        assertThat(mockWebServer.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH)).isNull();
+    }
+}
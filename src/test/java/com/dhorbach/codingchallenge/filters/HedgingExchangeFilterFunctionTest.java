@@ -0,0 +1,95 @@
+package com.dhorbach.codingchallenge.filters;
+
+import com.dhorbach.codingchallenge.concurrency.AdaptiveConcurrencyLimiter;
+import com.dhorbach.codingchallenge.concurrency.RequestHedger;
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.services.GitHubService;
+import com.dhorbach.codingchallenge.services.RestGitHubService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static com.dhorbach.codingchallenge.util.Constants.REPO_1;
+import static com.dhorbach.codingchallenge.util.Constants.USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HedgingExchangeFilterFunctionTest {
+
+    private final GitHubProperties gitHubProperties = new GitHubProperties();
+    private MockWebServer mockWebServer;
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private GitHubService gitHubService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+
+        gitHubProperties.getConcurrency().setInitialLimit(1);
+        gitHubProperties.getConcurrency().setMaxLimit(1);
+        concurrencyLimiter =
+            new AdaptiveConcurrencyLimiter(gitHubProperties.getConcurrency(), new SimpleMeterRegistry());
+        final WebClient webClient = WebClient.builder()
+            .baseUrl(mockWebServer.url("/").toString())
+            .filter(new HedgingExchangeFilterFunction(
+                concurrencyLimiter,
+                new RequestHedger(gitHubProperties.getHedging(), new SimpleMeterRegistry())
+            ))
+            .build();
+
+        gitHubService = new RestGitHubService(webClient, gitHubProperties);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void filter_BranchPages_HoldPermitUntilBodyRead() {
+        // Arrange
+        mockWebServer.enqueue(branchPage("main").setBodyDelay(300, TimeUnit.MILLISECONDS));
+        mockWebServer.enqueue(branchPage("develop"));
+        final Mono<Integer> requestsWhileFirstBodyRead = Mono.delay(Duration.ofMillis(150))
+            .map(tick -> mockWebServer.getRequestCount());
+
+        // Act
+        final Mono<Long> branches = Flux.merge(
+                gitHubService.getGitHubBranches(USERNAME, REPO_1),
+                gitHubService.getGitHubBranches(USERNAME, REPO_1)
+            )
+            .map(GitHubBranch::getName)
+            .count();
+
+        // Verify
+        StepVerifier.create(Mono.zip(branches, requestsWhileFirstBodyRead))
+            .assertNext(result -> {
+                assertThat(result.getT1()).isEqualTo(2);
+                assertThat(result.getT2()).isEqualTo(1);
+            })
+            .verifyComplete();
+        assertThat(concurrencyLimiter.getInFlight()).isZero();
+    }
+
+    private static MockResponse branchPage(final String branch) {
+        return new MockResponse()
+            .setResponseCode(HttpStatus.OK.value())
+            .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .setBody(String.format("[{\"name\":\"%s\",\"commit\":{\"sha\":\"0123\"}}]", branch));
+    }
+}
@@ -0,0 +1,80 @@
+package com.dhorbach.codingchallenge.filters;
+
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import com.dhorbach.codingchallenge.exceptions.NotFoundException;
+import com.dhorbach.codingchallenge.services.GitHubService;
+import com.dhorbach.codingchallenge.services.RestGitHubService;
+import com.dhorbach.codingchallenge.util.FileUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+
+import static com.dhorbach.codingchallenge.util.Constants.REPO_1;
+import static com.dhorbach.codingchallenge.util.Constants.USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsExchangeFilterFunctionTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MockWebServer mockWebServer;
+    private GitHubService gitHubService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+
+        final WebClient webClient = WebClient.builder()
+            .baseUrl(mockWebServer.url("/").toString())
+            .filter(new MetricsExchangeFilterFunction(meterRegistry))
+            .build();
+
+        gitHubService = new RestGitHubService(webClient, new GitHubProperties());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void filter_UpstreamCalls_TimedByEndpointAndStatus() throws IOException {
+        // Arrange
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(HttpStatus.OK.value())
+            .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .setBody(FileUtil.readFromFileToString("/github-repositories.json")));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(HttpStatus.NOT_FOUND.value()));
+
+        // Act
+        StepVerifier.create(gitHubService.getGithubRepositories(USERNAME))
+            .expectNextCount(2)
+            .verifyComplete();
+        StepVerifier.create(gitHubService.getGitHubBranches(USERNAME, REPO_1))
+            .verifyError(NotFoundException.class);
+
+        // Verify
+        assertThat(meterRegistry.get("github.client.requests").tags("endpoint", "repos", "status", "200").timer().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("github.client.requests").tags("endpoint", "branches", "status", "404").timer().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void endpoint_Paths_MappedToEndpointTags() {
+        assertThat(MetricsExchangeFilterFunction.endpoint("/users/testuser/repos")).isEqualTo("repos");
+        assertThat(MetricsExchangeFilterFunction.endpoint("/repos/testuser/repo1/branches")).isEqualTo("branches");
+        assertThat(MetricsExchangeFilterFunction.endpoint("/graphql")).isEqualTo("graphql");
+        assertThat(MetricsExchangeFilterFunction.endpoint("/rate_limit")).isEqualTo("other");
+    }
+}
@@ -0,0 +1,53 @@
+package com.dhorbach.codingchallenge.mappers;
+
+import com.dhorbach.codingchallenge.models.Repository;
+import models.BranchDTO;
+import models.RepositoryDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.dhorbach.codingchallenge.util.Constants.BRANCH_1;
+import static com.dhorbach.codingchallenge.util.Constants.BRANCH_2;
+import static com.dhorbach.codingchallenge.util.Constants.COMMIT;
+import static com.dhorbach.codingchallenge.util.Constants.REPOSITORIES;
+import static com.dhorbach.codingchallenge.util.Constants.REPO_1;
+import static com.dhorbach.codingchallenge.util.Constants.USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepositoryMapperTest {
+
+    private final RepositoryMapper repositoryMapper = new RepositoryMapper();
+
+    @Test
+    void toRepositoryDto_RepositoryWithBranches_MapsAllProperties() {
+        // Arrange
+        final RepositoryDTO expectedDto = new RepositoryDTO()
+            .repositoryName(REPO_1)
+            .ownerLogin(USERNAME)
+            .branches(List.of(
+                new BranchDTO().name(BRANCH_1).lastCommitSHA(COMMIT),
+                new BranchDTO().name(BRANCH_2).lastCommitSHA(COMMIT)
+            ));
+
+        // Act
+        final RepositoryDTO dto = repositoryMapper.toRepositoryDto(REPOSITORIES.get(0));
+
+        // Verify
+        assertThat(dto).isEqualTo(expectedDto);
+    }
+
+    @Test
+    void toRepositoryDto_RepositoryWithoutBranches_MapsNullBranches() {
+        // Arrange
+        final Repository repository = Repository.builder().name(REPO_1).ownerLogin(USERNAME).build();
+
+        // Act
+        final RepositoryDTO dto = repositoryMapper.toRepositoryDto(repository);
+
+        // Verify
+        assertThat(dto.getRepositoryName()).isEqualTo(REPO_1);
+        assertThat(dto.getOwnerLogin()).isEqualTo(USERNAME);
+        assertThat(dto.getBranches()).isNull();
+    }
+}
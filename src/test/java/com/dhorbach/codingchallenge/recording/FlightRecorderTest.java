@@ -0,0 +1,120 @@
+package com.dhorbach.codingchallenge.recording;
+
+import com.dhorbach.codingchallenge.config.FlightRecorderProperties;
+import com.dhorbach.codingchallenge.filters.FlightRecorderExchangeFilterFunction;
+import com.dhorbach.codingchallenge.util.FileUtil;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static com.dhorbach.codingchallenge.util.Constants.REPO_1;
+import static com.dhorbach.codingchallenge.util.Constants.USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightRecorderTest {
+
+    private final FlightRecorderProperties properties = new FlightRecorderProperties();
+    private MockWebServer mockWebServer;
+    private WebClient webClient;
+    private FlightRecorder flightRecorder;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+
+        webClient = WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(
+                FlightRecorderExchangeFilterFunction.instrument(HttpClient.create())
+            ))
+            .baseUrl(mockWebServer.url("/").toString())
+            .filter(new FlightRecorderExchangeFilterFunction())
+            .build();
+
+        flightRecorder = new FlightRecorder(properties);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void record_UpstreamCalls_KeptWithRequestTimeline() throws IOException {
+        // Arrange
+        final String repositories = FileUtil.readFromFileToString("/github-repositories.json");
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(HttpStatus.OK.value())
+            .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .setBody(repositories));
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(HttpStatus.OK.value())
+            .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .setBody(FileUtil.readFromFileToString("/github-branches.json")));
+        final Flux<String> request = get("/users/{username}/repos", USERNAME)
+            .concatWith(get("/repos/{owner}/{repository}/branches", USERNAME, REPO_1));
+
+        // Act
+        StepVerifier.create(flightRecorder.record("single", USERNAME, FlightRecorder.admitted(request)))
+            .expectNextCount(2)
+            .verifyComplete();
+
+        // Verify
+        final RequestTimeline timeline = flightRecorder.getSlowRequests().get(0);
+        assertThat(timeline.operation()).isEqualTo("single");
+        assertThat(timeline.username()).isEqualTo(USERNAME);
+        assertThat(timeline.outcome()).isEqualTo("success");
+        assertThat(timeline.admissionMillis()).isNotNull();
+        assertThat(timeline.callCount()).isEqualTo(2);
+        assertThat(timeline.calls()).extracting(RequestTimeline.Call::endpoint).containsExactly("repos", "branches");
+        assertThat(timeline.calls()).extracting(RequestTimeline.Call::repository).containsExactly(null, REPO_1);
+        assertThat(timeline.calls()).extracting(RequestTimeline.Call::status).containsOnly(HttpStatus.OK.value());
+        assertThat(timeline.calls()).extracting(RequestTimeline.Call::newConnection).containsExactly(true, false);
+        final RequestTimeline.Call opening = timeline.calls().get(0);
+        assertThat(opening.poolMillis()).isBetween(0.0, opening.connectionMillis());
+        assertThat(opening.dnsMillis()).isBetween(0.0, opening.connectionMillis());
+        assertThat(opening.connectMillis()).isBetween(0.0, opening.connectionMillis());
+        final RequestTimeline.Call reusing = timeline.calls().get(1);
+        assertThat(reusing.poolMillis()).isEqualTo(reusing.connectionMillis());
+        assertThat(reusing.dnsMillis()).isZero();
+        assertThat(reusing.connectMillis()).isZero();
+        assertThat(timeline.calls()).extracting(RequestTimeline.Call::critical).containsExactly(false, true);
+        assertThat(timeline.calls().get(0).bytes()).isEqualTo(repositories.length());
+        assertThat(timeline.bytes()).isEqualTo(timeline.calls().get(0).bytes() + timeline.calls().get(1).bytes());
+    }
+
+    @Test
+    void record_MoreRequestsThanKept_KeepsSlowest() {
+        // Arrange
+        properties.setSlowRequests(2);
+
+        // Act
+        for (final int millis : new int[]{100, 10, 200}) {
+            flightRecorder.record("single", "user-" + millis, Flux.from(Mono.delay(Duration.ofMillis(millis))))
+                .blockLast();
+        }
+
+        // Verify
+        assertThat(flightRecorder.getSlowRequests())
+            .extracting(RequestTimeline::username)
+            .containsExactly("user-200", "user-100");
+    }
+
+    private Flux<String> get(final String uri, final Object... variables) {
+        return webClient.get().uri(uri, variables).retrieve().bodyToMono(String.class).flux();
+    }
+}
@@ -0,0 +1,258 @@
+package com.dhorbach.codingchallenge.services;
+
+import com.dhorbach.codingchallenge.cache.NegativeCache;
+import com.dhorbach.codingchallenge.cache.RepositoryCache;
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import com.dhorbach.codingchallenge.config.RepositoryCacheProperties;
+import com.dhorbach.codingchallenge.exceptions.NotFoundException;
+import com.dhorbach.codingchallenge.exceptions.RateLimitExceededException;
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.GitHubRepository;
+import com.dhorbach.codingchallenge.models.Repository;
+import com.dhorbach.codingchallenge.models.RepositoryQuery;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.dhorbach.codingchallenge.util.Constants.BRANCH_1;
+import static com.dhorbach.codingchallenge.util.Constants.BRANCH_2;
+import static com.dhorbach.codingchallenge.util.Constants.COMMIT;
+import static com.dhorbach.codingchallenge.util.Constants.GITHUB_BRANCHES;
+import static com.dhorbach.codingchallenge.util.Constants.REPO_1;
+import static com.dhorbach.codingchallenge.util.Constants.REPO_2;
+import static com.dhorbach.codingchallenge.util.Constants.REPOSITORIES;
+import static com.dhorbach.codingchallenge.util.Constants.USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GraphQlGitHubServiceTest {
+
+    private static final String REPOSITORIES_PAGE_1 = """
+        {"data": {"repositoryOwner": {"repositories": {
+          "pageInfo": {"hasNextPage": true, "endCursor": "repositories-1"},
+          "nodes": [{"name": "repo1", "isFork": false, "owner": {"login": "testuser"}, "refs": {
+            "pageInfo": {"hasNextPage": true, "endCursor": "branches-1"},
+            "nodes": [{"name": "branch1", "target": {"oid": "commit sha"}}]
+          }}]
+        }}}}
+        """;
+    private static final String REPOSITORIES_PAGE_2 = """
+        {"data": {"repositoryOwner": {"repositories": {
+          "pageInfo": {"hasNextPage": false, "endCursor": "repositories-2"},
+          "nodes": [{"name": "repo2", "isFork": false, "owner": {"login": "testuser"}, "refs": {
+            "pageInfo": {"hasNextPage": false, "endCursor": "branches-2"},
+            "nodes": [{"name": "branch1", "target": {"oid": "commit sha"}}, {"name": "branch2", "target": {"oid": "commit sha"}}]
+          }}]
+        }}}}
+        """;
+    private static final String BRANCHES_PAGE_2 = """
+        {"data": {"repository": {"refs": {
+          "pageInfo": {"hasNextPage": false, "endCursor": "branches-2"},
+          "nodes": [{"name": "branch2", "target": {"oid": "commit sha"}}]
+        }}}}
+        """;
+    private static final String NOT_FOUND = """
+        {"data": {"repositoryOwner": null},
+         "errors": [{"type": "NOT_FOUND", "path": ["repositoryOwner"], "message": "Could not resolve to a User"}]}
+        """;
+
+    private static final String RATE_LIMITED = """
+        {"data": null,
+         "errors": [{"type": "RATE_LIMITED", "message": "API rate limit exceeded for user ID 1."}]}
+        """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MockWebServer mockWebServer;
+    private GraphQlGitHubService gitHubService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+
+        final WebClient webClient = WebClient.builder()
+            .baseUrl(mockWebServer.url("/").toString())
+            .build();
+
+        gitHubService = new GraphQlGitHubService(webClient, new GitHubProperties());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void getGithubRepositories_MultiplePages_ReturnsRepositoriesWithAllBranches() {
+        // Arrange
+        mockWebServer.setDispatcher(graphQlDispatcher());
+
+        // Act & Verify
+        StepVerifier.create(gitHubService.getGithubRepositories(USERNAME))
+            .recordWith(ArrayList::new)
+            .expectNextCount(2)
+            .consumeRecordedWith(repositories -> assertThat(repositories).containsExactlyInAnyOrder(
+                new GitHubRepository(REPO_1, false, USERNAME, GITHUB_BRANCHES),
+                new GitHubRepository(REPO_2, false, USERNAME, GITHUB_BRANCHES)
+            ))
+            .verifyComplete();
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(3);
+    }
+
+    @Test
+    void getGithubRepositories_UserNotFound_ThrowsNotFoundException() {
+        // Arrange
+        mockWebServer.enqueue(jsonResponse(NOT_FOUND));
+
+        // Act & Verify
+        StepVerifier.create(gitHubService.getGithubRepositories(USERNAME))
+            .expectError(NotFoundException.class)
+            .verify();
+    }
+
+    @Test
+    void getGithubRepositories_RateLimited_ThrowsRateLimitExceededExceptionWithReset() {
+        // Arrange
+        final long reset = Instant.now().plusSeconds(120).getEpochSecond();
+        mockWebServer.enqueue(jsonResponse(RATE_LIMITED)
+            .setHeader("X-RateLimit-Remaining", "0")
+            .setHeader("X-RateLimit-Reset", String.valueOf(reset)));
+
+        // Act & Verify
+        StepVerifier.create(gitHubService.getGithubRepositories(USERNAME))
+            .expectErrorSatisfies(throwable -> assertThat(throwable)
+                .isInstanceOfSatisfying(RateLimitExceededException.class, exception -> assertThat(
+                    exception.getRetryAfter()
+                ).isBetween(Duration.ofSeconds(100), Duration.ofSeconds(120))))
+            .verify();
+    }
+
+    @Test
+    void getGithubRepositories_BranchesExcluded_DoesNotRequestBranches() throws InterruptedException {
+        // Arrange
+        mockWebServer.setDispatcher(graphQlDispatcher());
+        final RepositoryQuery query = RepositoryQuery.builder().includeBranches(false).build();
+
+        // Act & Verify
+        StepVerifier.create(gitHubService.getGithubRepositories(USERNAME, query).map(GitHubRepository::getName))
+            .expectNext(REPO_1, REPO_2)
+            .verifyComplete();
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(2);
+        assertThat(readBody(mockWebServer.takeRequest()).path("variables").path("includeBranches").asBoolean()).isFalse();
+    }
+
+    @Test
+    void getGitHubBranches_ValidUsernameAndRepository_ReturnsBranches() {
+        // Arrange
+        mockWebServer.enqueue(jsonResponse(BRANCHES_PAGE_2));
+
+        // Act & Verify
+        StepVerifier.create(gitHubService.getGitHubBranches(USERNAME, REPO_1))
+            .expectNext(new GitHubBranch(BRANCH_2, COMMIT))
+            .verifyComplete();
+    }
+
+    @Test
+    void getRepositories_GraphQlAndRestBackends_ReturnIdenticalRepositories() throws IOException {
+        // Arrange
+        mockWebServer.setDispatcher(graphQlDispatcher());
+        final RepositoryService graphQlRepositoryService = repositoryService(gitHubService);
+
+        try (MockWebServer restServer = new MockWebServer()) {
+            restServer.setDispatcher(restDispatcher());
+            restServer.start();
+            final WebClient restWebClient = WebClient.builder().baseUrl(restServer.url("/").toString()).build();
+            final RepositoryService restRepositoryService =
+                repositoryService(new RestGitHubService(restWebClient, new GitHubProperties()));
+
+            // Act & Verify
+            final List<Repository> graphQlRepositories =
+                graphQlRepositoryService.getRepositories(USERNAME).collectList().block();
+            final List<Repository> restRepositories =
+                restRepositoryService.getRepositories(USERNAME).collectList().block();
+            assertThat(graphQlRepositories).containsExactlyInAnyOrderElementsOf(REPOSITORIES);
+            assertThat(restRepositories).containsExactlyInAnyOrderElementsOf(graphQlRepositories);
+        }
+    }
+
+    private Dispatcher graphQlDispatcher() {
+        return new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull final RecordedRequest request) {
+                final JsonNode body = readBody(request);
+                final String cursor = body.path("variables").path("cursor").asText(null);
+                if (body.path("query").asText().contains("repositoryOwner")) {
+                    return jsonResponse(cursor == null ? REPOSITORIES_PAGE_1 : REPOSITORIES_PAGE_2);
+                }
+                return jsonResponse(BRANCHES_PAGE_2);
+            }
+        };
+    }
+
+    private static Dispatcher restDispatcher() {
+        return new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull final RecordedRequest request) {
+                final String path = String.valueOf(request.getPath());
+                if (path.startsWith("/users/" + USERNAME + "/repos")) {
+                    return jsonResponse("""
+                        [{"name": "repo1", "fork": false, "owner": {"login": "testuser"}},
+                         {"name": "repo2", "fork": false, "owner": {"login": "testuser"}},
+                         {"name": "repo3", "fork": true, "owner": {"login": "testuser"}}]
+                        """);
+                }
+                return jsonResponse(String.format("""
+                    [{"name": "%s", "commit": {"sha": "%s"}}, {"name": "%s", "commit": {"sha": "%s"}}]
+                    """, BRANCH_1, COMMIT, BRANCH_2, COMMIT));
+            }
+        };
+    }
+
+    private JsonNode readBody(final RecordedRequest request) {
+        try {
+            return objectMapper.readTree(request.getBody().readUtf8());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static RepositoryService repositoryService(final GitHubService gitHubService) {
+        final RepositoryCacheProperties cacheProperties = new RepositoryCacheProperties();
+        cacheProperties.setEnabled(false);
+        return new RepositoryService(
+            gitHubService,
+            new RepositoryCache(cacheProperties, new SimpleMeterRegistry(), Clock.systemUTC()),
+            new NegativeCache(cacheProperties.getNegative(), new SimpleMeterRegistry(), Clock.systemUTC()),
+            new SimpleMeterRegistry()
+        );
+    }
+
+    private static MockResponse jsonResponse(final String body) {
+        return new MockResponse()
+            .setResponseCode(HttpStatus.OK.value())
+            .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .setBody(body);
+    }
+}
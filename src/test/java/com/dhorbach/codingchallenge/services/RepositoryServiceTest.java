@@ -1,16 +1,41 @@
 package com.dhorbach.codingchallenge.services;
 
+import com.dhorbach.codingchallenge.cache.NegativeCache;
+import com.dhorbach.codingchallenge.cache.RepositoryCache;
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import com.dhorbach.codingchallenge.config.RepositoryCacheProperties;
 import com.dhorbach.codingchallenge.exceptions.NotFoundException;
+import com.dhorbach.codingchallenge.exceptions.RateLimitExceededException;
 import com.dhorbach.codingchallenge.models.Repository;
+import com.dhorbach.codingchallenge.models.RepositoryQuery;
+import com.dhorbach.codingchallenge.models.UserRepositories;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 import static com.dhorbach.codingchallenge.util.Constants.GITHUB_BRANCHES;
 import static com.dhorbach.codingchallenge.util.Constants.GITHUB_REPOSITORIES;
@@ -18,6 +43,9 @@ import static com.dhorbach.codingchallenge.util.Constants.REPOSITORIES;
 import static com.dhorbach.codingchallenge.util.Constants.REPO_1;
 import static com.dhorbach.codingchallenge.util.Constants.REPO_2;
 import static com.dhorbach.codingchallenge.util.Constants.USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.never;
@@ -30,6 +58,14 @@ class RepositoryServiceTest {
 
     @Mock
     private GitHubService gitHubService;
+    @Spy
+    private RepositoryCache repositoryCache =
+        new RepositoryCache(new RepositoryCacheProperties(), new SimpleMeterRegistry(), Clock.systemUTC());
+    @Spy
+    private NegativeCache negativeCache =
+        new NegativeCache(new RepositoryCacheProperties.Negative(), new SimpleMeterRegistry(), Clock.systemUTC());
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
     @InjectMocks
     private RepositoryService repositoryService;
 
@@ -51,6 +87,90 @@ class RepositoryServiceTest {
 
         verify(gitHubService, times(1)).getGithubRepositories(USERNAME);
         verify(gitHubService, times(2)).getGitHubBranches(eq(USERNAME), anyString());
+        assertThat(meterRegistry.get("repositories.fanout").summary().totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.get("repositories.branches").summary().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("repositories.requests.in-flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void getRepositories_SlowFirstRepository_OrderedOnlyOnRequest() {
+        // Arrange
+        when(gitHubService.getGithubRepositories(USERNAME)).thenReturn(Flux.fromIterable(GITHUB_REPOSITORIES));
+        when(gitHubService.getGitHubBranches(USERNAME, REPO_1))
+            .thenReturn(Flux.fromIterable(GITHUB_BRANCHES).delaySubscription(Duration.ofMillis(100)));
+        when(gitHubService.getGitHubBranches(USERNAME, REPO_2)).thenReturn(Flux.fromIterable(GITHUB_BRANCHES));
+
+        // Act & Verify
+        StepVerifier.create(repositoryService.getRepositories(USERNAME, false))
+            .expectNext(REPOSITORIES.get(1), REPOSITORIES.get(0))
+            .verifyComplete();
+        repositoryCache.evict(USERNAME);
+        StepVerifier.create(repositoryService.getRepositories(USERNAME, true))
+            .expectNextSequence(REPOSITORIES)
+            .verifyComplete();
+    }
+
+    @Test
+    void getRepositories_RestPagesArriveOutOfOrder_OrderedInUpstreamOrder() throws IOException {
+        // Arrange
+        try (MockWebServer mockWebServer = new MockWebServer()) {
+            mockWebServer.setDispatcher(new Dispatcher() {
+                @NotNull
+                @Override
+                public MockResponse dispatch(@NotNull final RecordedRequest request) {
+                    final HttpUrl url = Objects.requireNonNull(request.getRequestUrl());
+                    final MockResponse response = new MockResponse()
+                        .setResponseCode(HttpStatus.OK.value())
+                        .setHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE);
+                    if (url.encodedPath().endsWith("/branches")) {
+                        return response.setBody("[]");
+                    }
+                    final String page = url.queryParameter("page");
+                    if ("2".equals(page)) {
+                        response.setHeadersDelay(200, TimeUnit.MILLISECONDS);
+                    }
+                    return response
+                        .setHeader(HttpHeaders.LINK, String.format(
+                            "<%s?per_page=100&page=3>; rel=\"last\"", url.newBuilder().query(null).build()
+                        ))
+                        .setBody(String.format(
+                            "[{\"name\":\"repo-page-%s\",\"fork\":false,\"owner\":{\"login\":\"%s\"}}]",
+                            page, USERNAME
+                        ));
+                }
+            });
+            mockWebServer.start();
+            final GitHubService restGitHubService = new RestGitHubService(
+                WebClient.builder().baseUrl(mockWebServer.url("/").toString()).build(),
+                new GitHubProperties()
+            );
+            final RepositoryService service = new RepositoryService(
+                restGitHubService, repositoryCache, negativeCache, meterRegistry
+            );
+
+            // Act & Verify
+            StepVerifier.create(service.getRepositories(USERNAME, true).map(Repository::getName))
+                .expectNext("repo-page-1", "repo-page-2", "repo-page-3")
+                .verifyComplete();
+        }
+    }
+
+    @Test
+    void getRepositories_RepeatedRequests_ServedFromCache() {
+        // Arrange
+        when(gitHubService.getGithubRepositories(USERNAME)).thenReturn(Flux.fromIterable(GITHUB_REPOSITORIES));
+        when(gitHubService.getGitHubBranches(eq(USERNAME), anyString())).thenReturn(Flux.fromIterable(GITHUB_BRANCHES));
+
+        // Act & Verify
+        StepVerifier.create(repositoryService.getRepositories(USERNAME))
+            .expectNextSequence(REPOSITORIES)
+            .verifyComplete();
+        StepVerifier.create(repositoryService.getRepositories(USERNAME))
+            .expectNextSequence(REPOSITORIES)
+            .verifyComplete();
+
+        verify(gitHubService, times(1)).getGithubRepositories(USERNAME);
+        verify(gitHubService, times(2)).getGitHubBranches(eq(USERNAME), anyString());
     }
 
     @Test
@@ -87,6 +207,139 @@ class RepositoryServiceTest {
 
         verify(gitHubService, times(1)).getGithubRepositories(USERNAME);
         verify(gitHubService, times(2)).getGitHubBranches(eq(USERNAME), anyString());
+        assertThat(meterRegistry.get("repositories.branches.failures").tag("exception", "NotFoundException").counter().count())
+            .isEqualTo(2);
     }
-}
 
+    @Test
+    void getRepositories_UnknownUsername_SecondRequestAnsweredFromNegativeCache() {
+        // Arrange
+        when(gitHubService.getGithubRepositories(USERNAME))
+            .thenReturn(Flux.error(new NotFoundException("User with username testuser not found!")));
+
+        // Act & Verify
+        StepVerifier.create(repositoryService.getRepositories(USERNAME))
+            .verifyError(NotFoundException.class);
+        StepVerifier.create(repositoryService.getRepositories(USERNAME.toUpperCase()))
+            .verifyError(NotFoundException.class);
+
+        verify(gitHubService, times(1)).getGithubRepositories(anyString());
+    }
+
+    @Test
+    void getRepositories_ValidUsername_RateLimitExceededFetchingBranches_ReturnsError() {
+        // Arrange
+        when(gitHubService.getGithubRepositories(USERNAME)).thenReturn(Flux.fromIterable(GITHUB_REPOSITORIES));
+        when(gitHubService.getGitHubBranches(eq(USERNAME), anyString()))
+            .thenReturn(Flux.error(new RateLimitExceededException("Rate limit exceeded", Duration.ofMinutes(1))));
+
+        // Act
+        final Flux<Repository> result = repositoryService.getRepositories(USERNAME);
+
+        // Verify
+        StepVerifier.create(result)
+            .verifyError(RateLimitExceededException.class);
+    }
+
+    @Test
+    void getRepositoriesBatch_DuplicateAndUnknownUsernames_FetchesEveryUsernameOnce() {
+        // Arrange
+        final NotFoundException notFound = new NotFoundException("User with username unknown not found!");
+        when(gitHubService.getGithubRepositories(USERNAME)).thenReturn(Flux.fromIterable(GITHUB_REPOSITORIES));
+        when(gitHubService.getGitHubBranches(eq(USERNAME), anyString())).thenReturn(Flux.fromIterable(GITHUB_BRANCHES));
+        when(gitHubService.getGithubRepositories("unknown")).thenReturn(Flux.error(notFound));
+
+        // Act
+        final Flux<UserRepositories> result = repositoryService.getRepositories(
+            List.of(USERNAME, "unknown", USERNAME.toUpperCase(), USERNAME), 1
+        );
+
+        // Verify
+        StepVerifier.create(result)
+            .expectNext(UserRepositories.builder().username(USERNAME).repositories(REPOSITORIES).build())
+            .expectNext(UserRepositories.builder().username("unknown").error(notFound).build())
+            .verifyComplete();
+
+        verify(gitHubService, times(1)).getGithubRepositories(USERNAME);
+        verify(gitHubService, times(1)).getGithubRepositories("unknown");
+        verify(gitHubService, times(2)).getGitHubBranches(eq(USERNAME), anyString());
+    }
+
+    @Test
+    void getRepositoriesWithQuery_BranchesExcluded_FetchesNoBranches() {
+        // Arrange
+        final RepositoryQuery query = RepositoryQuery.builder().includeBranches(false).build();
+        when(gitHubService.getGithubRepositories(USERNAME, query)).thenReturn(Flux.fromIterable(GITHUB_REPOSITORIES));
+
+        // Act & Verify
+        StepVerifier.create(repositoryService.getRepositories(USERNAME, true, query))
+            .expectNext(
+                REPOSITORIES.get(0).toBuilder().branches(null).build(),
+                REPOSITORIES.get(1).toBuilder().branches(null).build()
+            )
+            .verifyComplete();
+
+        verify(gitHubService, never()).getGitHubBranches(anyString(), anyString());
+        verify(gitHubService, never()).getGitHubBranches(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    void getRepositoriesWithQuery_PagedWithMaxBranches_FetchesBranchesOfPageOnly() {
+        // Arrange
+        final RepositoryQuery query = RepositoryQuery.builder().namePrefix("REPO").page(2).size(1).maxBranches(1).build();
+        when(gitHubService.getGithubRepositories(USERNAME, query)).thenReturn(Flux.fromIterable(GITHUB_REPOSITORIES));
+        when(gitHubService.getGitHubBranches(USERNAME, REPO_2, 1)).thenReturn(Flux.just(GITHUB_BRANCHES.get(0)));
+
+        // Act & Verify
+        StepVerifier.create(repositoryService.getRepositories(USERNAME, false, query))
+            .expectNext(REPOSITORIES.get(1).toBuilder().branches(List.of(GITHUB_BRANCHES.get(0))).build())
+            .verifyComplete();
+
+        verify(gitHubService, times(1)).getGitHubBranches(anyString(), anyString(), anyInt());
+        verify(gitHubService, never()).getGitHubBranches(anyString(), anyString());
+        assertThat(meterRegistry.get("repositories.fanout").summary().totalAmount()).isEqualTo(1);
+    }
+
+    @Test
+    void getRepositoriesWithQuery_CachedRepositories_ProjectedWithoutUpstreamCalls() {
+        // Arrange
+        when(gitHubService.getGithubRepositories(USERNAME)).thenReturn(Flux.fromIterable(GITHUB_REPOSITORIES));
+        when(gitHubService.getGitHubBranches(eq(USERNAME), anyString())).thenReturn(Flux.fromIterable(GITHUB_BRANCHES));
+        StepVerifier.create(repositoryService.getRepositories(USERNAME)).expectNextCount(2).verifyComplete();
+        final RepositoryQuery query = RepositoryQuery.builder().namePrefix(REPO_2).maxBranches(1).build();
+
+        // Act & Verify
+        StepVerifier.create(repositoryService.getRepositories(USERNAME, false, query))
+            .expectNext(REPOSITORIES.get(1).toBuilder().branches(List.of(GITHUB_BRANCHES.get(0))).build())
+            .verifyComplete();
+
+        verify(gitHubService, times(1)).getGithubRepositories(USERNAME);
+        verify(gitHubService, never()).getGithubRepositories(eq(USERNAME), any(RepositoryQuery.class));
+        verify(gitHubService, times(2)).getGitHubBranches(eq(USERNAME), anyString());
+    }
+
+    @Test
+    void streamRepositories_FailureBeforeFirstBranch_StreamsRepositoryWithoutBranchesAndCachesNothing() {
+        // Arrange
+        final RepositoryQuery listing = RepositoryQuery.ALL.toBuilder().includeBranches(false).build();
+        when(gitHubService.getGithubRepositories(USERNAME, listing)).thenReturn(Flux.fromIterable(GITHUB_REPOSITORIES));
+        when(gitHubService.getGitHubBranches(USERNAME, REPO_1))
+            .thenReturn(Flux.error(new RuntimeException("Failed to fetch branches")));
+        when(gitHubService.getGitHubBranches(USERNAME, REPO_2)).thenReturn(Flux.fromIterable(GITHUB_BRANCHES));
+
+        // Act
+        final Flux<Repository> result = repositoryService.streamRepositories(USERNAME, RepositoryQuery.ALL)
+            .concatMap(repository -> repository.getBranches().collectList().map(branches -> Repository.builder()
+                .name(repository.getName())
+                .ownerLogin(repository.getOwnerLogin())
+                .branches(branches)
+                .build()));
+
+        // Verify
+        StepVerifier.create(result)
+            .expectNext(REPOSITORIES.get(0).toBuilder().branches(List.of()).build(), REPOSITORIES.get(1))
+            .verifyComplete();
+        verify(gitHubService, never()).getGithubRepositories(USERNAME);
+        assertThat(repositoryCache.getIfPresent(USERNAME)).isEmpty();
+    }
+}
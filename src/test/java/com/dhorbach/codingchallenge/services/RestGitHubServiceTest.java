@@ -0,0 +1,258 @@
+package com.dhorbach.codingchallenge.services;
+
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import com.dhorbach.codingchallenge.exceptions.NotFoundException;
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.GitHubRepository;
+import com.dhorbach.codingchallenge.models.RepositoryQuery;
+import com.dhorbach.codingchallenge.util.FileUtil;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static com.dhorbach.codingchallenge.util.Constants.BRANCH_1;
+import static com.dhorbach.codingchallenge.util.Constants.BRANCH_2;
+import static com.dhorbach.codingchallenge.util.Constants.REPO_1;
+import static com.dhorbach.codingchallenge.util.Constants.REPO_2;
+import static com.dhorbach.codingchallenge.util.Constants.USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RestGitHubServiceTest {
+
+    private MockWebServer mockWebServer;
+    private GitHubService gitHubService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+
+        final WebClient webClient = WebClient.builder()
+            .baseUrl(mockWebServer.url("/").toString())
+            .build();
+
+        gitHubService = new RestGitHubService(webClient, new GitHubProperties());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void getGithubRepositories_ValidUsername_ReturnsRepositories() throws IOException {
+        // Arrange
+       final List<GitHubRepository> expectedRepositories = List.of(
+            new GitHubRepository(REPO_1, false, USERNAME),
+            new GitHubRepository(REPO_2, true, USERNAME)
+        );
+        final String bodyJson = FileUtil.readFromFileToString("/github-repositories.json");
+
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(HttpStatus.OK.value())
+            .setHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+            .setBody(bodyJson));
+
+        // Act
+        final Flux<GitHubRepository> result = gitHubService.getGithubRepositories(USERNAME);
+
+        // Verify
+        StepVerifier.create(result)
+            .expectNextSequence(expectedRepositories)
+            .verifyComplete();
+    }
+
+    @Test
+    void getGithubRepositories_MultiplePages_ReturnsRepositoriesOfAllPages() throws InterruptedException {
+        // Arrange
+        final int lastPage = 3;
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull final RecordedRequest request) {
+                final String page = Objects.requireNonNull(request.getRequestUrl()).queryParameter("page");
+                final MockResponse response = new MockResponse()
+                    .setResponseCode(HttpStatus.OK.value())
+                    .setHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                    .setBody(String.format(
+                        "[{\"name\":\"repo-page-%s\",\"fork\":false,\"owner\":{\"login\":\"%s\"}}]",
+                        page, USERNAME
+                    ));
+                if ("1".equals(page)) {
+                    response.setHeader(HttpHeaders.LINK, String.format(
+                        "<%1$s?per_page=100&page=2>; rel=\"next\", <%1$s?per_page=100&page=%2$d>; rel=\"last\"",
+                        mockWebServer.url("/users/" + USERNAME + "/repos"), lastPage
+                    ));
+                }
+                return response;
+            }
+        });
+
+        // Act & Verify
+        StepVerifier.create(gitHubService.getGithubRepositories(USERNAME))
+            .recordWith(ArrayList::new)
+            .expectNextCount(lastPage)
+            .consumeRecordedWith(repositories -> assertThat(repositories)
+                .extracting(GitHubRepository::getName)
+                .containsExactlyInAnyOrder("repo-page-1", "repo-page-2", "repo-page-3"))
+            .verifyComplete();
+
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(lastPage);
+        assertThat(Objects.requireNonNull(mockWebServer.takeRequest().getRequestUrl()).queryParameter("per_page"))
+            .isEqualTo("100");
+    }
+
+    @Test
+    void getGithubRepositories_LaterPageArrivesFirst_KeepsUpstreamOrder() {
+        // Arrange
+        mockWebServer.setDispatcher(pagedRepositories(3, "2"));
+
+        // Act & Verify
+        StepVerifier.create(gitHubService.getGithubRepositories(USERNAME).map(GitHubRepository::getName))
+            .expectNext("repo-page-1", "repo-page-2", "repo-page-3")
+            .verifyComplete();
+    }
+
+    @Test
+    void getGithubRepositoriesWithQuery_CancelledAfterFirstPage_FetchesNoFurtherPages() {
+        // Arrange
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull final RecordedRequest request) {
+                final String page = Objects.requireNonNull(request.getRequestUrl()).queryParameter("page");
+                return new MockResponse()
+                    .setResponseCode(HttpStatus.OK.value())
+                    .setHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                    .setHeader(HttpHeaders.LINK, String.format(
+                        "<%s?per_page=100&page=3>; rel=\"last\"", mockWebServer.url("/users/" + USERNAME + "/repos")
+                    ))
+                    .setBody(String.format(
+                        "[{\"name\":\"repo-page-%s\",\"fork\":false,\"owner\":{\"login\":\"%s\"}}]",
+                        page, USERNAME
+                    ));
+            }
+        });
+        final RepositoryQuery query = RepositoryQuery.builder().size(1).build();
+
+        // Act & Verify
+        StepVerifier.create(gitHubService.getGithubRepositories(USERNAME, query).take(1))
+            .expectNextMatches(repository -> repository.getName().equals("repo-page-1"))
+            .verifyComplete();
+
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getGithubRepositories_UserNotFound_ThrowsNotFoundException() {
+        // Arrange
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(HttpStatus.NOT_FOUND.value()));
+
+        // Act & Verify
+        StepVerifier.create(gitHubService.getGithubRepositories(USERNAME))
+            .expectError(NotFoundException.class)
+            .verify();
+    }
+
+    @Test
+    void getGitHubBranches_ValidUsernameAndRepository_ReturnsBranches() throws IOException {
+        // Arrange
+        final String commit = "commit sha";
+        final List<GitHubBranch> expectedBranches = List.of(
+            new GitHubBranch(BRANCH_1, commit),
+            new GitHubBranch(BRANCH_2, commit)
+        );
+
+        final String bodyJson = FileUtil.readFromFileToString("/github-branches.json");
+
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(HttpStatus.OK.value())
+            .setHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+            .setBody(bodyJson));
+
+        // Act
+        final Flux<GitHubBranch> result = gitHubService.getGitHubBranches(USERNAME, REPO_1);
+
+        // Verify
+        StepVerifier.create(result)
+            .expectNextSequence(expectedBranches)
+            .verifyComplete();
+    }
+
+    @Test
+    void getGitHubBranches_MaxBranches_RequestsOnlyNeededBranches() throws IOException, InterruptedException {
+        // Arrange
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(HttpStatus.OK.value())
+            .setHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+            .setBody(FileUtil.readFromFileToString("/github-branches.json")));
+
+        // Act & Verify
+        StepVerifier.create(gitHubService.getGitHubBranches(USERNAME, REPO_1, 1))
+            .expectNext(new GitHubBranch(BRANCH_1, "commit sha"))
+            .verifyComplete();
+
+        assertThat(Objects.requireNonNull(mockWebServer.takeRequest().getRequestUrl()).queryParameter("per_page"))
+            .isEqualTo("1");
+    }
+
+    @Test
+    void getGitHubBranches_UserOrRepositoryNotFound_ThrowsNotFoundException() {
+        // Arrange
+        mockWebServer.enqueue(new MockResponse()
+            .setResponseCode(HttpStatus.NOT_FOUND.value()));
+
+        // Act & Verify
+        StepVerifier.create(gitHubService.getGitHubBranches(USERNAME, REPO_1))
+            .expectError(NotFoundException.class)
+            .verify();
+    }
+
+    /**
+     * @param lastPage    the number of pages
+     * @param delayedPage the page whose response is delayed, so that later pages arrive before it
+     * @return a dispatcher answering each page of repositories with a single repository named after the page
+     */
+    private Dispatcher pagedRepositories(final int lastPage, final String delayedPage) {
+        return new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull final RecordedRequest request) {
+                final String page = Objects.requireNonNull(request.getRequestUrl()).queryParameter("page");
+                final MockResponse response = new MockResponse()
+                    .setResponseCode(HttpStatus.OK.value())
+                    .setHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                    .setHeader(HttpHeaders.LINK, String.format(
+                        "<%s?per_page=100&page=%d>; rel=\"last\"",
+                        mockWebServer.url("/users/" + USERNAME + "/repos"), lastPage
+                    ))
+                    .setBody(String.format(
+                        "[{\"name\":\"repo-page-%s\",\"fork\":false,\"owner\":{\"login\":\"%s\"}}]",
+                        page, USERNAME
+                    ));
+                if (delayedPage.equals(page)) {
+                    response.setHeadersDelay(200, TimeUnit.MILLISECONDS);
+                }
+                return response;
+            }
+        };
+    }
+}
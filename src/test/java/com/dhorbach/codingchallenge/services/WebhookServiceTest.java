@@ -0,0 +1,171 @@
+package com.dhorbach.codingchallenge.services;
+
+import com.dhorbach.codingchallenge.cache.NegativeCache;
+import com.dhorbach.codingchallenge.cache.RepositoryCache;
+import com.dhorbach.codingchallenge.config.GitHubProperties;
+import com.dhorbach.codingchallenge.config.RepositoryCacheProperties;
+import com.dhorbach.codingchallenge.models.GitHubBranch;
+import com.dhorbach.codingchallenge.models.Repository;
+import com.dhorbach.codingchallenge.util.FileUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.util.HexFormat;
+import java.util.List;
+
+import static com.dhorbach.codingchallenge.util.Constants.BRANCH_1;
+import static com.dhorbach.codingchallenge.util.Constants.BRANCH_2;
+import static com.dhorbach.codingchallenge.util.Constants.COMMIT;
+import static com.dhorbach.codingchallenge.util.Constants.REPOSITORIES;
+import static com.dhorbach.codingchallenge.util.Constants.REPO_1;
+import static com.dhorbach.codingchallenge.util.Constants.REPO_2;
+import static com.dhorbach.codingchallenge.util.Constants.USERNAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Replays recorded GitHub webhook payloads from {@code webhooks/} against cached repositories.
+ */
+@ExtendWith(MockitoExtension.class)
+class WebhookServiceTest {
+
+    private static final String SECRET = "webhook secret";
+
+    @Mock
+    private RepositoryService repositoryService;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RepositoryCache repositoryCache;
+    private WebhookService webhookService;
+
+    @BeforeEach
+    void setUp() {
+        final GitHubProperties gitHubProperties = new GitHubProperties();
+        gitHubProperties.getWebhook().setEnabled(true);
+        gitHubProperties.getWebhook().setSecret(SECRET);
+        repositoryCache = new RepositoryCache(new RepositoryCacheProperties(), meterRegistry, Clock.systemUTC());
+        final NegativeCache negativeCache =
+            new NegativeCache(new RepositoryCacheProperties.Negative(), meterRegistry, Clock.systemUTC());
+        webhookService =
+            new WebhookService(gitHubProperties, repositoryCache, negativeCache, repositoryService, meterRegistry);
+        repositoryCache.get(USERNAME, username -> Flux.fromIterable(REPOSITORIES).index()).blockLast();
+    }
+
+    @Test
+    void isSignatureValid_SignedPayload_AcceptedUnlessTampered() throws IOException {
+        // Arrange
+        final byte[] payload = FileUtil.readFromFileToString("webhooks/push.json").getBytes(StandardCharsets.UTF_8);
+        final String signature = sign(payload);
+        final byte[] tampered = new String(payload, StandardCharsets.UTF_8)
+            .replace("refs/heads/branch1", "refs/heads/branch2")
+            .getBytes(StandardCharsets.UTF_8);
+
+        // Act & Verify
+        assertThat(webhookService.isSignatureValid("push", signature, payload)).isTrue();
+        assertThat(webhookService.isSignatureValid("push", signature, tampered)).isFalse();
+        assertThat(webhookService.isSignatureValid("push", "sha256=not hex", payload)).isFalse();
+        assertThat(webhookService.isSignatureValid("push", null, payload)).isFalse();
+        assertThat(events("push", "rejected")).isEqualTo(3);
+    }
+
+    @Test
+    void handle_PushEvent_UpdatesCommitShaInPlace() throws IOException {
+        // Act
+        replay("push", "webhooks/push.json");
+
+        // Verify
+        final GitHubBranch pushed = new GitHubBranch(BRANCH_1, "0d1a26e67d8f5eaf1f6ba5c57fc3c7d91ac0fd1c");
+        assertThat(cached()).containsExactly(
+            repository(REPO_1, pushed, new GitHubBranch(BRANCH_2, COMMIT)),
+            REPOSITORIES.get(1)
+        );
+        verify(repositoryService, never()).fetchRepository(anyString(), anyString());
+        assertThat(events("push", "updated")).isEqualTo(1);
+    }
+
+    @Test
+    void handle_DeleteEvent_RemovesBranch() throws IOException {
+        // Act
+        replay("delete", "webhooks/delete.json");
+
+        // Verify
+        assertThat(cached()).containsExactly(repository(REPO_1, new GitHubBranch(BRANCH_1, COMMIT)), REPOSITORIES.get(1));
+    }
+
+    @Test
+    void handle_CreateEvent_RefreshesOnlyThatRepository() throws IOException {
+        // Arrange
+        final Repository refreshed =
+            repository(REPO_2, new GitHubBranch(BRANCH_1, COMMIT), new GitHubBranch("feature", COMMIT));
+        when(repositoryService.fetchRepository(USERNAME, REPO_2)).thenReturn(Mono.just(refreshed));
+
+        // Act
+        replay("create", "webhooks/create.json");
+
+        // Verify
+        assertThat(cached()).containsExactly(REPOSITORIES.get(0), refreshed);
+        assertThat(events("create", "refreshed")).isEqualTo(1);
+    }
+
+    @Test
+    void handle_RepositoryRenamed_KeepsUpstreamOrder() throws IOException {
+        // Act
+        replay("repository", "webhooks/repository-renamed.json");
+
+        // Verify
+        assertThat(cached()).extracting(Repository::getName).containsExactly("archive", REPO_1);
+        assertThat(cached().get(0).getBranches()).isEqualTo(REPOSITORIES.get(1).getBranches());
+    }
+
+    @Test
+    void handle_ForkEvent_Ignored() throws IOException {
+        // Act
+        replay("fork", "webhooks/fork.json");
+
+        // Verify
+        assertThat(cached()).containsExactlyElementsOf(REPOSITORIES);
+        assertThat(events("fork", "ignored")).isEqualTo(1);
+    }
+
+    private void replay(final String event, final String path) throws IOException {
+        webhookService.handle(event, objectMapper.readTree(FileUtil.readFromFileToString(path)));
+    }
+
+    private List<Repository> cached() {
+        return repositoryCache.getIfPresent(USERNAME).orElseThrow();
+    }
+
+    private static Repository repository(final String name, final GitHubBranch... branches) {
+        return Repository.builder().name(name).ownerLogin(USERNAME).branches(List.of(branches)).build();
+    }
+
+    private double events(final String event, final String outcome) {
+        return meterRegistry.get("github.webhooks.events").tag("event", event).tag("outcome", outcome).counter().count();
+    }
+
+    private static String sign(final byte[] payload) {
+        try {
+            final Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return "sha256=" + HexFormat.of().formatHex(mac.doFinal(payload));
+        } catch (final GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.dhorbach.codingchallenge.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Clock that only moves when advanced by the test.
+ */
+public class MutableClock extends Clock {
+    private Instant instant = Instant.parse("2023-07-01T00:00:00Z");
+
+    public void advance(final Duration duration) {
+        instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(final ZoneId zone) {
+        return this;
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+}